@@ -1,11 +1,73 @@
 // full file: Pl.java
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 
 import javax.swing.*;
 import javax.swing.JFormattedTextField;
@@ -16,15 +78,42 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
 
+import java.awt.Component;
 import java.awt.ComponentOrientation;
+import java.awt.Container;
 import java.awt.Font;
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 
 /* ------------------------------------------------------------
    Placement Management System (3-column layout, popup outputs)
@@ -45,6 +134,7 @@ class RecordNotFoundException extends Exception {
 
 /* Base class Person */
 abstract class Person implements Serializable {
+    private static final long serialVersionUID = -7538698843163579245L;
     protected String id;
     protected String name;
 
@@ -64,6 +154,7 @@ abstract class Person implements Serializable {
 
 /* Skill */
 class Skill implements Serializable {
+    private static final long serialVersionUID = 3544383937957491802L;
     private String name, level;
     public Skill(String name, String level) { this.name = name; this.level = level; }
     public String getName() { return name; }
@@ -71,11 +162,103 @@ class Skill implements Serializable {
     @Override public String toString() { return name + "(" + level + ")"; }
 }
 
+/* Skill levels as captured by the dialogs; anything that is not "High" counts as Low */
+enum SkillLevel {
+    LOW("Low"), HIGH("High");
+    final String label;
+    SkillLevel(String label) { this.label = label; }
+    static SkillLevel parse(String s) { return s != null && s.trim().equalsIgnoreCase("High") ? HIGH : LOW; }
+}
+
+/* Process-wide skill dictionary: normalized name -> dense int id, first-seen spelling kept for
+   display. A skill is stored as the code (id << 1 | level), so a sorted int[] of codes is also
+   sorted by skill id and set operations are merges. One interned Skill object exists per code. */
+final class SkillCatalog {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile Skill[] skills = new Skill[128]; // by code
+    private static int count;
+
+    private SkillCatalog() {}
+
+    static String normalize(String skill) { return skill.trim().toLowerCase(Locale.ROOT); }
+
+    static int id(String name) {
+        Integer id = ids.get(normalize(name));
+        return id != null ? id : register(name);
+    }
+    // -1 when no student or company ever had the skill
+    static int find(String name) { Integer id = ids.get(normalize(name)); return id == null ? -1 : id; }
+
+    private static synchronized int register(String name) {
+        String key = normalize(name);
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        int n = count;
+        Skill[] arr = skills;
+        if ((n << 1) + 1 >= arr.length) arr = Arrays.copyOf(arr, arr.length * 2);
+        String display = name.trim();
+        arr[n << 1] = new Skill(display, SkillLevel.LOW.label);
+        arr[(n << 1) | 1] = new Skill(display, SkillLevel.HIGH.label);
+        skills = arr;
+        count = n + 1;
+        ids.put(key, n);
+        return n;
+    }
+
+    static int code(Skill s) { return code(id(s.getName()), SkillLevel.parse(s.getLevel())); }
+    static int code(int id, SkillLevel level) { return id << 1 | level.ordinal(); }
+    static int idOf(int code) { return code >>> 1; }
+    static SkillLevel levelOf(int code) { return SkillLevel.values()[code & 1]; }
+    static Skill skill(int code) { return skills[code]; }
+    static int size() { return count; }
+
+    // sorted insert; a code already present is not added twice
+    static int[] add(int[] codes, int code) {
+        int p = Arrays.binarySearch(codes, code);
+        if (p >= 0) return codes;
+        p = -p - 1;
+        int[] out = new int[codes.length + 1];
+        System.arraycopy(codes, 0, out, 0, p);
+        out[p] = code;
+        System.arraycopy(codes, p, out, p + 1, codes.length - p);
+        return out;
+    }
+    static int[] encode(List<Skill> list) {
+        int[] codes = new int[0];
+        if (list != null) for (Skill k : list) codes = add(codes, code(k));
+        return codes;
+    }
+    // read-only Skill view over codes, backed by the interned instances
+    static List<Skill> view(int[] codes) {
+        return new AbstractList<Skill>() {
+            @Override public Skill get(int i) { return skill(codes[i]); }
+            @Override public int size() { return codes.length; }
+        };
+    }
+    // true if every skill id in required also appears in have, levels ignored; both sorted
+    static boolean containsAllIds(int[] have, int[] required) {
+        int i = 0;
+        for (int r : required) {
+            int id = r >>> 1;
+            while (i < have.length && (have[i] >>> 1) < id) i++;
+            if (i == have.length || (have[i] >>> 1) != id) return false;
+        }
+        return true;
+    }
+}
+
 /* Student (uses float cgpa) */
 class Student extends Person {
+    private static final long serialVersionUID = 648406616740127227L;
+    // the serialized form is still the original List<Skill>, so old .dat files keep loading
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("branch", String.class),
+        new ObjectStreamField("cgpa", float.class),
+        new ObjectStreamField("skills", List.class)
+    };
     private String branch;
     private float cgpa;
-    private List<Skill> skills = new ArrayList<>();
+    private int[] skills = new int[0]; // sorted SkillCatalog codes
 
     public Student(String id, String name, String branch, float cgpa) {
         super(id, name);
@@ -83,22 +266,50 @@ class Student extends Person {
         this.cgpa = cgpa;
     }
 
-    public void addSkill(Skill s) { skills.add(s); }
-    public List<Skill> getSkills() { return skills; }
+    public void addSkill(Skill s) { skills = SkillCatalog.add(skills, SkillCatalog.code(s)); }
+    public List<Skill> getSkills() { return SkillCatalog.view(skills); }
+    int[] getSkillCodes() { return skills; }
     public String getBranch() { return branch; }
     public float getCgpa() { return cgpa; }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("branch", branch);
+        f.put("cgpa", cgpa);
+        f.put("skills", new ArrayList<>(getSkills()));
+        out.writeFields();
+    }
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+        branch = (String) f.get("branch", null);
+        cgpa = f.get("cgpa", 0f);
+        skills = SkillCatalog.encode((List<Skill>) f.get("skills", null));
+    }
+
     @Override
     public String toString() {
-        return super.toString() + " | Branch: " + branch + " | CGPA: " + String.format("%.2f", cgpa) + " | Skills: " + skills;
+        return super.toString() + " | Branch: " + branch + " | CGPA: " + String.format("%.2f", cgpa) + " | Skills: " + getSkills();
     }
 }
 
 /* Company (minCgpa as float) */
 class Company implements Serializable {
+    private static final long serialVersionUID = 5551747596863190737L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", String.class),
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("role", String.class),
+        new ObjectStreamField("minCgpa", float.class),
+        new ObjectStreamField("requiredSkills", List.class)
+    };
     private String id, name, role;
     private float minCgpa;
-    private List<Skill> requiredSkills = new ArrayList<>();
+    private int[] requiredSkills = new int[0]; // sorted SkillCatalog codes
+    // not in the serialized form: the legacy .dat format predates rules and interview plans
+    private String rule;
+    private EligibilityRule compiledRule;
+    private InterviewPlan interviews;
 
     public Company(String id, String name, String role, float minCgpa) {
         this.id = id;
@@ -107,31 +318,75 @@ class Company implements Serializable {
         this.minCgpa = minCgpa;
     }
 
-    public void addRequiredSkill(Skill s) { requiredSkills.add(s); }
-    public List<Skill> getRequiredSkills() { return requiredSkills; }
+    public void addRequiredSkill(Skill s) { requiredSkills = SkillCatalog.add(requiredSkills, SkillCatalog.code(s)); }
+    public List<Skill> getRequiredSkills() { return SkillCatalog.view(requiredSkills); }
+    int[] getRequiredSkillCodes() { return requiredSkills; }
+    // EligibilityRule text, null or blank for none; compiled here, so a bad rule throws IllegalArgumentException
+    public void setRule(String rule) {
+        String r = rule == null || rule.trim().isEmpty() ? null : rule.trim();
+        compiledRule = r == null ? null : EligibilityRule.compile(r);
+        this.rule = r;
+    }
+    public String getRule() { return rule; }
+    EligibilityRule getCompiledRule() { return compiledRule; }
+    // InterviewPlan text, null or blank for none; a bad plan throws IllegalArgumentException
+    public void setInterviewPlan(String plan) {
+        interviews = plan == null || plan.trim().isEmpty() ? null : InterviewPlan.parse(plan);
+    }
+    InterviewPlan getInterviewPlan() { return interviews; }
+    public String getInterviews() { return interviews == null ? null : interviews.toString(); }
     public float getMinCgpa() { return minCgpa; }
     public String getId() { return id; }
     public String getName() { return name; }
     public String getRole() { return role; }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("id", id);
+        f.put("name", name);
+        f.put("role", role);
+        f.put("minCgpa", minCgpa);
+        f.put("requiredSkills", new ArrayList<>(getRequiredSkills()));
+        out.writeFields();
+    }
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+        id = (String) f.get("id", null);
+        name = (String) f.get("name", null);
+        role = (String) f.get("role", null);
+        minCgpa = f.get("minCgpa", 0f);
+        requiredSkills = SkillCatalog.encode((List<Skill>) f.get("requiredSkills", null));
+    }
+
     @Override
     public String toString() {
-        return "Company ID: " + id + " | Name: " + name + " | Role: " + role + " | MinCGPA: " + String.format("%.2f", minCgpa) + " | RequiredSkills: " + requiredSkills;
+        return "Company ID: " + id + " | Name: " + name + " | Role: " + role + " | MinCGPA: " + String.format("%.2f", minCgpa) + " | RequiredSkills: " + getRequiredSkills()
+                + (rule == null ? "" : " | Rule: " + rule) + (interviews == null ? "" : " | Interviews: " + interviews);
     }
 }
 
 /* Placement record */
 class PlacementRecord implements Serializable {
+    private static final long serialVersionUID = -2006444174125410491L;
     private String studentId, companyId, status;
     private Date date;
 
     public PlacementRecord(String studentId, String companyId, String status) {
+        this(studentId, companyId, status, new Date());
+    }
+    public PlacementRecord(String studentId, String companyId, String status, Date date) {
         this.studentId = studentId;
         this.companyId = companyId;
         this.status = status;
-        this.date = new Date();
+        this.date = date;
     }
 
+    public String getStudentId() { return studentId; }
+    public String getCompanyId() { return companyId; }
+    public String getStatus() { return status; }
+    public Date getDate() { return date; }
+
     @Override
     public String toString() {
         return "Student: " + studentId + " | Company: " + companyId + " | Status: " + status + " | Date: " + date;
@@ -169,29 +424,35 @@ class NumericDocumentFilter extends DocumentFilter {
 
 /* InputVerifier that ensures value is a float between min and max (inclusive) */
 class NumericRangeVerifier extends InputVerifier {
+    // shared by the dialogs and bulk import
+    static final NumericRangeVerifier CGPA = new NumericRangeVerifier(0.0f, 10.0f);
+
     private final float min, max;
     public NumericRangeVerifier(float min, float max) { this.min = min; this.max = max; }
     @Override
     public boolean verify(JComponent input) {
-        if (input instanceof JFormattedTextField) {
-            JFormattedTextField tf = (JFormattedTextField) input;
-            String txt = tf.getText().trim();
-            if (txt.isEmpty()) return false;
-            try {
-                float v = Float.parseFloat(txt);
-                return v >= min && v <= max;
-            } catch (NumberFormatException ex) {
-                return false;
-            }
-        }
+        if (input instanceof JFormattedTextField) return accepts(((JFormattedTextField) input).getText());
         return true;
     }
+    // the same rule without a Swing component
+    public boolean accepts(String txt) {
+        txt = txt == null ? "" : txt.trim();
+        if (txt.isEmpty()) return false;
+        try {
+            float v = Float.parseFloat(txt);
+            return v >= min && v <= max;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+    public String getErrorMessage() {
+        return "Please enter a valid CGPA between " + String.format("%.2f", min) + " and " + String.format("%.2f", max) + ".";
+    }
     @Override
     public boolean shouldYieldFocus(JComponent input) {
         boolean ok = verify(input);
         if (!ok) {
-            JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(input),
-                    "Please enter a valid CGPA between " + String.format("%.2f", min) + " and " + String.format("%.2f", max) + ".",
+            JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(input), getErrorMessage(),
                     "Invalid CGPA", JOptionPane.WARNING_MESSAGE);
             input.requestFocusInWindow();
         }
@@ -201,6 +462,12 @@ class NumericRangeVerifier extends InputVerifier {
 
 /* Generic Pattern-based verifier for ID/Name */
 class PatternVerifier extends InputVerifier {
+    // shared by the dialogs and bulk import
+    static final PatternVerifier ID = new PatternVerifier("^[0-9-]+$",
+            "Invalid ID. Only digits (0-9) and '-' are allowed.");
+    static final PatternVerifier NAME = new PatternVerifier("^[A-Za-z ]+$",
+            "Invalid Name. Only alphabetic letters and spaces are allowed.");
+
     private final Pattern pattern;
     private final String errorMessage;
     public PatternVerifier(String regex, String errorMessage) { this.pattern = Pattern.compile(regex); this.errorMessage = errorMessage; }
@@ -211,10 +478,13 @@ class PatternVerifier extends InputVerifier {
             // IMPORTANT: allow empty here so that the verifier does not pop up an error immediately when the dialog opens
             // Empty checks are performed explicitly in dialog handlers (add/edit) so the user sees a friendly message there.
             if (txt.isEmpty()) return true;
-            return pattern.matcher(txt).matches();
+            return accepts(txt);
         }
         return true;
     }
+    // the same rule without a Swing component
+    public boolean accepts(String txt) { return txt != null && pattern.matcher(txt.trim()).matches(); }
+    public String getErrorMessage() { return errorMessage; }
     @Override
     public boolean shouldYieldFocus(JComponent input) {
         boolean ok = verify(input);
@@ -226,263 +496,5948 @@ class PatternVerifier extends InputVerifier {
     }
 }
 
-/* Manager with persistence */
-class PlacementManager {
-    private Map<String, Student> students = new HashMap<>();
-    private Map<String, Company> companies = new HashMap<>();
-    private List<PlacementRecord> records = new ArrayList<>();
-    private final String STUD_FILE = "students.dat";
-    private final String COMP_FILE = "companies.dat";
-    private final String REC_FILE = "records.dat";
+/* Log-linear latency histogram in the HDR style: 16 sub-buckets per power of two, so any recorded
+   value is off by at most 1/16 in its bucket. Buckets are preallocated; record() never allocates. */
+class LatencyHistogram {
+    private static final int SUB_BITS = 4, SUB = 1 << SUB_BITS;
+    private final AtomicLongArray buckets = new AtomicLongArray(SUB + (63 - SUB_BITS) * SUB);
+    private final LongAdder count = new LongAdder(), sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
 
-    @SuppressWarnings("unchecked")
-    public void loadAll() {
-        students = (Map<String, Student>) load(STUD_FILE, new HashMap<String, Student>());
-        companies = (Map<String, Company>) load(COMP_FILE, new HashMap<String, Company>());
-        records = (List<PlacementRecord>) load(REC_FILE, new ArrayList<PlacementRecord>());
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        for (long m = max.get(); nanos > m && !max.compareAndSet(m, nanos); m = max.get()) { }
+    }
+    // records the time since a System.nanoTime() start mark
+    void since(long start) { record(System.nanoTime() - start); }
+
+    // values below 16 are exact; above, 16 buckets per power of two
+    private static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return SUB + shift * SUB + (int) (v >>> shift) - SUB;
+    }
+    // smallest value that falls into bucket i
+    private static long lowest(int i) {
+        if (i < SUB) return i;
+        int shift = (i - SUB) / SUB, sub = (i - SUB) % SUB;
+        return (long) (SUB + sub) << shift;
     }
 
-    public void saveAll() {
-        save(STUD_FILE, students);
-        save(COMP_FILE, companies);
-        save(REC_FILE, records);
+    long getCount() { return count.sum(); }
+    long getMax() { return max.get(); }
+    double getMean() { long n = count.sum(); return n == 0 ? 0 : sum.sum() / (double) n; }
+    // upper bound of the bucket holding the p-th fraction of samples
+    long percentile(double p) {
+        long n = count.sum();
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(p * n)), seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= target) return Math.min(max.get(), i + 1 < buckets.length() ? lowest(i + 1) - 1 : Long.MAX_VALUE);
+        }
+        return max.get();
     }
+}
 
-    private Object load(String f, Object def) {
-        try (ObjectInputStream o = new ObjectInputStream(new FileInputStream(f))) { return o.readObject(); }
-        catch (Exception e) { return def; }
+/* Process-wide hot-path metrics. Histograms and counters are fixed fields so recording is a few
+   atomic adds; reading them (JMX, the text dump, GET /metrics) builds the report. */
+final class Metrics {
+    static final LatencyHistogram SAVE_ALL = new LatencyHistogram();
+    static final LatencyHistogram LOAD_ALL = new LatencyHistogram();
+    static final LatencyHistogram ELIGIBLE = new LatencyHistogram();
+    static final LatencyHistogram INTERVIEW = new LatencyHistogram();
+    static final LatencyHistogram DRIVE = new LatencyHistogram();
+    static final LatencyHistogram ALLOCATION = new LatencyHistogram();
+    static final LatencyHistogram SEARCH = new LatencyHistogram();
+    static final LongAdder RECORDS_WRITTEN = new LongAdder();
+    static final LongAdder BYTES_FLUSHED = new LongAdder();
+    static final LongAdder SAVE_FAILURES = new LongAdder();
+    static final LongAdder LOAD_FAILURES = new LongAdder();
+    private static volatile String lastFailure = "";
+    // milliseconds from JVM start until the window was shown / the GUI accepted input; -1 until then
+    private static volatile long startupWindowMs = -1, startupReadyMs = -1;
+
+    private static final String[] HISTOGRAM_NAMES = { "SaveAll", "LoadAll", "GetEligibleStudents", "Interview", "Drive", "AllocateOffers", "Search" };
+    private static final LatencyHistogram[] HISTOGRAMS = { SAVE_ALL, LOAD_ALL, ELIGIBLE, INTERVIEW, DRIVE, ALLOCATION, SEARCH };
+    private static final String[] COUNTER_NAMES = { "RecordsWritten", "BytesFlushed", "SaveFailures", "LoadFailures" };
+    private static final LongAdder[] COUNTERS = { RECORDS_WRITTEN, BYTES_FLUSHED, SAVE_FAILURES, LOAD_FAILURES };
+
+    private Metrics() {}
+
+    static void saveFailed(String what, Exception e) {
+        SAVE_FAILURES.increment();
+        lastFailure = "save " + what + ": " + e;
+        System.err.println("Save error: " + e.getMessage());
     }
-    private void save(String f, Object o) {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(f))) { out.writeObject(o); }
-        catch (Exception e) { System.err.println("Save error: " + e.getMessage()); }
+    static void loadFailed(String what, Exception e) {
+        LOAD_FAILURES.increment();
+        lastFailure = "load " + what + ": " + e;
+        System.err.println("Load error (" + what + "): " + e);
     }
 
-    public void addStudent(Student s) throws InvalidDataException {
-        if (students.containsKey(s.getId())) throw new InvalidDataException("Student ID exists!");
-        students.put(s.getId(), s);
+    static void windowShown() { startupWindowMs = sinceJvmStart(); }
+    static void ready() { startupReadyMs = sinceJvmStart(); }
+    static long getStartupWindowMs() { return startupWindowMs; }
+    static long getStartupReadyMs() { return startupReadyMs; }
+    private static long sinceJvmStart() { return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime(); }
+
+    // attribute name -> current value: "<Histogram><Stat>" and the counters
+    static Map<String, Object> snapshot() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            LatencyHistogram h = HISTOGRAMS[i];
+            out.put(HISTOGRAM_NAMES[i] + "Count", h.getCount());
+            out.put(HISTOGRAM_NAMES[i] + "MeanMs", h.getMean() / 1e6);
+            out.put(HISTOGRAM_NAMES[i] + "P50Ms", h.percentile(0.50) / 1e6);
+            out.put(HISTOGRAM_NAMES[i] + "P99Ms", h.percentile(0.99) / 1e6);
+            out.put(HISTOGRAM_NAMES[i] + "MaxMs", h.getMax() / 1e6);
+        }
+        for (int i = 0; i < COUNTERS.length; i++) out.put(COUNTER_NAMES[i], COUNTERS[i].sum());
+        out.put("StartupWindowMs", startupWindowMs);
+        out.put("StartupReadyMs", startupReadyMs);
+        out.put("LastFailure", lastFailure);
+        return out;
     }
-    public void updateStudent(String id, Student s) throws RecordNotFoundException {
-        if (!students.containsKey(id)) throw new RecordNotFoundException("Student not found!");
-        students.put(id, s);
+
+    static String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            LatencyHistogram h = HISTOGRAMS[i];
+            sb.append(String.format(Locale.ROOT, "%-20s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms%n", HISTOGRAM_NAMES[i],
+                    h.getCount(), h.getMean() / 1e6, h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.getMax() / 1e6));
+        }
+        for (int i = 0; i < COUNTERS.length; i++) sb.append(String.format(Locale.ROOT, "%-20s %d%n", COUNTER_NAMES[i], COUNTERS[i].sum()));
+        if (startupReadyMs >= 0) sb.append(String.format(Locale.ROOT, "%-20s window=%dms ready=%dms%n", "Startup", startupWindowMs, startupReadyMs));
+        if (!lastFailure.isEmpty()) sb.append("LastFailure          ").append(lastFailure).append('\n');
+        return sb.toString();
     }
-    public void addCompany(Company c) throws InvalidDataException {
-        if (companies.containsKey(c.getId())) throw new InvalidDataException("Company ID exists!");
-        companies.put(c.getId(), c);
+
+    // registers PlacementManagementSystem:type=Metrics; a second call is a no-op
+    static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("PlacementManagementSystem:type=Metrics");
+            if (!server.isRegistered(name)) server.registerMBean(new MBean(), name);
+        } catch (JMException e) { System.err.println("Metrics MBean not registered: " + e.getMessage()); }
     }
-    public void updateCompany(String id, Company c) throws RecordNotFoundException {
-        if (!companies.containsKey(id)) throw new RecordNotFoundException("Company not found!");
-        companies.put(id, c);
+
+    // writes dump() to out every intervalSeconds on a daemon thread
+    static void startDump(PrintStream out, int intervalSeconds) {
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        s.scheduleAtFixedRate(() -> out.print("---- metrics " + new Date() + "\n" + dump()), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
     }
-    public Student getStudent(String id) throws RecordNotFoundException {
-        Student s = students.get(id); if (s == null) throw new RecordNotFoundException("Student not found!"); return s;
+
+    // read-only dynamic MBean over snapshot(); dynamic so the attribute list stays in one place
+    private static class MBean implements DynamicMBean {
+        @Override public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object v = snapshot().get(attribute);
+            if (v == null) throw new AttributeNotFoundException(attribute);
+            return v;
+        }
+        @Override public AttributeList getAttributes(String[] attributes) {
+            Map<String, Object> all = snapshot();
+            AttributeList out = new AttributeList();
+            for (String a : attributes) if (all.containsKey(a)) out.add(new Attribute(a, all.get(a)));
+            return out;
+        }
+        @Override public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+        @Override public AttributeList setAttributes(AttributeList attributes) { return new AttributeList(); }
+        @Override public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(action));
+        }
+        @Override public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attrs = new ArrayList<>();
+            for (Map.Entry<String, Object> e : snapshot().entrySet())
+                attrs.add(new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(), e.getKey(), true, false, false));
+            return new MBeanInfo(Metrics.class.getName(), "Placement hot-path latencies and counters",
+                    attrs.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
     }
-    public Company getCompany(String id) throws RecordNotFoundException {
-        Company c = companies.get(id); if (c == null) throw new RecordNotFoundException("Company not found!"); return c;
+}
+
+/* Versioned, length-prefixed binary format for the model classes.
+   File: [int magic][byte version][byte kind][string dictionary][varint count] then
+   [varint length][body] per entry, and since version 2 an [int crc32] of everything before it.
+   Since version 3 a company body ends with its eligibility rule, since version 4 with its
+   interview plan after that. Since version 5 the kind is followed by a [long lsn]: the journal
+   checkpoint the snapshot covers, which is where replay resumes when this file is loaded.
+   Skill names/levels, branches, statuses and the ids inside records are written as dictionary
+   codes. Journal payloads reuse the bodies with no dictionary.
+   Files are written to <name>.tmp, forced, and renamed over <name>; the file replaced is kept as
+   <name>.1, older ones shift up to <name>.<GENERATIONS - 1>, so a torn or corrupt newest snapshot
+   still leaves an older good one to load. */
+class PlacementCodec {
+    static final int MAGIC = 0x504D5342; // "PMSB"
+    static final byte VERSION = 5;
+    static final int GENERATIONS = 3;
+    static final byte STUDENTS = 1, COMPANIES = 2, RECORDS = 3;
+    private static final int CHUNK = 64 * 1024;
+
+    interface IOTask { void run() throws IOException; }
+    interface Reader<T> { T read(File f) throws IOException; }
+    private interface BodyWriter<T> { void write(Out o, T t); }
+    private interface BodyReader { void read(In in, Dict d) throws IOException; }
+
+    /* Strings interned for one file; code 0 is null */
+    static class Dict {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        Dict() { names.add(null); }
+        int code(String s) {
+            if (s == null) return 0;
+            Integer c = codes.get(s);
+            if (c == null) { c = names.size(); codes.put(s, c); names.add(s); }
+            return c;
+        }
+        String get(int code) throws IOException {
+            if (code < 0 || code >= names.size()) throw new IOException("Bad dictionary code " + code);
+            return names.get(code);
+        }
     }
-    public void removeStudent(String id) { students.remove(id); }
-    public void removeCompany(String id) { companies.remove(id); }
-    public void addPlacementRecord(PlacementRecord pr) { records.add(pr); saveAll(); }
-    public List<Student> getAllStudents() { return new ArrayList<>(students.values()); }
-    public List<Company> getAllCompanies() { return new ArrayList<>(companies.values()); }
-    public List<PlacementRecord> getAllRecords() { return records; }
 
-    private boolean hasRequiredSkills(Student s, Company c) {
-        for (Skill req : c.getRequiredSkills()) {
-            boolean found = false;
-            for (Skill own : s.getSkills()) if (own.getName().equalsIgnoreCase(req.getName())) { found = true; break; }
-            if (!found) return false;
+    /* Growable output buffer, optionally spilled to a channel in chunks */
+    static class Out {
+        private byte[] buf = new byte[256];
+        private int len;
+        private void room(int n) { if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n)); }
+        void putByte(int v) { room(1); buf[len++] = (byte) v; }
+        void putVarint(long v) { while ((v & ~0x7FL) != 0) { putByte((int) ((v & 0x7F) | 0x80)); v >>>= 7; } putByte((int) v); }
+        void putInt(int v) { room(4); for (int i = 24; i >= 0; i -= 8) buf[len++] = (byte) (v >>> i); }
+        void putLong(long v) { putInt((int) (v >>> 32)); putInt((int) v); }
+        void putFloat(float v) { putInt(Float.floatToIntBits(v)); }
+        void put(Out o) { room(o.len); System.arraycopy(o.buf, 0, buf, len, o.len); len += o.len; }
+        // null-safe: length + 1, so 0 means null
+        void putString(String s) {
+            if (s == null) { putVarint(0); return; }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(b.length + 1L);
+            room(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+        void putCoded(String s, Dict d) { if (d == null) putString(s); else putVarint(d.code(s)); }
+        int size() { return len; }
+        void reset() { len = 0; }
+        byte[] toByteArray() { return Arrays.copyOf(buf, len); }
+        void flushTo(FileChannel ch) throws IOException {
+            ByteBuffer b = ByteBuffer.wrap(buf, 0, len);
+            while (b.hasRemaining()) ch.write(b);
+            Metrics.BYTES_FLUSHED.add(len);
+            len = 0;
         }
-        return true;
     }
 
-    public List<Student> getEligibleStudents(String companyId) throws RecordNotFoundException {
-        Company c = getCompany(companyId);
-        List<Student> eligible = new ArrayList<>();
-        for (Student s : students.values())
-            if (s.getCgpa() >= c.getMinCgpa() && hasRequiredSkills(s, c))
-                eligible.add(s);
-        return eligible;
+    /* Input over a byte array or a channel refilled through one reusable buffer */
+    static class In {
+        private ByteBuffer b;
+        private final FileChannel ch;
+        private int end = -1; // end of the current body in the buffer, -1 for the whole input
+        In(byte[] bytes) { b = ByteBuffer.wrap(bytes); ch = null; }
+        In(FileChannel ch) { b = ByteBuffer.allocate(CHUNK); b.flip(); this.ch = ch; }
+        void ensure(int n) throws IOException {
+            if (b.remaining() >= n) return;
+            if (ch == null) throw new EOFException();
+            if (n > b.capacity()) b = ByteBuffer.allocate(Math.max(n, b.capacity() * 2)).put(b);
+            else b.compact();
+            while (b.position() < n) if (ch.read(b) < 0) throw new EOFException();
+            b.flip();
+        }
+        int position() { return b.position(); }
+        void position(int p) { b.position(p); }
+        // false at the end of the body: fields appended by a later version are read only if present
+        boolean more() { return b.position() < (end < 0 ? b.limit() : end); }
+        int getByte() throws IOException { ensure(1); return b.get() & 0xFF; }
+        long getVarint() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int x = getByte();
+                v |= (long) (x & 0x7F) << shift;
+                if ((x & 0x80) == 0) return v;
+            }
+            throw new IOException("Malformed varint");
+        }
+        int getSize() throws IOException {
+            long v = getVarint();
+            if (v > Integer.MAX_VALUE) throw new IOException("Length out of range: " + v);
+            return (int) v;
+        }
+        int getInt() throws IOException { ensure(4); return b.getInt(); }
+        long getLong() throws IOException { ensure(8); return b.getLong(); }
+        float getFloat() throws IOException { ensure(4); return b.getFloat(); }
+        String getString() throws IOException {
+            int n = getSize();
+            if (n == 0) return null;
+            ensure(n - 1);
+            String s = new String(b.array(), b.arrayOffset() + b.position(), n - 1, StandardCharsets.UTF_8);
+            b.position(b.position() + n - 1);
+            return s;
+        }
+        String getCoded(Dict d) throws IOException { return d == null ? getString() : d.get(getSize()); }
     }
 
-    public List<Student> getSortedByCGPA() {
-        List<Student> list = getAllStudents();
-        list.sort(Comparator.comparingDouble(Student::getCgpa).reversed());
-        return list;
+    /* ---- bodies ---- */
+    static void writeStudent(Out o, Student s, Dict d) {
+        o.putString(s.getId());
+        o.putString(s.getName());
+        o.putCoded(s.getBranch(), d);
+        o.putFloat(s.getCgpa());
+        writeSkills(o, s.getSkills(), d);
+    }
+    static Student readStudent(In in, Dict d) throws IOException {
+        Student s = new Student(in.getString(), in.getString(), in.getCoded(d), in.getFloat());
+        for (int n = in.getSize(); n > 0; n--) s.addSkill(new Skill(in.getCoded(d), in.getCoded(d)));
+        return s;
+    }
+    static void writeCompany(Out o, Company c, Dict d) {
+        o.putString(c.getId());
+        o.putString(c.getName());
+        o.putString(c.getRole());
+        o.putFloat(c.getMinCgpa());
+        writeSkills(o, c.getRequiredSkills(), d);
+        o.putString(c.getRule());
+        o.putString(c.getInterviews());
+    }
+    static Company readCompany(In in, Dict d) throws IOException {
+        Company c = new Company(in.getString(), in.getString(), in.getString(), in.getFloat());
+        for (int n = in.getSize(); n > 0; n--) c.addRequiredSkill(new Skill(in.getCoded(d), in.getCoded(d)));
+        if (in.more()) c.setRule(in.getString());
+        if (in.more()) c.setInterviewPlan(in.getString());
+        return c;
+    }
+    private static void writeSkills(Out o, List<Skill> skills, Dict d) {
+        o.putVarint(skills.size());
+        for (Skill k : skills) { o.putCoded(k.getName(), d); o.putCoded(k.getLevel(), d); }
+    }
+    static void writeRecord(Out o, PlacementRecord r, Dict d) {
+        o.putCoded(r.getStudentId(), d);
+        o.putCoded(r.getCompanyId(), d);
+        o.putCoded(r.getStatus(), d);
+        o.putLong(r.getDate().getTime());
+    }
+    static PlacementRecord readRecord(In in, Dict d) throws IOException {
+        return new PlacementRecord(in.getCoded(d), in.getCoded(d), in.getCoded(d), new Date(in.getLong()));
     }
-}
 
-/* Placement drive thread */
-class PlacementDrive implements Runnable {
-    private Student s;
-    private Company c;
-    private PlacementManager m;
-    public PlacementDrive(Student s, Company c, PlacementManager m) { this.s = s; this.c = c; this.m = m; }
-    public void run() {
-        try {
-            Thread.sleep(500 + (int) (Math.random() * 800));
-            String result = Math.random() > 0.5 ? "Selected" : "Rejected";
-            m.addPlacementRecord(new PlacementRecord(s.getId(), c.getId(), result));
-            System.out.println("Interview: " + s.getName() + " -> " + result);
-        } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    /* ---- journal payloads ---- */
+    static byte[] encode(Student s) { Out o = new Out(); writeStudent(o, s, null); return o.toByteArray(); }
+    static byte[] encode(Company c) { Out o = new Out(); writeCompany(o, c, null); return o.toByteArray(); }
+    static byte[] encode(PlacementRecord r) { Out o = new Out(); writeRecord(o, r, null); return o.toByteArray(); }
+    static byte[] encodeId(String id) { Out o = new Out(); o.putString(id); return o.toByteArray(); }
+    static Student decodeStudent(byte[] b) throws IOException { return readStudent(new In(b), null); }
+    static Company decodeCompany(byte[] b) throws IOException { return readCompany(new In(b), null); }
+    static PlacementRecord decodeRecord(byte[] b) throws IOException { return readRecord(new In(b), null); }
+    static String decodeId(byte[] b) throws IOException { return new In(b).getString(); }
+
+    /* ---- files ---- */
+    static void writeStudents(File f, Collection<Student> all, long lsn) throws IOException {
+        Dict d = new Dict();
+        for (Student s : all) { d.code(s.getBranch()); for (Skill k : s.getSkills()) { d.code(k.getName()); d.code(k.getLevel()); } }
+        write(f, STUDENTS, lsn, d, all, (o, s) -> writeStudent(o, s, d));
+    }
+    static void writeCompanies(File f, Collection<Company> all, long lsn) throws IOException {
+        Dict d = new Dict();
+        for (Company c : all) for (Skill k : c.getRequiredSkills()) { d.code(k.getName()); d.code(k.getLevel()); }
+        write(f, COMPANIES, lsn, d, all, (o, c) -> writeCompany(o, c, d));
+    }
+    static void writeRecords(File f, Collection<PlacementRecord> all) throws IOException {
+        Dict d = new Dict();
+        for (PlacementRecord r : all) { d.code(r.getStudentId()); d.code(r.getCompanyId()); d.code(r.getStatus()); }
+        write(f, RECORDS, 0, d, all, (o, r) -> writeRecord(o, r, d));
+    }
+    static Map<String, Student> readStudents(File f) throws IOException {
+        Map<String, Student> out = new HashMap<>();
+        read(f, STUDENTS, (in, d) -> { Student s = readStudent(in, d); out.put(s.getId(), s); });
+        return out;
+    }
+    static Map<String, Company> readCompanies(File f) throws IOException {
+        Map<String, Company> out = new HashMap<>();
+        read(f, COMPANIES, (in, d) -> { Company c = readCompany(in, d); out.put(c.getId(), c); });
+        return out;
+    }
+    static List<PlacementRecord> readRecords(File f) throws IOException {
+        List<PlacementRecord> out = new ArrayList<>();
+        read(f, RECORDS, (in, d) -> out.add(readRecord(in, d)));
+        return out;
     }
-}
 
-/* GUI */
-class PlacementGUI extends JFrame {
-    private PlacementManager m;
+    // the checkpoint LSN in the header, -1 for a file written before version 5; the body is not checked
+    static long lsnOf(File f) throws IOException {
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            In in = new In(ch);
+            if (in.getInt() != MAGIC) throw new IOException(f + ": not a placement data file");
+            int version = in.getByte();
+            if (version > VERSION) throw new IOException(f + ": unsupported version " + version);
+            in.getByte();
+            return version >= 5 ? in.getLong() : -1;
+        }
+    }
 
-    // Branch options
-    private static final String[] BRANCHES = { "Computer Science and Engineering", "Computer Science (AI&ML)",
-            "Information Technology", "Electronic Communication Engineering", "Mechanical Engineering",
-            "Civil Engineering" };
+    // generation 0 is the file itself
+    static File generation(File f, int g) { return g == 0 ? f : new File(f.getPath() + "." + g); }
 
-    // Reusable verifiers
-    private final PatternVerifier idVerifier = new PatternVerifier("^[0-9-]+$",
-            "Invalid ID. Only digits (0-9) and '-' are allowed.");
-    private final PatternVerifier nameVerifier = new PatternVerifier("^[A-Za-z ]+$",
-            "Invalid Name. Only alphabetic letters and spaces are allowed.");
-    private final NumericRangeVerifier cgpaVerifier = new NumericRangeVerifier(0.0f, 10.0f);
+    private static <T> void write(File f, byte kind, long lsn, Dict d, Collection<T> items, BodyWriter<T> w) throws IOException {
+        File tmp = new File(f.getPath() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            Out out = new Out(), body = new Out();
+            out.putInt(MAGIC);
+            out.putByte(VERSION);
+            out.putByte(kind);
+            out.putLong(lsn);
+            out.putVarint(d.names.size() - 1);
+            for (int i = 1; i < d.names.size(); i++) out.putString(d.names.get(i));
+            out.putVarint(items.size());
+            for (T t : items) {
+                body.reset();
+                w.write(body, t);
+                out.putVarint(body.size());
+                out.put(body);
+                if (out.size() >= CHUNK) { crc.update(out.buf, 0, out.len); out.flushTo(ch); }
+            }
+            crc.update(out.buf, 0, out.len);
+            out.putInt((int) crc.getValue());
+            out.flushTo(ch);
+            ch.force(true);
+        }
+        for (int g = GENERATIONS - 1; g > 0; g--) {
+            File older = generation(f, g - 1);
+            if (older.exists()) Files.move(older.toPath(), generation(f, g).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDir(f.getAbsoluteFile().getParentFile());
+    }
 
-    public PlacementGUI(PlacementManager m) {
-        this.m = m;
-        setTitle("Placement Management System");
-        setSize(1050, 720);
-        setLocationRelativeTo(null);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setLayout(new BorderLayout(8, 8));
+    // makes the renames durable; not every platform can open a directory, and there it is skipped
+    static void syncDir(File dir) {
+        try (FileChannel ch = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) { ch.force(true); }
+        catch (IOException e) { /* best effort */ }
+    }
 
-        // Header
-        JPanel header = new JPanel(new BorderLayout());
-        header.setBorder(new EmptyBorder(8, 8, 0, 8));
-        JLabel title = new JLabel("Placement Management System", SwingConstants.LEFT);
-        title.setFont(new Font("SansSerif", Font.BOLD, 18));
-        header.add(title, BorderLayout.WEST);
-        add(header, BorderLayout.NORTH);
+    // checks the crc32 trailer of a version 2+ file before anything is decoded
+    private static void verify(FileChannel ch, File f) throws IOException {
+        long end = ch.size() - 4;
+        if (end < 0) throw new IOException(f + ": truncated");
+        CRC32 crc = new CRC32();
+        ByteBuffer b = ByteBuffer.allocate(CHUNK);
+        for (long pos = 0; pos < end; ) {
+            b.clear().limit((int) Math.min(CHUNK, end - pos));
+            int n = ch.read(b, pos);
+            if (n < 0) throw new EOFException(f.getPath());
+            b.flip();
+            crc.update(b);
+            pos += n;
+        }
+        b.clear().limit(4);
+        while (b.hasRemaining()) if (ch.read(b, end + b.position()) < 0) throw new EOFException(f.getPath());
+        if (b.getInt(0) != (int) crc.getValue()) throw new IOException(f + ": checksum mismatch (torn or corrupt snapshot)");
+    }
 
-        // Top area: 3 columns of controls
-        JPanel columnsPanel = new JPanel(new GridLayout(1, 3, 12, 12));
-        columnsPanel.setBorder(new EmptyBorder(8, 8, 8, 8));
+    // bodies are skipped by length, so fields appended by a later version are ignored
+    private static void read(File f, byte kind, BodyReader r) throws IOException {
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            In in = new In(ch);
+            if (in.getInt() != MAGIC) throw new IOException(f + ": not a placement data file");
+            int version = in.getByte();
+            if (version > VERSION) throw new IOException(f + ": unsupported version " + version);
+            if (version >= 2) verify(ch, f);
+            if (in.getByte() != kind) throw new IOException(f + ": wrong file kind");
+            if (version >= 5) in.getLong();
+            Dict d = new Dict();
+            for (long n = in.getVarint(); n > 0; n--) d.code(in.getString());
+            for (long n = in.getVarint(); n > 0; n--) {
+                int len = in.getSize();
+                in.ensure(len);
+                int end = in.position() + len;
+                in.end = end;
+                r.read(in, d);
+                in.position(end);
+            }
+        }
+    }
+}
 
-        // Column 1: Student actions (top) + Company actions (below) stacked vertically
-        JPanel col1 = new JPanel();
-        col1.setLayout(new BoxLayout(col1, BoxLayout.Y_AXIS));
-        JPanel studentGroup = new JPanel(new GridLayout(0, 1, 8, 8));
-        studentGroup.setBorder(new TitledBorder("Student Actions"));
-        JPanel companyGroup = new JPanel(new GridLayout(0, 1, 8, 8));
-        companyGroup.setBorder(new TitledBorder("Company Actions"));
-        col1.add(studentGroup);
-        col1.add(Box.createRigidArea(new Dimension(0, 12)));
-        col1.add(companyGroup);
+/* Write-ahead journal of manager mutations.
+   Entry: [int length][int crc32][long lsn][byte op][payload], length and crc cover lsn..payload.
+   append() only buffers; sync() writes everything pending and fsyncs once, so concurrent
+   committers share a single force(). Segments are journal-<n>.log, journal.ckpt holds the LSNs
+   of the checkpoints whose snapshots are still on disk, newest first. A segment is dropped only
+   once the oldest of them covers it, so any retained snapshot generation can be replayed forward. */
+class PlacementJournal implements Closeable {
+    static final byte PUT_STUDENT = 1, REMOVE_STUDENT = 2, PUT_COMPANY = 3, REMOVE_COMPANY = 4, ADD_RECORD = 5;
+    private static final String CKPT_FILE = "journal.ckpt";
 
-        // Column 2: Skills
-        JPanel col2 = new JPanel(new BorderLayout());
-        JPanel skillGroup = new JPanel(new GridLayout(0, 1, 8, 8));
-        skillGroup.setBorder(new TitledBorder("Skills"));
-        col2.add(skillGroup, BorderLayout.NORTH);
+    interface Replayer { void apply(long lsn, byte op, byte[] payload) throws IOException; }
 
-        // Column 3: Drive & Reports
-        JPanel driveGroup = new JPanel(new GridLayout(0, 1, 8, 8));
-        driveGroup.setBorder(new TitledBorder("Drive & Reports"));
+    private final File dir;
+    private final Map<File, Long> sealed = new LinkedHashMap<>(); // segment -> last LSN it holds
+    private final List<Long> checkpoints;
+    private final Object syncLock = new Object();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel ch;
+    private File current;
+    private int segment;
+    private long nextLsn = 1, pendingLsn;
+    private volatile long syncedLsn, segmentBytes;
+    private IOException failure;
 
-        columnsPanel.add(col1);
-        columnsPanel.add(col2);
-        columnsPanel.add(driveGroup);
+    private PlacementJournal(File dir) throws IOException {
+        this.dir = dir;
+        checkpoints = readCheckpoints(dir);
+    }
 
-        add(columnsPanel, BorderLayout.CENTER);
+    // replays every intact entry newer than the latest checkpoint, then starts a fresh segment
+    static PlacementJournal open(File dir, Replayer r) throws IOException { return open(dir, -1, r); }
 
-        // Build buttons and wire actions
-        addButtons(studentGroup, companyGroup, skillGroup, driveGroup);
+    /* Replays every intact entry newer than from (the LSN of the snapshots actually loaded, -1 for
+       the latest checkpoint). Entries between from and the journal's first one were dropped, so
+       that is an error rather than a silent gap. */
+    static PlacementJournal open(File dir, long from, Replayer r) throws IOException {
+        PlacementJournal j = new PlacementJournal(dir);
+        long newest = j.checkpoints.isEmpty() ? 0 : j.checkpoints.get(0), last = newest, first = 0;
+        if (from < 0) from = newest;
+        File[] segs = dir.listFiles((d, n) -> n.matches("journal-\\d+\\.log"));
+        if (segs == null) segs = new File[0];
+        Arrays.sort(segs, Comparator.comparingInt(PlacementJournal::segmentNumber));
+        for (File f : segs) {
+            long[] span = j.replay(f, from, r);
+            if (first == 0) first = span[0];
+            last = Math.max(last, span[1]);
+            j.segment = Math.max(j.segment, segmentNumber(f));
+            if (f.length() == 0) f.delete(); else j.sealed.put(f, span[1]);
+        }
+        if (from < (first == 0 ? newest : first - 1))
+            throw new IOException("Journal no longer reaches back to LSN " + from + " (starts after " + (first == 0 ? newest : first - 1) + ")");
+        j.nextLsn = last + 1;
+        j.pendingLsn = j.syncedLsn = last;
+        j.openSegment(j.segment + 1);
+        return j;
+    }
 
-        setVisible(true);
+    private static int segmentNumber(File f) {
+        String n = f.getName();
+        return Integer.parseInt(n.substring("journal-".length(), n.length() - ".log".length()));
     }
 
-    // helper: show a popup dialog with provided text (scrollable)
-    private void showPopup(String title, String content) {
-        JTextArea area = new JTextArea(content);
-        area.setEditable(false);
-        area.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane sp = new JScrollPane(area);
-        sp.setPreferredSize(new Dimension(700, 400));
-        JDialog dlg = new JDialog(this, title, true);
-        dlg.add(sp);
-        dlg.pack();
-        dlg.setLocationRelativeTo(this);
-        dlg.setVisible(true);
+    // the retained checkpoint LSNs, newest first; a file from before retention holds just one
+    static List<Long> readCheckpoints(File dir) throws IOException {
+        List<Long> out = new ArrayList<>();
+        File f = new File(dir, CKPT_FILE);
+        if (!f.exists()) return out;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+            for (long n = f.length() / 8; n > 0; n--) out.add(in.readLong());
+        }
+        return out;
     }
 
-    // list -> convert to text and show popup
-    private void showListPopup(String title, List<?> list) {
-        StringBuilder sb = new StringBuilder();
-        if (list.isEmpty()) sb.append("No records found.\n");
-        else for (Object o : list) sb.append(o.toString()).append("\n");
-        showPopup(title, sb.toString());
+    // returns the first and last LSN seen (0 if none); a torn or corrupt tail is cut off so later appends stay readable
+    private long[] replay(File f, long from, Replayer r) throws IOException {
+        long first = 0, last = 0, good = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int len, sum;
+                try { len = in.readInt(); sum = in.readInt(); } catch (EOFException eof) { break; }
+                if (len < 9 || len > f.length()) break;
+                byte[] body = new byte[len];
+                try { in.readFully(body); } catch (EOFException eof) { break; }
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != sum) break;
+                ByteBuffer b = ByteBuffer.wrap(body);
+                long lsn = b.getLong();
+                byte op = b.get();
+                if (lsn > from) r.apply(lsn, op, Arrays.copyOfRange(body, 9, len));
+                if (first == 0) first = lsn;
+                last = lsn;
+                good += 8 + len;
+            }
+        }
+        if (good < f.length()) {
+            try (FileChannel t = FileChannel.open(f.toPath(), StandardOpenOption.WRITE)) { t.truncate(good); }
+        }
+        return new long[] { first, last };
     }
 
-    private void addButtons(JPanel studentGroup, JPanel companyGroup, JPanel skillGroup, JPanel driveGroup) {
-        Font btnFont = new Font("SansSerif", Font.PLAIN, 14);
-        Dimension btnDim = new Dimension(300, 38);
+    private void openSegment(int n) throws IOException {
+        segment = n;
+        current = new File(dir, "journal-" + n + ".log");
+        ch = FileChannel.open(current.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = ch.size();
+    }
 
-        JButton addStudent = new JButton("Add Student");
-        JButton editStudent = new JButton("Edit Student");
-        JButton removeStudent = new JButton("Remove Student");
+    synchronized long append(byte op, byte[] payload) {
+        long lsn = nextLsn++;
+        ByteBuffer body = ByteBuffer.allocate(9 + payload.length).putLong(lsn).put(op).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        DataOutputStream out = new DataOutputStream(pending);
+        try {
+            out.writeInt(body.capacity());
+            out.writeInt((int) crc.getValue());
+            out.write(body.array());
+        } catch (IOException e) { throw new UncheckedIOException(e); }
+        pendingLsn = lsn;
+        return lsn;
+    }
 
-        for (JButton b : new JButton[] { addStudent, editStudent, removeStudent }) {
-            b.setFont(btnFont);
-            b.setPreferredSize(btnDim);
-            studentGroup.add(b);
+    // blocks until lsn is on disk; whoever gets syncLock first flushes for everyone queued behind it
+    void sync(long lsn) throws IOException {
+        if (syncedLsn >= lsn) return;
+        synchronized (syncLock) {
+            if (syncedLsn >= lsn) return;
+            flushPending();
         }
+    }
 
-        JButton addCompany = new JButton("Add Company");
-        JButton editCompany = new JButton("Edit Company");
-        JButton removeCompany = new JButton("Remove Company");
-        for (JButton b : new JButton[] { addCompany, editCompany, removeCompany }) {
-            b.setFont(btnFont);
-            b.setPreferredSize(btnDim);
-            companyGroup.add(b);
+    private void flushPending() throws IOException {
+        byte[] batch;
+        long upTo;
+        synchronized (this) {
+            if (failure != null) throw failure;
+            batch = pending.toByteArray();
+            pending.reset();
+            upTo = pendingLsn;
         }
-
-        JButton addSkill = new JButton("Add Skill to Student");
-        JButton addReqSkill = new JButton("Add Required Skill to Company");
-        for (JButton b : new JButton[] { addSkill, addReqSkill }) {
-            b.setFont(btnFont);
-            b.setPreferredSize(btnDim);
-            skillGroup.add(b);
+        if (batch.length == 0) return;
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(batch);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+            Metrics.BYTES_FLUSHED.add(batch.length);
+        } catch (IOException e) {
+            synchronized (this) { failure = e; }
+            throw e;
         }
+        segmentBytes += batch.length;
+        syncedLsn = upTo;
+    }
 
-        JButton showStudents = new JButton("Show Students");
-        JButton showCompanies = new JButton("Show Companies");
-        JButton eligible = new JButton("Show Eligible Students");
-        JButton drive = new JButton("Start Placement Drive");
-        JButton records = new JButton("Show Placement Records");
-        JButton sorted = new JButton("Show Students Sorted by CGPA");
+    // forces every entry appended so far, e.g. before pages holding their effects are written
+    void syncAppended() throws IOException {
+        long upTo;
+        synchronized (this) { upTo = pendingLsn; }
+        sync(upTo);
+    }
 
-        for (JButton b : new JButton[] { showStudents, showCompanies, eligible, drive, records, sorted }) {
-            b.setFont(btnFont);
-            b.setPreferredSize(btnDim);
-            driveGroup.add(b);
+    long size() { return segmentBytes; }
+
+    /* Seals the current segment and returns the last LSN it holds. The caller must keep
+       appenders out (PlacementManager holds its own lock) so the LSN is an exact cut. */
+    long rotate() throws IOException {
+        synchronized (syncLock) {
+            flushPending();
+            ch.close();
+            sealed.put(current, syncedLsn);
+            openSegment(segment + 1);
+            return syncedLsn;
         }
+    }
 
-        // Tooltips
-        addStudent.setToolTipText("Add a new student record (ID, name, branch, CGPA).");
-        editStudent.setToolTipText("Edit existing student details by ID.");
-        removeStudent.setToolTipText("Remove a student by ID.");
+    /* Snapshots now cover everything up to lsn: record that among the last keep checkpoints, then
+       drop the sealed segments the oldest of them already covers. */
+    void checkpointed(long lsn, int keep) throws IOException {
+        checkpoints.add(0, lsn);
+        while (checkpoints.size() > keep) checkpoints.remove(checkpoints.size() - 1);
+        File tmp = new File(dir, CKPT_FILE + ".tmp");
+        try (FileOutputStream fo = new FileOutputStream(tmp); DataOutputStream out = new DataOutputStream(fo)) {
+            for (long c : checkpoints) out.writeLong(c);
+            out.flush();
+            fo.getFD().sync();
+        }
+        Files.move(tmp.toPath(), new File(dir, CKPT_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long oldest = checkpoints.get(checkpoints.size() - 1);
+        synchronized (syncLock) {
+            for (Iterator<Map.Entry<File, Long>> it = sealed.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<File, Long> e = it.next();
+                if (e.getValue() <= oldest) { e.getKey().delete(); it.remove(); }
+            }
+        }
+    }
 
-        addCompany.setToolTipText("Add a new company.");
-        editCompany.setToolTipText("Edit company details by ID.");
-        removeCompany.setToolTipText("Remove company by ID.");
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            flushPending();
+            ch.close();
+        }
+    }
+}
 
-        addSkill.setToolTipText("Add a skill to a student.");
-        addReqSkill.setToolTipText("Add a required skill to a company.");
+/* Eligibility index over student slots: one dense bitmap per SkillCatalog id, and the slots kept
+   sorted by CGPA (descending) so the cutoff is a binary search. */
+class EligibilityIndex {
+    private final List<long[]> postings = new ArrayList<>(); // by skill id, null if nobody has it
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private Student[] slots = new Student[64];
+    private float[] slotCgpa = new float[64];
+    private int[] free = new int[16];
+    private int freeCount, slotCount;
+    private int[] byCgpa = new int[64];
+    private int ranked;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
-        showStudents.setToolTipText("List all students in a popup window.");
-        showCompanies.setToolTipText("List all companies in a popup window.");
-        eligible.setToolTipText("Show students eligible for a given company in popup.");
-        drive.setToolTipText("Run placement interviews for eligible students and show summary.");
-        records.setToolTipText("Show all placement records in a popup.");
-        sorted.setToolTipText("Show students sorted by CGPA (descending) in popup.");
+    void rebuild(Collection<Student> all) {
+        lock.writeLock().lock();
+        try {
+            postings.clear(); slotOf.clear();
+            slots = new Student[Math.max(64, all.size())];
+            slotCgpa = new float[slots.length];
+            byCgpa = new int[slots.length];
+            freeCount = slotCount = ranked = 0;
+            putAll(all);
+        } finally { lock.writeLock().unlock(); }
+    }
 
-        // Action listeners: reuse your existing dialog methods
-        addStudent.addActionListener(e -> addStudentDialog());
+    // batch add/replace: new slots are ranked with one sort and merge instead of a shift per student
+    void putAll(Collection<Student> batch) {
+        lock.writeLock().lock();
+        try {
+            int[] fresh = new int[batch.size()];
+            int n = 0;
+            Map<Integer, Boolean> pending = new HashMap<>();
+            for (Student s : batch) {
+                Integer existing = slotOf.get(s.getId());
+                if (existing != null && pending.containsKey(existing)) {
+                    // repeated within the batch: the slot is not ranked yet, just overwrite it
+                    clearSkills(existing, slots[existing]);
+                    slotCgpa[existing] = s.getCgpa();
+                    slots[existing] = s;
+                    for (int code : s.getSkillCodes()) setBit(SkillCatalog.idOf(code), existing);
+                    continue;
+                }
+                if (existing != null) { put(s); continue; }
+                int slot = freeCount > 0 ? free[--freeCount] : slotCount++;
+                if (slot >= slots.length) {
+                    slots = Arrays.copyOf(slots, Math.max(slots.length * 2, slot + 1));
+                    slotCgpa = Arrays.copyOf(slotCgpa, slots.length);
+                    byCgpa = Arrays.copyOf(byCgpa, slots.length);
+                }
+                slotOf.put(s.getId(), slot);
+                slotCgpa[slot] = s.getCgpa();
+                slots[slot] = s;
+                for (int code : s.getSkillCodes()) setBit(SkillCatalog.idOf(code), slot);
+                fresh[n++] = slot;
+                pending.put(slot, Boolean.TRUE);
+            }
+            if (n == 0) return;
+            Integer[] sorted = new Integer[n];
+            for (int i = 0; i < n; i++) sorted[i] = fresh[i];
+            Arrays.sort(sorted, (a, b) -> slotCgpa[a] != slotCgpa[b] ? Float.compare(slotCgpa[b], slotCgpa[a]) : Integer.compare(a, b));
+            int[] merged = new int[byCgpa.length];
+            int i = 0, j = 0, k = 0;
+            while (i < ranked || j < n) {
+                if (j == n) merged[k++] = byCgpa[i++];
+                else if (i == ranked) merged[k++] = sorted[j++];
+                else {
+                    int a = byCgpa[i], b = sorted[j];
+                    boolean first = slotCgpa[a] > slotCgpa[b] || (slotCgpa[a] == slotCgpa[b] && a < b);
+                    merged[k++] = first ? byCgpa[i++] : sorted[j++];
+                }
+            }
+            byCgpa = merged;
+            ranked = k;
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    // add or replace; an existing student keeps its slot and only moves in the ranking if the CGPA changed
+    void put(Student s) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotOf.get(s.getId());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                clearSkills(slot, slots[slot]);
+                if (slotCgpa[slot] != s.getCgpa()) { unrank(slot); slotCgpa[slot] = s.getCgpa(); rank(slot); }
+            } else {
+                slot = freeCount > 0 ? free[--freeCount] : slotCount++;
+                if (slot >= slots.length) {
+                    slots = Arrays.copyOf(slots, slots.length * 2);
+                    slotCgpa = Arrays.copyOf(slotCgpa, slots.length);
+                    byCgpa = Arrays.copyOf(byCgpa, slots.length);
+                }
+                slotOf.put(s.getId(), slot);
+                slotCgpa[slot] = s.getCgpa();
+                rank(slot);
+            }
+            slots[slot] = s;
+            for (int code : s.getSkillCodes()) setBit(SkillCatalog.idOf(code), slot);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotOf.remove(id);
+            if (slot == null) return;
+            clearSkills(slot, slots[slot]);
+            unrank(slot);
+            slots[slot] = null;
+            if (freeCount == free.length) free = Arrays.copyOf(free, free.length * 2);
+            free[freeCount++] = slot;
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    // required: sorted SkillCatalog codes; levels are not considered here
+    List<Student> eligible(float minCgpa, int[] required) {
+        lock.readLock().lock();
+        try {
+            int cut = cutoff(minCgpa);
+            List<Student> out = new ArrayList<>();
+            if (required.length == 0) {
+                for (int i = 0; i < cut; i++) out.add(slots[byCgpa[i]]);
+                return out;
+            }
+            long[][] lists = new long[required.length][];
+            int words = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = posting(SkillCatalog.idOf(required[i]));
+                if (lists[i] == null) return out;
+                words = Math.min(words, lists[i].length);
+            }
+            if (cut < words) {
+                // few students above the cutoff: probe their bits instead of walking whole bitmaps
+                for (int i = 0; i < cut; i++) if (hasAll(lists, byCgpa[i])) out.add(slots[byCgpa[i]]);
+                return out;
+            }
+            for (int w = 0; w < words; w++) {
+                long x = lists[0][w];
+                for (int i = 1; i < lists.length && x != 0; i++) x &= lists[i][w];
+                while (x != 0) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(x);
+                    x &= x - 1;
+                    if (slotCgpa[slot] >= minCgpa) out.add(slots[slot]);
+                }
+            }
+            return out;
+        } finally { lock.readLock().unlock(); }
+    }
+
+    /* Whole student x company matrix in one pass: the slot words are split across fork/join tasks and
+       each task evaluates every company on its words, so postings are read once per word range. */
+    // placed: what the companies' rules see as placed students, null if none of them asks
+    EligibilityMatrix matrix(List<Company> companies, Set<String> placed, ForkJoinPool pool) {
+        lock.readLock().lock();
+        try {
+            int n = companies.size(), words = (slotCount + 63) >>> 6;
+            long[][][] lists = new long[n][][];
+            float[] min = new float[n];
+            EligibilityRule[] rules = new EligibilityRule[n];
+            for (int c = 0; c < n; c++) {
+                Company co = companies.get(c);
+                min[c] = co.getMinCgpa();
+                rules[c] = co.getCompiledRule();
+                int[] req = co.getRequiredSkillCodes();
+                long[][] l = new long[req.length][];
+                for (int i = 0; l != null && i < l.length; i++) {
+                    l[i] = posting(SkillCatalog.idOf(req[i]));
+                    if (l[i] == null) l = null;
+                }
+                lists[c] = l; // null: some skill nobody has, nobody is eligible
+            }
+            long[][] bits = new long[n][words];
+            int[] perStudent = new int[slotCount];
+            pool.invoke(new MatrixTask(lists, min, rules, placed, bits, perStudent, 0, words));
+            String[] ids = new String[slotCount];
+            for (int s = 0; s < slotCount; s++) if (slots[s] != null) ids[s] = slots[s].getId();
+            String[] companyIds = new String[n];
+            for (int c = 0; c < n; c++) companyIds[c] = companies.get(c).getId();
+            return new EligibilityMatrix(companyIds, ids, bits, perStudent);
+        } finally { lock.readLock().unlock(); }
+    }
+
+    // runs under the caller's read lock; tasks write disjoint word ranges, so no further locking
+    private class MatrixTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF_WORDS = 64;
+        final long[][][] lists; final float[] min; final EligibilityRule[] rules; final Set<String> placed;
+        final long[][] bits; final int[] perStudent;
+        final int from, to;
+        MatrixTask(long[][][] lists, float[] min, EligibilityRule[] rules, Set<String> placed, long[][] bits, int[] perStudent, int from, int to) {
+            this.lists = lists; this.min = min; this.rules = rules; this.placed = placed;
+            this.bits = bits; this.perStudent = perStudent; this.from = from; this.to = to;
+        }
+        @Override protected void compute() {
+            if (to - from > LEAF_WORDS) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MatrixTask(lists, min, rules, placed, bits, perStudent, from, mid),
+                        new MatrixTask(lists, min, rules, placed, bits, perStudent, mid, to));
+                return;
+            }
+            long[] live = new long[to - from];
+            for (int w = from; w < to; w++)
+                for (int b = 0, s = w << 6; b < 64 && s < slotCount; b++, s++) if (slots[s] != null) live[w - from] |= 1L << b;
+            for (int c = 0; c < bits.length; c++) {
+                long[][] l = lists[c];
+                if (l == null) continue;
+                EligibilityRule rule = rules[c];
+                for (int w = from; w < to; w++) {
+                    long x = live[w - from];
+                    for (int i = 0; i < l.length && x != 0; i++) x &= w < l[i].length ? l[i][w] : 0;
+                    long keep = 0;
+                    while (x != 0) {
+                        int slot = (w << 6) + Long.numberOfTrailingZeros(x);
+                        long bit = x & -x;
+                        x ^= bit;
+                        if (slotCgpa[slot] >= min[c] && (rule == null || rule.test(slots[slot], placed))) { keep |= bit; perStudent[slot]++; }
+                    }
+                    bits[c][w] = keep;
+                }
+            }
+        }
+    }
+
+    private static boolean hasAll(long[][] lists, int slot) {
+        int w = slot >>> 6;
+        long bit = 1L << slot;
+        for (long[] l : lists) if (w >= l.length || (l[w] & bit) == 0) return false;
+        return true;
+    }
+
+    // number of ranked students with cgpa >= min
+    private int cutoff(float min) {
+        int lo = 0, hi = ranked;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (slotCgpa[byCgpa[mid]] >= min) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // ranking order: cgpa descending, then slot ascending so every entry has an exact position
+    private int position(int slot) {
+        float c = slotCgpa[slot];
+        int lo = 0, hi = ranked;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1, o = byCgpa[mid];
+            if (slotCgpa[o] > c || (slotCgpa[o] == c && o < slot)) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+    private void rank(int slot) {
+        int p = position(slot);
+        System.arraycopy(byCgpa, p, byCgpa, p + 1, ranked - p);
+        byCgpa[p] = slot;
+        ranked++;
+    }
+    private void unrank(int slot) {
+        int p = position(slot);
+        System.arraycopy(byCgpa, p + 1, byCgpa, p, ranked - p - 1);
+        ranked--;
+    }
+
+    private long[] posting(int skill) { return skill < postings.size() ? postings.get(skill) : null; }
+    private void setBit(int skill, int slot) {
+        while (postings.size() <= skill) postings.add(null);
+        long[] l = postings.get(skill);
+        if (l == null || (slot >>> 6) >= l.length) {
+            l = l == null ? new long[(slots.length + 63) >>> 6] : Arrays.copyOf(l, (slots.length + 63) >>> 6);
+            postings.set(skill, l);
+        }
+        l[slot >>> 6] |= 1L << slot;
+    }
+    private void clearSkills(int slot, Student s) {
+        for (int code : s.getSkillCodes()) {
+            long[] l = posting(SkillCatalog.idOf(code));
+            if (l != null && (slot >>> 6) < l.length) l[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+}
+
+/* Result of PlacementManager.getEligibilityMatrix(): one bitset per company over student slots,
+   with per-company and per-student counts. A snapshot; later changes are not reflected. */
+class EligibilityMatrix {
+    private final String[] companyIds;
+    private final String[] studentIds; // by slot, null for an empty slot
+    private final long[][] bits;
+    private final int[] companyCounts;
+    private final int[] perStudent;
+    private final Map<String, Integer> companyRow = new HashMap<>();
+    private final Map<String, Integer> studentSlot = new HashMap<>();
+
+    EligibilityMatrix(String[] companyIds, String[] studentIds, long[][] bits, int[] perStudent) {
+        this.companyIds = companyIds;
+        this.studentIds = studentIds;
+        this.bits = bits;
+        this.perStudent = perStudent;
+        companyCounts = new int[companyIds.length];
+        for (int c = 0; c < companyIds.length; c++) {
+            companyRow.put(companyIds[c], c);
+            for (long w : bits[c]) companyCounts[c] += Long.bitCount(w);
+        }
+        for (int s = 0; s < studentIds.length; s++) if (studentIds[s] != null) studentSlot.put(studentIds[s], s);
+    }
+
+    public List<String> getCompanyIds() { return Arrays.asList(companyIds); }
+    public int getStudentCount() { return studentSlot.size(); }
+
+    // number of eligible students, -1 for a company not in the matrix
+    public int getEligibleCount(String companyId) {
+        Integer c = companyRow.get(companyId);
+        return c == null ? -1 : companyCounts[c];
+    }
+    // number of companies the student is eligible for, -1 for a student not in the matrix
+    public int getCompaniesEligible(String studentId) {
+        Integer s = studentSlot.get(studentId);
+        return s == null ? -1 : perStudent[s];
+    }
+    public boolean isEligible(String studentId, String companyId) {
+        Integer s = studentSlot.get(studentId), c = companyRow.get(companyId);
+        if (s == null || c == null) return false;
+        long[] row = bits[c];
+        return (s >>> 6) < row.length && (row[s >>> 6] & (1L << s)) != 0;
+    }
+    public List<String> getEligibleIds(String companyId) {
+        Integer c = companyRow.get(companyId);
+        List<String> out = new ArrayList<>();
+        if (c == null) return out;
+        long[] row = bits[c];
+        for (int w = 0; w < row.length; w++)
+            for (long x = row[w]; x != 0; x &= x - 1) out.add(studentIds[(w << 6) + Long.numberOfTrailingZeros(x)]);
+        return out;
+    }
+    // raw bitset over student slots; getStudentAt maps a set bit back to its student id
+    public long[] getBits(String companyId) {
+        Integer c = companyRow.get(companyId);
+        return c == null ? new long[0] : bits[c].clone();
+    }
+    public String getStudentAt(int slot) { return slot < studentIds.length ? studentIds[slot] : null; }
+
+    // by row and slot, without copies (OfferAllocator)
+    int slotCount() { return studentIds.length; }
+    int slotOf(String studentId) { Integer s = studentSlot.get(studentId); return s == null ? -1 : s; }
+    long[] bits(int row) { return bits[row]; }
+    int eligibleCount(int row) { return companyCounts[row]; }
+    int companiesEligible(int slot) { return perStudent[slot]; }
+    boolean eligible(int row, int slot) { return (slot >>> 6) < bits[row].length && (bits[row][slot >>> 6] & (1L << slot)) != 0; }
+}
+
+/* Extra eligibility conditions a company can add on top of minCgpa and its required skills, e.g.
+     branch in ("Information Technology", "Computer Science and Engineering")
+         and (any (Java, Kotlin) >= High or skill Go) and not placed
+   or   := and {or and}        and := not {and not}        not := not not | ( or ) | test
+   test := cgpa (>=|>|<=|<|=) n | branch = b | branch in (b, ...) | placed
+         | skill s [>= Low|High] | any (s, ...) [>= level] | all (s, ...) [>= level]
+   Keywords and branch names are case-insensitive; names with spaces or brackets are quoted.
+   compile() gives every distinct condition (atom) a bit. A student is reduced to the mask of atoms
+   it meets: one OR per skill code from a table indexed by code, one branch lookup, an interval test
+   per CGPA atom. The formula is then a truth table indexed by that mask (up to 16 atoms) or a short
+   postfix program over a one-word bit stack, where the plain atoms under one and/or are a single
+   mask test. interpret() walks the parsed tree instead; it is the reference the compiled form
+   must agree with. */
+final class EligibilityRule {
+    static final int MAX_ATOMS = 64, TABLE_ATOMS = 16;
+    private static final int CGPA = 0, BRANCH = 1, SKILL = 2, PLACED = 3;
+    private static final int ANY = 0, ALL = 1, AND = 2, OR = 3, NOT = 4; // program ops
+
+    private final String source;
+    private final Node root;
+    // compiled form
+    private final long[] skillBits; // by skill code - lowCode: the atoms that code satisfies
+    private final int lowCode, highCode; // codes outside [lowCode, highCode] meet no atom
+    private final Map<String, Long> branchBits = new HashMap<>();
+    private final float[] cgpaFrom, cgpaTo; // half-open [from, to)
+    private final long[] cgpaBits;
+    private final long placedBit;
+    private final long[] table; // null when there are more than TABLE_ATOMS atoms
+    private final long[] program; // (op, mask) pairs
+
+    /* ---- parsed form ---- */
+    private abstract static class Node {
+        abstract boolean eval(Student s, Set<String> placed);
+        abstract boolean eval(long mask);
+        abstract int emit(List<Long> out, int depth); // appends (op, mask) pairs, returns the deepest stack use
+        static void op(List<Long> out, int op, long mask) { out.add((long) op); out.add(mask); }
+    }
+    private static final class Atom extends Node {
+        final int kind, op, skill, bit;
+        final float value;
+        final SkillLevel level;
+        final String branch;
+        Atom(int kind, int op, float value, String branch, int skill, SkillLevel level, int bit) {
+            this.kind = kind; this.op = op; this.value = value; this.branch = branch; this.skill = skill; this.level = level; this.bit = bit;
+        }
+        @Override boolean eval(Student s, Set<String> placed) {
+            switch (kind) {
+                case CGPA: {
+                    float c = s.getCgpa();
+                    return op == '>' ? c > value : op == 'g' ? c >= value : op == '<' ? c < value : op == 'l' ? c <= value : c == value;
+                }
+                case BRANCH: return branch.equals(s.getBranch());
+                case SKILL:
+                    for (int code : s.getSkillCodes()) if (SkillCatalog.idOf(code) == skill && SkillCatalog.levelOf(code).ordinal() >= level.ordinal()) return true;
+                    return false;
+                default: return placed != null && placed.contains(s.getId());
+            }
+        }
+        @Override boolean eval(long mask) { return (mask >>> bit & 1) != 0; }
+        @Override int emit(List<Long> out, int depth) { op(out, ANY, 1L << bit); return depth + 1; }
+        String key() {
+            switch (kind) {
+                case CGPA: return "cgpa" + (char) op + value;
+                case BRANCH: return "branch=" + branch;
+                case SKILL: return "skill" + skill + level;
+                default: return "placed";
+            }
+        }
+    }
+    private static final class Not extends Node {
+        final Node x;
+        Not(Node x) { this.x = x; }
+        @Override boolean eval(Student s, Set<String> placed) { return !x.eval(s, placed); }
+        @Override boolean eval(long mask) { return !x.eval(mask); }
+        @Override int emit(List<Long> out, int depth) { int d = x.emit(out, depth); op(out, NOT, 0); return d; }
+    }
+    private static final class Junction extends Node {
+        final boolean and;
+        final Node[] xs;
+        Junction(boolean and, List<Node> xs) { this.and = and; this.xs = xs.toArray(new Node[0]); }
+        @Override boolean eval(Student s, Set<String> placed) {
+            for (Node x : xs) if (x.eval(s, placed) != and) return !and;
+            return and;
+        }
+        @Override boolean eval(long mask) {
+            for (Node x : xs) if (x.eval(mask) != and) return !and;
+            return and;
+        }
+        @Override int emit(List<Long> out, int depth) {
+            long atoms = 0;
+            for (Node x : xs) if (x instanceof Atom) atoms |= 1L << ((Atom) x).bit;
+            int d = depth, pushed = 0;
+            if (atoms != 0) { op(out, and ? ALL : ANY, atoms); d = depth + 1; pushed = 1; }
+            for (Node x : xs) {
+                if (x instanceof Atom) continue;
+                d = Math.max(d, x.emit(out, depth + pushed));
+                if (pushed++ > 0) op(out, and ? AND : OR, 0);
+            }
+            return d;
+        }
+    }
+
+    // throws IllegalArgumentException with the position of the first problem
+    static EligibilityRule compile(String source) { return new EligibilityRule(source); }
+
+    private EligibilityRule(String source) {
+        this.source = source.trim();
+        Parser p = new Parser(this.source);
+        root = p.or();
+        if (p.pos < p.tokens.size()) throw p.error("unexpected '" + p.tokens.get(p.pos).text + "'");
+        List<Atom> atoms = p.atoms;
+        int low = Integer.MAX_VALUE, high = -1, cgpaCount = 0;
+        for (Atom a : atoms) {
+            if (a.kind == SKILL) {
+                low = Math.min(low, SkillCatalog.code(a.skill, a.level));
+                high = Math.max(high, SkillCatalog.code(a.skill, SkillLevel.HIGH));
+            }
+            if (a.kind == CGPA) cgpaCount++;
+        }
+        lowCode = high < 0 ? 0 : low;
+        highCode = high;
+        skillBits = new long[high - lowCode + 1];
+        cgpaFrom = new float[cgpaCount];
+        cgpaTo = new float[cgpaCount];
+        cgpaBits = new long[cgpaCount];
+        long placedMask = 0;
+        int c = 0;
+        for (Atom a : atoms) {
+            long bit = 1L << a.bit;
+            switch (a.kind) {
+                case SKILL:
+                    // a High code meets both Low and High atoms of its skill
+                    skillBits[SkillCatalog.code(a.skill, SkillLevel.HIGH) - lowCode] |= bit;
+                    if (a.level == SkillLevel.LOW) skillBits[SkillCatalog.code(a.skill, SkillLevel.LOW) - lowCode] |= bit;
+                    break;
+                case BRANCH: branchBits.merge(a.branch, bit, (x, y) -> x | y); break;
+                case PLACED: placedMask |= bit; break;
+                default:
+                    float v = a.value, up = Math.nextUp(v);
+                    cgpaFrom[c] = a.op == 'g' || a.op == '=' ? v : a.op == '>' ? up : Float.NEGATIVE_INFINITY;
+                    cgpaTo[c] = a.op == '<' ? v : a.op == 'l' || a.op == '=' ? up : Float.POSITIVE_INFINITY;
+                    cgpaBits[c++] = bit;
+            }
+        }
+        placedBit = placedMask;
+        if (atoms.size() <= TABLE_ATOMS) {
+            int rows = 1 << atoms.size();
+            table = new long[(rows + 63) >>> 6];
+            for (int m = 0; m < rows; m++) if (root.eval(m)) table[m >>> 6] |= 1L << m;
+            program = null;
+        } else {
+            List<Long> ops = new ArrayList<>();
+            if (root.emit(ops, 0) > 64) throw new IllegalArgumentException("Rule: nested too deeply");
+            program = new long[ops.size()];
+            for (int i = 0; i < program.length; i++) program[i] = ops.get(i);
+            table = null;
+        }
+    }
+
+    // placed: ids of the placed students; only read when usesPlaced(), may be null otherwise
+    boolean test(Student s, Set<String> placed) {
+        long m = 0;
+        if (highCode >= 0) {
+            // codes are sorted, so the walk stops past the last code that can matter
+            long[] sb = skillBits;
+            for (int code : s.getSkillCodes()) {
+                if (code > highCode) break;
+                if (code >= lowCode) m |= sb[code - lowCode];
+            }
+        }
+        if (!branchBits.isEmpty()) { Long b = branchBits.get(s.getBranch()); if (b != null) m |= b; }
+        float cgpa = s.getCgpa();
+        for (int i = 0; i < cgpaBits.length; i++) m |= (cgpa >= cgpaFrom[i] & cgpa < cgpaTo[i]) ? cgpaBits[i] : 0;
+        if (placedBit == 0) return matches(m);
+        // the set lookup is the one costly test: only made when the other atoms leave the result open
+        boolean unplaced = matches(m);
+        if (unplaced == matches(m | placedBit)) return unplaced;
+        return placed != null && placed.contains(s.getId()) ? !unplaced : unplaced;
+    }
+    private boolean matches(long m) {
+        if (table != null) return (table[(int) (m >>> 6)] >>> m & 1) != 0;
+        long st = 0;
+        long[] p = program;
+        for (int i = 0; i < p.length; i += 2) {
+            long x = p[i + 1];
+            switch ((int) p[i]) {
+                case ANY: st = st << 1 | ((m & x) != 0 ? 1 : 0); break;
+                case ALL: st = st << 1 | ((m & x) == x ? 1 : 0); break;
+                case NOT: st ^= 1; break;
+                case AND: st = st >>> 1 & (st | ~1L); break;
+                default: st = st >>> 1 | (st & 1);
+            }
+        }
+        return (st & 1) != 0;
+    }
+
+    // the tree-walking evaluation, for checks and the benchmark
+    boolean interpret(Student s, Set<String> placed) { return root.eval(s, placed); }
+    boolean usesPlaced() { return placedBit != 0; }
+    @Override public String toString() { return source; }
+
+    /* ---- parser ---- */
+    private static final class Token {
+        final String text; final boolean quoted; final int at;
+        Token(String text, boolean quoted, int at) { this.text = text; this.quoted = quoted; this.at = at; }
+    }
+
+    private static final class Parser {
+        final String src;
+        final List<Token> tokens = new ArrayList<>();
+        final List<Atom> atoms = new ArrayList<>();
+        final Map<String, Atom> byKey = new HashMap<>();
+        int pos;
+
+        Parser(String src) {
+            this.src = src;
+            for (int i = 0; i < src.length(); ) {
+                char ch = src.charAt(i);
+                if (Character.isWhitespace(ch)) { i++; continue; }
+                if (ch == '"' || ch == '\'') {
+                    int end = src.indexOf(ch, i + 1);
+                    if (end < 0) throw new IllegalArgumentException("Rule: unterminated quote at " + (i + 1));
+                    tokens.add(new Token(src.substring(i + 1, end), true, i));
+                    i = end + 1;
+                } else if ("(),".indexOf(ch) >= 0) {
+                    tokens.add(new Token(String.valueOf(ch), false, i++));
+                } else if ("<>=!".indexOf(ch) >= 0) {
+                    int end = i + 1 < src.length() && src.charAt(i + 1) == '=' ? i + 2 : i + 1;
+                    tokens.add(new Token(src.substring(i, end), false, i));
+                    i = end;
+                } else {
+                    int end = i;
+                    while (end < src.length() && (Character.isLetterOrDigit(src.charAt(end)) || "+#._&-/".indexOf(src.charAt(end)) >= 0)) end++;
+                    if (end == i) throw new IllegalArgumentException("Rule: unexpected '" + ch + "' at " + (i + 1));
+                    tokens.add(new Token(src.substring(i, end), false, i));
+                    i = end;
+                }
+            }
+            if (tokens.isEmpty()) throw new IllegalArgumentException("Rule: empty");
+        }
+
+        IllegalArgumentException error(String what) {
+            int at = pos < tokens.size() ? tokens.get(pos).at + 1 : src.length() + 1;
+            return new IllegalArgumentException("Rule: " + what + " at " + at);
+        }
+        boolean peek(String keyword) {
+            return pos < tokens.size() && !tokens.get(pos).quoted && tokens.get(pos).text.equalsIgnoreCase(keyword);
+        }
+        boolean accept(String keyword) { if (!peek(keyword)) return false; pos++; return true; }
+        void expect(String keyword) { if (!accept(keyword)) throw error("expected '" + keyword + "'"); }
+        String name() {
+            if (pos == tokens.size()) throw error("expected a name");
+            Token t = tokens.get(pos);
+            if (!t.quoted && "(),<>=!".indexOf(t.text.charAt(0)) >= 0) throw error("expected a name");
+            pos++;
+            return t.text;
+        }
+
+        Node or() {
+            List<Node> xs = new ArrayList<>();
+            xs.add(and());
+            while (accept("or")) xs.add(and());
+            return xs.size() == 1 ? xs.get(0) : new Junction(false, xs);
+        }
+        Node and() {
+            List<Node> xs = new ArrayList<>();
+            xs.add(not());
+            while (accept("and")) xs.add(not());
+            return xs.size() == 1 ? xs.get(0) : new Junction(true, xs);
+        }
+        Node not() {
+            if (accept("not")) return new Not(not());
+            if (accept("(")) { Node x = or(); expect(")"); return x; }
+            return test();
+        }
+        Node test() {
+            if (accept("placed")) return atom(PLACED, 0, 0, null, 0, null);
+            if (accept("cgpa")) {
+                int op = accept(">=") ? 'g' : accept("<=") ? 'l' : accept(">") ? '>' : accept("<") ? '<' : accept("=") ? '=' : 0;
+                if (op == 0) throw error("expected a comparison");
+                String n = name();
+                float v;
+                try { v = Float.parseFloat(n); } catch (NumberFormatException e) { pos--; throw error("expected a number"); }
+                if (!(v >= 0 && v <= 10)) { pos--; throw error("CGPA must be between 0 and 10"); }
+                return atom(CGPA, op, v, null, 0, null);
+            }
+            if (accept("branch")) {
+                if (accept("=")) return branch();
+                expect("in");
+                List<Node> xs = new ArrayList<>();
+                for (String b : list()) xs.add(branch(b));
+                return xs.size() == 1 ? xs.get(0) : new Junction(false, xs);
+            }
+            if (accept("skill")) {
+                String s = name();
+                return skill(s, level());
+            }
+            boolean any = accept("any");
+            if (any || accept("all")) {
+                List<String> names = list();
+                SkillLevel l = level();
+                List<Node> xs = new ArrayList<>();
+                for (String s : names) xs.add(skill(s, l));
+                return xs.size() == 1 ? xs.get(0) : new Junction(!any, xs);
+            }
+            throw error(pos < tokens.size() ? "unknown condition '" + tokens.get(pos).text + "'" : "expected a condition");
+        }
+        List<String> list() {
+            expect("(");
+            List<String> out = new ArrayList<>();
+            do out.add(name()); while (accept(","));
+            expect(")");
+            return out;
+        }
+        SkillLevel level() {
+            if (!accept(">=")) return SkillLevel.LOW;
+            String l = name();
+            if (l.equalsIgnoreCase("High")) return SkillLevel.HIGH;
+            if (l.equalsIgnoreCase("Low")) return SkillLevel.LOW;
+            pos--;
+            throw error("skill level must be Low or High");
+        }
+        Node branch() { return branch(name()); }
+        Node branch(String b) {
+            for (String known : PlacementManager.BRANCHES) if (known.equalsIgnoreCase(b.trim())) return atom(BRANCH, 0, 0, known, 0, null);
+            throw new IllegalArgumentException("Rule: unknown branch '" + b + "'");
+        }
+        Node skill(String s, SkillLevel l) {
+            if (s.trim().isEmpty()) throw error("empty skill name");
+            return atom(SKILL, 0, 0, null, SkillCatalog.id(s), l);
+        }
+        Atom atom(int kind, int op, float value, String branch, int skill, SkillLevel level) {
+            Atom a = new Atom(kind, op, value, branch, skill, level, atoms.size());
+            Atom seen = byKey.get(a.key());
+            if (seen != null) return seen;
+            if (atoms.size() == MAX_ATOMS) throw error("more than " + MAX_ATOMS + " distinct conditions");
+            atoms.add(a);
+            byKey.put(a.key(), a);
+            return a;
+        }
+    }
+}
+
+/* A company's interview day: panels that sit in parallel, one slot length, and the windows slots
+   fall in (minutes from midnight, half-open). Text form "<panels>x<minutes> <from>-<to>[,...]",
+   e.g. "3x30 09:00-12:30,13:30-17:00". */
+final class InterviewPlan {
+    static final int MAX_PANELS = 256;
+    private static final Pattern FORM = Pattern.compile("(\\d+)\\s*x\\s*(\\d+)\\s+(.+)");
+    private static final Pattern WINDOW = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*-\\s*(\\d{1,2}):(\\d{2})");
+    // drives for companies without a plan use this day
+    static final InterviewPlan DEFAULT_DAY = parse("1x30 09:00-17:00");
+
+    final int panels, slotMinutes;
+    private final int[] windows; // from, to pairs, sorted and disjoint
+    private final int[] starts;  // every slot's start, ascending
+
+    private InterviewPlan(int panels, int slotMinutes, int[] windows) {
+        this.panels = panels;
+        this.slotMinutes = slotMinutes;
+        this.windows = windows;
+        int n = 0;
+        for (int w = 0; w < windows.length; w += 2) n += (windows[w + 1] - windows[w]) / slotMinutes;
+        if (n == 0) throw new IllegalArgumentException("Interview plan: no " + slotMinutes + " minute slot fits in the windows");
+        starts = new int[n];
+        for (int w = 0, k = 0; w < windows.length; w += 2)
+            for (int t = windows[w]; t + slotMinutes <= windows[w + 1]; t += slotMinutes) starts[k++] = t;
+    }
+
+    // IllegalArgumentException on bad text
+    static InterviewPlan parse(String text) {
+        Matcher m = FORM.matcher(text.trim());
+        if (!m.matches()) throw new IllegalArgumentException("Interview plan: expected <panels>x<minutes> <from>-<to>, got '" + text.trim() + "'");
+        int panels = number(m.group(1)), slot = number(m.group(2));
+        if (panels < 1 || panels > MAX_PANELS) throw new IllegalArgumentException("Interview plan: panels must be 1.." + MAX_PANELS);
+        if (slot < 5 || slot > 480) throw new IllegalArgumentException("Interview plan: slot length must be 5..480 minutes");
+        String[] parts = m.group(3).split(",");
+        int[] windows = new int[parts.length * 2];
+        for (int i = 0; i < parts.length; i++) {
+            Matcher w = WINDOW.matcher(parts[i].trim());
+            if (!w.matches()) throw new IllegalArgumentException("Interview plan: bad window '" + parts[i].trim() + "', expected HH:MM-HH:MM");
+            windows[2 * i] = minute(w.group(1), w.group(2));
+            windows[2 * i + 1] = minute(w.group(3), w.group(4));
+            if (windows[2 * i + 1] <= windows[2 * i]) throw new IllegalArgumentException("Interview plan: window '" + parts[i].trim() + "' ends before it starts");
+        }
+        Integer[] order = new Integer[parts.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt(i -> windows[2 * i]));
+        int[] sorted = new int[windows.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[2 * i] = windows[2 * order[i]];
+            sorted[2 * i + 1] = windows[2 * order[i] + 1];
+            if (i > 0 && sorted[2 * i] < sorted[2 * i - 1]) throw new IllegalArgumentException("Interview plan: windows overlap");
+        }
+        return new InterviewPlan(panels, slot, sorted);
+    }
+    private static int number(String s) {
+        try { return Integer.parseInt(s); }
+        catch (NumberFormatException e) { throw new IllegalArgumentException("Interview plan: number too large '" + s + "'"); }
+    }
+    private static int minute(String h, String m) {
+        int hh = Integer.parseInt(h), mm = Integer.parseInt(m);
+        if (mm > 59 || hh * 60 + mm > 24 * 60) throw new IllegalArgumentException("Interview plan: bad time " + h + ":" + m);
+        return hh * 60 + mm;
+    }
+
+    // same day with more panels, unbounded: a drive without a plan gets enough to seat all its candidates
+    InterviewPlan withPanels(int panels) { return new InterviewPlan(panels, slotMinutes, windows); }
+
+    int getSlotCount() { return starts.length; }
+    int slotStart(int slot) { return starts[slot]; }
+    // first slot starting at or after minute; getSlotCount() when none
+    int slotAtOrAfter(int minute) {
+        int i = Arrays.binarySearch(starts, minute);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    static String clock(int minute) { return String.format("%02d:%02d", minute / 60, minute % 60); }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder().append(panels).append('x').append(slotMinutes).append(' ');
+        for (int w = 0; w < windows.length; w += 2) sb.append(w == 0 ? "" : ",").append(clock(windows[w])).append('-').append(clock(windows[w + 1]));
+        return sb.toString();
+    }
+}
+
+/* Placement history in a memory-mapped, block-columnar file (records.col).
+   Rows are grouped in blocks of 4096; inside a block each column is contiguous: student
+   ordinal (int), company ordinal (int), status (byte), timestamp (long). Ids and statuses are
+   interned in records.ids. The header's row count and journal LSN only move at checkpoints;
+   rows written after that are simply overwritten when the journal is replayed. */
+class RecordStore {
+    private static final int MAGIC = 0x504D5343; // "PMSC"
+    private static final int VERSION = 1, HEADER = 4096;
+    private static final int BLOCK_ROWS = 4096, BLOCK_BYTES = BLOCK_ROWS * 17, SEG_BLOCKS = 64;
+    private static final long SEG_BYTES = (long) BLOCK_BYTES * SEG_BLOCKS;
+    private static final byte ID = 0, STATUS = 1;
+    private static final String COL_FILE = "records.col", IDS_FILE = "records.ids";
+
+    private final FileChannel ch, idsCh;
+    private final MappedByteBuffer header;
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private volatile int rows;
+    private long committedLsn;
+
+    // interned ids and statuses; guarded by the dictionary lock
+    private final Object dict = new Object();
+    private final Map<String, Integer> idCodes = new HashMap<>(), statusCodes = new HashMap<>();
+    private final List<String> ids = new ArrayList<>(), statuses = new ArrayList<>();
+    private final PlacementCodec.Out pendingIds = new PlacementCodec.Out();
+
+    private RecordStore(FileChannel ch, FileChannel idsCh, MappedByteBuffer header) { this.ch = ch; this.idsCh = idsCh; this.header = header; }
+
+    // heap-backed store for managers that are never persisted
+    static RecordStore inMemory() { return new RecordStore(null, null, null); }
+
+    static RecordStore open(File dir) throws IOException {
+        FileChannel ch = FileChannel.open(new File(dir, COL_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel idsCh = FileChannel.open(new File(dir, IDS_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = ch.size() == 0;
+        RecordStore st = new RecordStore(ch, idsCh, ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER));
+        if (fresh) {
+            st.header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, 0).putLong(12, 0);
+        } else {
+            if (st.header.getInt(0) != MAGIC) throw new IOException(COL_FILE + ": not a record store");
+            if (st.header.getInt(4) > VERSION) throw new IOException(COL_FILE + ": unsupported version " + st.header.getInt(4));
+        }
+        st.readIds(new File(dir, IDS_FILE));
+        st.rows = st.header.getInt(8);
+        st.committedLsn = st.header.getLong(12);
+        int segs = (int) ((ch.size() - HEADER + SEG_BYTES - 1) / SEG_BYTES);
+        for (int i = 0; i < segs; i++) st.addSegment();
+        return st;
+    }
+
+    static boolean exists(File dir) { return new File(dir, COL_FILE).exists(); }
+
+    // a torn tail can only hold ids of rows that were never committed, so it is cut off
+    private void readIds(File f) throws IOException {
+        byte[] all = Files.readAllBytes(f.toPath());
+        PlacementCodec.In in = new PlacementCodec.In(all);
+        int good = 0;
+        try {
+            while (good < all.length) {
+                int kind = in.getByte();
+                String s = in.getString();
+                if (kind == ID) { idCodes.put(s, ids.size()); ids.add(s); }
+                else { statusCodes.put(s, statuses.size()); statuses.add(s); }
+                good = in.position();
+            }
+        } catch (EOFException torn) { /* keep what was complete */ }
+        idsCh.truncate(good);
+        idsCh.position(good);
+    }
+
+    private void addSegment() throws IOException {
+        ByteBuffer[] cur = segments;
+        ByteBuffer seg = ch == null ? ByteBuffer.allocate((int) SEG_BYTES)
+                : ch.map(FileChannel.MapMode.READ_WRITE, HEADER + cur.length * SEG_BYTES, SEG_BYTES);
+        ByteBuffer[] next = Arrays.copyOf(cur, cur.length + 1);
+        next[cur.length] = seg;
+        segments = next;
+    }
+
+    int size() { return rows; }
+    long committedLsn() { return committedLsn; }
+    void truncate() { rows = 0; }
+
+    // single writer (the manager lock); the row is fully written before the new size is published
+    void append(PlacementRecord r) {
+        int row = rows;
+        int block = row / BLOCK_ROWS, seg = block / SEG_BLOCKS;
+        try { while (seg >= segments.length) addSegment(); }
+        catch (IOException e) { throw new UncheckedIOException("Cannot grow " + COL_FILE, e); }
+        ByteBuffer b = segments[seg];
+        int base = (block % SEG_BLOCKS) * BLOCK_BYTES, i = row % BLOCK_ROWS;
+        b.putInt(base + i * 4, code(r.getStudentId(), ID));
+        b.putInt(base + BLOCK_ROWS * 4 + i * 4, code(r.getCompanyId(), ID));
+        b.put(base + BLOCK_ROWS * 8 + i, (byte) code(r.getStatus(), STATUS));
+        b.putLong(base + BLOCK_ROWS * 9 + i * 8, r.getDate().getTime());
+        rows = row + 1;
+    }
+
+    private int code(String s, byte kind) {
+        synchronized (dict) {
+            Map<String, Integer> codes = kind == ID ? idCodes : statusCodes;
+            List<String> names = kind == ID ? ids : statuses;
+            Integer c = codes.get(s);
+            if (c != null) return c;
+            if (kind == STATUS && names.size() == 256) throw new IllegalStateException("Too many distinct statuses");
+            c = names.size();
+            codes.put(s, c);
+            names.add(s);
+            pendingIds.putByte(kind);
+            pendingIds.putString(s);
+            return c;
+        }
+    }
+
+    /* Makes rows [0, rowCut) durable and records that they cover the journal up to lsn.
+       Ids first, then the row data, then the header that points at them. */
+    void commit(int rowCut, long lsn) throws IOException {
+        if (ch == null) return;
+        synchronized (dict) { pendingIds.flushTo(idsCh); }
+        idsCh.force(false);
+        for (ByteBuffer seg : segments) ((MappedByteBuffer) seg).force();
+        header.putInt(8, rowCut).putLong(12, lsn);
+        header.force();
+        committedLsn = lsn;
+    }
+
+    /* ---- reads ---- */
+    private ByteBuffer segment(int row) { return segments[row / BLOCK_ROWS / SEG_BLOCKS]; }
+    private static int base(int row) { return (row / BLOCK_ROWS % SEG_BLOCKS) * BLOCK_BYTES; }
+    int studentOrdinal(int row) { return segment(row).getInt(base(row) + row % BLOCK_ROWS * 4); }
+    int companyOrdinal(int row) { return segment(row).getInt(base(row) + BLOCK_ROWS * 4 + row % BLOCK_ROWS * 4); }
+    int statusCode(int row) { return segment(row).get(base(row) + BLOCK_ROWS * 8 + row % BLOCK_ROWS) & 0xFF; }
+    long time(int row) { return segment(row).getLong(base(row) + BLOCK_ROWS * 9 + row % BLOCK_ROWS * 8); }
+    String idName(int ordinal) { synchronized (dict) { return ids.get(ordinal); } }
+    String statusName(int code) { synchronized (dict) { return statuses.get(code); } }
+    // -1 if the id never appears in the history
+    int idOrdinal(String id) { synchronized (dict) { Integer c = idCodes.get(id); return c == null ? -1 : c; } }
+    int statusOrdinal(String status) { synchronized (dict) { Integer c = statusCodes.get(status); return c == null ? -1 : c; } }
+
+    PlacementRecord get(int row) {
+        return new PlacementRecord(idName(studentOrdinal(row)), idName(companyOrdinal(row)), statusName(statusCode(row)), new Date(time(row)));
+    }
+
+    /* Read-only list over the rows that existed when it was taken; elements are built on access */
+    List<PlacementRecord> view() { return view(rows); }
+    // over the first n rows; rows are never rewritten once appended, so this stays valid as the store grows
+    List<PlacementRecord> view(int n) {
+        return new AbstractList<PlacementRecord>() {
+            @Override public PlacementRecord get(int i) {
+                if (i < 0 || i >= n) throw new IndexOutOfBoundsException("Row " + i + " of " + n);
+                return RecordStore.this.get(i);
+            }
+            @Override public int size() { return n; }
+        };
+    }
+
+    /* Forward cursor over raw columns, for scans that should not build PlacementRecords */
+    Cursor cursor(int from, int to) { return new Cursor(from, Math.min(to, rows)); }
+
+    class Cursor {
+        private int row;
+        private final int end;
+        private Cursor(int from, int to) { this.row = from - 1; this.end = to; }
+        boolean next() { return ++row < end; }
+        int row() { return row; }
+        int studentOrdinal() { return RecordStore.this.studentOrdinal(row); }
+        int companyOrdinal() { return RecordStore.this.companyOrdinal(row); }
+        int statusCode() { return RecordStore.this.statusCode(row); }
+        long time() { return RecordStore.this.time(row); }
+    }
+
+    void close() throws IOException {
+        if (ch == null) return;
+        ch.close();
+        idsCh.close();
+    }
+}
+
+/* Students ranked by (cgpa desc, id asc) in a size-augmented treap: O(log n) updates,
+   rank-of and select, top-K and CGPA-band queries without sorting */
+class CgpaRanking {
+    private static final class Node {
+        Student s;
+        final float cgpa;
+        final String id;
+        final int prio;
+        Node left, right;
+        int size = 1;
+        Node(Student s, int prio) { this.s = s; this.cgpa = s.getCgpa(); this.id = s.getId(); this.prio = prio; }
+    }
+
+    private Node root;
+    private final Map<String, Node> byId = new HashMap<>();
+    private final Random prio = new Random();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void rebuild(Collection<Student> all) {
+        lock.writeLock().lock();
+        try {
+            root = null;
+            byId.clear();
+            for (Student s : all) put(s);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    // a student whose CGPA did not change keeps its node
+    void put(Student s) {
+        lock.writeLock().lock();
+        try {
+            Node old = byId.get(s.getId());
+            if (old != null && old.cgpa == s.getCgpa()) { old.s = s; return; }
+            if (old != null) root = remove(root, old.cgpa, old.id);
+            Node n = new Node(s, prio.nextInt());
+            byId.put(n.id, n);
+            root = insert(root, n);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Node old = byId.remove(id);
+            if (old != null) root = remove(root, old.cgpa, old.id);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    int size() { return size(root); }
+
+    // 0-based position in the ranking, -1 if absent
+    int rankOf(String id) {
+        lock.readLock().lock();
+        try {
+            Node x = byId.get(id);
+            if (x == null) return -1;
+            int rank = 0;
+            for (Node t = root; t != null; ) {
+                int d = cmp(x.cgpa, x.id, t);
+                if (d == 0) return rank + size(t.left);
+                if (d < 0) t = t.left;
+                else { rank += size(t.left) + 1; t = t.right; }
+            }
+            return -1;
+        } finally { lock.readLock().unlock(); }
+    }
+
+    // students at ranks [from, to)
+    List<Student> range(int from, int to) {
+        lock.readLock().lock();
+        try {
+            from = Math.max(0, from);
+            to = Math.min(to, size(root));
+            List<Student> out = new ArrayList<>(Math.max(0, to - from));
+            if (from < to) collect(root, 0, from, to, out);
+            return out;
+        } finally { lock.readLock().unlock(); }
+    }
+
+    List<Student> top(int k) { return range(0, k); }
+
+    // students with min <= cgpa <= max, best first
+    List<Student> band(float min, float max) {
+        lock.readLock().lock();
+        try { return range(countAtLeast(Math.nextUp(max)), countAtLeast(min)); }
+        finally { lock.readLock().unlock(); }
+    }
+
+    private int countAtLeast(float c) {
+        int n = 0;
+        for (Node t = root; t != null; ) {
+            if (t.cgpa >= c) { n += size(t.left) + 1; t = t.right; }
+            else t = t.left;
+        }
+        return n;
+    }
+
+    // in-order walk that skips whole subtrees outside [from, to); offset is the rank of t's leftmost node
+    private static void collect(Node t, int offset, int from, int to, List<Student> out) {
+        if (t == null) return;
+        int mine = offset + size(t.left);
+        if (from < mine) collect(t.left, offset, from, to, out);
+        if (mine >= from && mine < to) out.add(t.s);
+        if (to > mine + 1) collect(t.right, mine + 1, from, to, out);
+    }
+
+    private static int cmp(float cgpa, String id, Node t) {
+        if (cgpa != t.cgpa) return cgpa > t.cgpa ? -1 : 1;
+        return id.compareTo(t.id);
+    }
+    private static int size(Node t) { return t == null ? 0 : t.size; }
+    private static void update(Node t) { t.size = 1 + size(t.left) + size(t.right); }
+
+    private static Node insert(Node t, Node x) {
+        if (t == null) return x;
+        if (x.prio > t.prio) {
+            Node[] lr = split(t, x.cgpa, x.id);
+            x.left = lr[0];
+            x.right = lr[1];
+            update(x);
+            return x;
+        }
+        if (cmp(x.cgpa, x.id, t) < 0) t.left = insert(t.left, x); else t.right = insert(t.right, x);
+        update(t);
+        return t;
+    }
+
+    // [nodes ranked before the key, nodes ranked after it]
+    private static Node[] split(Node t, float cgpa, String id) {
+        if (t == null) return new Node[2];
+        if (cmp(cgpa, id, t) < 0) {
+            Node[] lr = split(t.left, cgpa, id);
+            t.left = lr[1];
+            update(t);
+            lr[1] = t;
+            return lr;
+        }
+        Node[] lr = split(t.right, cgpa, id);
+        t.right = lr[0];
+        update(t);
+        lr[0] = t;
+        return lr;
+    }
+
+    private static Node remove(Node t, float cgpa, String id) {
+        if (t == null) return null;
+        int d = cmp(cgpa, id, t);
+        if (d == 0) return merge(t.left, t.right);
+        if (d < 0) t.left = remove(t.left, cgpa, id); else t.right = remove(t.right, cgpa, id);
+        update(t);
+        return t;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.prio > b.prio) { a.right = merge(a.right, b); update(a); return a; }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+}
+
+/* One CGPA ranking overall plus one per branch */
+class BranchRankings {
+    private final CgpaRanking all = new CgpaRanking();
+    private final Map<String, CgpaRanking> byBranch = new ConcurrentHashMap<>();
+    private final Map<String, String> branchOf = new HashMap<>();
+
+    synchronized void rebuild(Collection<Student> students) {
+        all.rebuild(students);
+        byBranch.clear();
+        branchOf.clear();
+        for (Student s : students) putBranch(s);
+    }
+    synchronized void put(Student s) {
+        all.put(s);
+        String old = branchOf.get(s.getId());
+        if (old != null && !old.equals(String.valueOf(s.getBranch()))) byBranch.get(old).remove(s.getId());
+        putBranch(s);
+    }
+    private void putBranch(Student s) {
+        String b = String.valueOf(s.getBranch());
+        branchOf.put(s.getId(), b);
+        byBranch.computeIfAbsent(b, k -> new CgpaRanking()).put(s);
+    }
+    synchronized void remove(String id) {
+        all.remove(id);
+        String b = branchOf.remove(id);
+        if (b != null) byBranch.get(b).remove(id);
+    }
+    CgpaRanking all() { return all; }
+    // empty ranking for a branch nobody is in
+    CgpaRanking branch(String branch) { return byBranch.getOrDefault(branch, EMPTY); }
+    private static final CgpaRanking EMPTY = new CgpaRanking();
+}
+
+/* Search-as-you-type over ids, names, roles, skills and branches. Every word is a term in a sorted
+   dictionary with a posting list of documents (packed with the field it came from), so a prefix is
+   a range of the dictionary; words without digits are also filed under their trigrams to find
+   typos. Every word of a query has to match; matches in the name count more than in the branch. */
+class SearchIndex {
+    static final int ID = 0, NAME = 1, ROLE = 2, SKILL = 3, BRANCH = 4, FIELDS = 5;
+    private static final float[] FIELD_WEIGHT = { 4f, 3f, 2f, 1.5f, 1f };
+    private static final int MAX_WORDS = 8;
+    // a later query word checks each remaining document's own terms instead of walking its postings
+    // when that is this many times less work
+    private static final int VERIFY_RATIO = 16;
+
+    private static final class Term {
+        final String text;
+        final boolean id; // from the id, kept out of the word dictionary so "s" does not expand to every id
+        int[] postings = new int[1]; // doc << 3 | field, ascending
+        int size;
+        Term(String text, boolean id) { this.text = text; this.id = id; }
+    }
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final TreeMap<String, Term> idTerms = new TreeMap<>();
+    private final Map<String, List<Term>> grams = new HashMap<>();
+    private final Map<String, Integer> docOf = new HashMap<>();
+    private String[] ids = new String[64];
+    private Term[][] termsOf = new Term[64][];
+    private int[] free = new int[16];
+    private int freeCount, docCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static String[] of(Student s) {
+        String[] doc = new String[FIELDS];
+        doc[ID] = s.getId();
+        doc[NAME] = s.getName();
+        doc[SKILL] = skillText(s.getSkillCodes());
+        doc[BRANCH] = s.getBranch();
+        return doc;
+    }
+    static String[] of(Company c) {
+        String[] doc = new String[FIELDS];
+        doc[ID] = c.getId();
+        doc[NAME] = c.getName();
+        doc[ROLE] = c.getRole();
+        doc[SKILL] = skillText(c.getRequiredSkillCodes());
+        return doc;
+    }
+    private static String skillText(int[] codes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < codes.length; i++)
+            if (i == 0 || SkillCatalog.idOf(codes[i]) != SkillCatalog.idOf(codes[i - 1])) sb.append(SkillCatalog.skill(codes[i]).getName()).append(' ');
+        return sb.toString();
+    }
+
+    void rebuild(Iterable<String[]> docs) {
+        lock.writeLock().lock();
+        try {
+            terms.clear(); idTerms.clear(); grams.clear(); docOf.clear();
+            ids = new String[64];
+            termsOf = new Term[64][];
+            freeCount = docCount = 0;
+            for (String[] doc : docs) put(doc);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    // add or replace; doc[ID] is the key
+    void put(String[] doc) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docOf.get(doc[ID]);
+            int d;
+            if (existing != null) unlink(d = existing);
+            else {
+                d = freeCount > 0 ? free[--freeCount] : docCount++;
+                if (d >= ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    termsOf = Arrays.copyOf(termsOf, ids.length);
+                }
+                ids[d] = doc[ID];
+                docOf.put(doc[ID], d);
+            }
+            Set<Term> own = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int f = 0; f < FIELDS; f++) {
+                if (doc[f] == null) continue;
+                TreeMap<String, Term> dict = f == ID ? idTerms : terms;
+                for (String w : words(doc[f], Integer.MAX_VALUE)) {
+                    Term t = dict.get(w);
+                    if (t == null) {
+                        dict.put(w, t = new Term(w, f == ID));
+                        if (f != ID && typo(w, 2)) for (String g : grams(w)) grams.computeIfAbsent(g, k -> new ArrayList<>()).add(t);
+                    }
+                    insert(t, d << 3 | f);
+                    own.add(t);
+                }
+            }
+            termsOf[d] = own.toArray(new Term[0]);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer d = docOf.remove(id);
+            if (d == null) return;
+            unlink(d);
+            ids[d] = null;
+            termsOf[d] = null;
+            if (freeCount == free.length) free = Arrays.copyOf(free, free.length * 2);
+            free[freeCount++] = d;
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    private static void insert(Term t, int posting) {
+        int p = Arrays.binarySearch(t.postings, 0, t.size, posting);
+        if (p >= 0) return; // the word twice in one field
+        p = -p - 1;
+        if (t.size == t.postings.length) t.postings = Arrays.copyOf(t.postings, t.size * 2);
+        System.arraycopy(t.postings, p, t.postings, p + 1, t.size - p);
+        t.postings[p] = posting;
+        t.size++;
+    }
+
+    // drops the doc from every posting list it is in; a term nobody uses any more leaves the dictionary
+    private void unlink(int d) {
+        for (Term t : termsOf[d]) {
+            int from = first(t, d), to = from;
+            while (to < t.size && t.postings[to] >>> 3 == d) to++;
+            System.arraycopy(t.postings, to, t.postings, from, t.size - to);
+            t.size -= to - from;
+            if (t.size > 0) continue;
+            if (t.id) { idTerms.remove(t.text); continue; }
+            terms.remove(t.text);
+            if (typo(t.text, 2)) for (String g : grams(t.text)) {
+                List<Term> list = grams.get(g);
+                list.remove(t);
+                if (list.isEmpty()) grams.remove(g);
+            }
+        }
+    }
+    // position of the doc's first posting in the term, or where it would go
+    private static int first(Term t, int d) {
+        int p = Arrays.binarySearch(t.postings, 0, t.size, d << 3);
+        return p < 0 ? -p - 1 : p;
+    }
+
+    // per-thread score arrays, reused across queries
+    private static final class Scratch {
+        float[] total = new float[0]; // sum over the words done so far
+        float[] best = new float[0];  // best match of the current word, 0 if none
+        int[] docs = new int[0];      // documents still in the running
+        void prepare(int n) {
+            if (docs.length >= n) return;
+            int c = Math.max(n, docs.length + (docs.length >> 1));
+            total = new float[c]; best = new float[c]; docs = new int[c];
+        }
+    }
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // a query word and the terms it stands for: the ones it starts, or else typo candidates
+    private static final class Match {
+        final String word;
+        final List<Term> terms = new ArrayList<>();
+        Set<Term> typos; // null when the word has prefix matches
+        long volume;     // postings to walk
+        Match(String word) { this.word = word; }
+
+        float weight(Term t) {
+            if (t.id) return t.text.equals(word) ? 1f : digits(word) && t.text.startsWith(word) ? prefix(word, t.text) : 0f;
+            if (t.text.startsWith(word)) return prefix(word, t.text);
+            return typos != null && typos.contains(t) ? typo(word, t.text) : 0f;
+        }
+    }
+
+    private Match expand(String word) {
+        Match m = new Match(word);
+        for (Term t : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) m.terms.add(t);
+        if (m.terms.isEmpty() && typo(word, 4)) {
+            m.typos = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<String> keys = grams(word);
+            for (int d = 1; d <= maxTypos(word); d++) { keys.add(shape(word, word.length() - d)); keys.add(shape(word, word.length() + d)); }
+            for (String g : keys) m.typos.addAll(grams.getOrDefault(g, Collections.emptyList()));
+            m.terms.addAll(m.typos);
+        }
+        // ids match by prefix only once a digit is typed
+        if (digits(word)) for (Term t : idTerms.subMap(word, true, word + Character.MAX_VALUE, false).values()) m.terms.add(t);
+        else if (idTerms.containsKey(word)) m.terms.add(idTerms.get(word));
+        for (Term t : m.terms) m.volume += t.size;
+        return m;
+    }
+
+    /* Best matches first, at most limit ids. Scores add up per query word: the best match of the
+       word in a document (exact, prefix or typo, see prefix and typo) times its field weight. The
+       rarest word goes first; later words either walk their postings or, when few documents are
+       left, check those documents' own terms. */
+    List<String> search(String query, int limit) {
+        List<String> words = words(query, MAX_WORDS);
+        if (words.isEmpty() || limit <= 0) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (String w : words) matches.add(expand(w));
+            matches.sort(Comparator.comparingLong(x -> x.volume));
+            Scratch s = SCRATCH.get();
+            s.prepare(docCount);
+            int left = -1;
+            for (Match m : matches) {
+                if (left < 0 || (long) left * VERIFY_RATIO > m.volume) left = walk(m, s, left);
+                else left = verify(m, s, left);
+                if (left == 0) return Collections.emptyList();
+            }
+            // min-heap of score bits << 32 | inverted doc: ties go to the older document
+            long[] top = new long[Math.min(limit, left)];
+            int size = 0;
+            for (int k = 0; k < left; k++) {
+                int d = s.docs[k];
+                long key = (long) Float.floatToIntBits(s.total[d]) << 32 | (0xFFFFFFFFL - d);
+                if (size < top.length) { top[size++] = key; if (size == top.length) heapify(top); }
+                else if (key > top[0]) { top[0] = key; siftDown(top, 0, size); }
+            }
+            Arrays.sort(top, 0, size);
+            String[] out = new String[size];
+            for (int k = 0; k < size; k++) out[k] = ids[(int) (0xFFFFFFFFL - (top[size - 1 - k] & 0xFFFFFFFFL))];
+            return Arrays.asList(out);
+        } finally { lock.readLock().unlock(); }
+    }
+
+    /* The next word over its postings, into best; left is -1 for the first word, which collects the
+       docs. Returns how many docs are left. */
+    private int walk(Match m, Scratch s, int left) {
+        int n = docCount;
+        float[] best = s.best;
+        Arrays.fill(best, 0, n, 0f);
+        for (Term t : m.terms) {
+            float w = m.weight(t);
+            if (w == 0) continue;
+            float[] score = new float[FIELDS];
+            for (int f = 0; f < FIELDS; f++) score[f] = w * FIELD_WEIGHT[f];
+            int[] p = t.postings;
+            for (int k = 0, size = t.size; k < size; k++) {
+                int d = p[k] >>> 3;
+                best[d] = Math.max(best[d], score[p[k] & 7]);
+            }
+        }
+        int kept = 0;
+        if (left < 0) {
+            for (int d = 0; d < n; d++) if (best[d] > 0) { s.total[d] = best[d]; s.docs[kept++] = d; }
+        } else {
+            for (int k = 0; k < left; k++) {
+                int d = s.docs[k];
+                if (best[d] > 0) { s.total[d] += best[d]; s.docs[kept++] = d; }
+            }
+        }
+        return kept;
+    }
+    // the next word against the terms of each doc still left
+    private int verify(Match m, Scratch s, int left) {
+        int kept = 0;
+        for (int k = 0; k < left; k++) {
+            int d = s.docs[k];
+            float b = 0;
+            for (Term t : termsOf[d]) {
+                float w = m.weight(t);
+                if (w == 0) continue;
+                for (int p = first(t, d); p < t.size && t.postings[p] >>> 3 == d; p++) b = Math.max(b, w * FIELD_WEIGHT[t.postings[p] & 7]);
+            }
+            if (b == 0) continue;
+            s.total[d] += b;
+            s.docs[kept++] = d;
+        }
+        return kept;
+    }
+
+    private static void heapify(long[] h) { for (int i = h.length / 2 - 1; i >= 0; i--) siftDown(h, i, h.length); }
+    private static void siftDown(long[] h, int i, int size) {
+        long x = h[i];
+        for (int c; (c = 2 * i + 1) < size; i = c) {
+            if (c + 1 < size && h[c + 1] < h[c]) c++;
+            if (h[c] >= x) break;
+            h[i] = h[c];
+        }
+        h[i] = x;
+    }
+
+    /* Word weights: 1 for the same word, 0.6-0.9 for a prefix (more of the term typed is better),
+       0.5/0.4 for one/two typos and 0.35/0.25 for a typo in a prefix. Typos are one edit up to six
+       letters and two above; words shorter than four or with digits are never typos. */
+    static float prefix(String word, String term) { return term.length() == word.length() ? 1f : 0.6f + 0.3f * word.length() / term.length(); }
+    static float typo(String word, String term) {
+        if (!typo(word, 4) || !typo(term, 2)) return 0f;
+        int max = maxTypos(word);
+        int d = distance(word, term, max);
+        if (d <= max) return 0.6f - 0.1f * d;
+        if (term.length() <= word.length()) return 0f;
+        d = distance(word, term.substring(0, word.length()), max);
+        return d <= max ? 0.45f - 0.1f * d : 0f;
+    }
+    private static int maxTypos(String word) { return word.length() <= 6 ? 1 : 2; }
+    private static boolean typo(String w, int minLength) { return w.length() >= minLength && !digits(w); }
+    private static boolean digits(String w) {
+        for (int i = 0; i < w.length(); i++) if (Character.isDigit(w.charAt(i))) return true;
+        return false;
+    }
+    // padded trigrams, plus the first letter and the length so that a typo in a short word, which
+    // can break all of its trigrams, still meets the words it could have been
+    private static List<String> grams(String w) {
+        String p = "$" + w + "$";
+        List<String> out = new ArrayList<>(p.length() - 1);
+        out.add(shape(w, w.length()));
+        for (int i = 0; i + 3 <= p.length(); i++) out.add(p.substring(i, i + 3));
+        return out;
+    }
+    private static String shape(String w, int length) { return "$" + w.charAt(0) + "/" + length; }
+
+    // edit distance counting a swap of neighbours as one edit; max + 1 once it is certain to exceed max
+    static int distance(String a, String b, int max) {
+        int n = a.length(), m = b.length();
+        if (Math.abs(n - m) > max) return max + 1;
+        int[] before = new int[m + 1], prev = new int[m + 1], cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int d = Math.min(Math.min(prev[j], cur[j - 1]) + 1, prev[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) d = Math.min(d, before[j - 2] + 1);
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = before; before = prev; prev = cur; cur = t;
+        }
+        return Math.min(prev[m], max + 1);
+    }
+
+    // lower-cased words of letters and digits; '+' and '#' count as letters for C++ and C#
+    static List<String> words(String text, int limit) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        String s = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= s.length() && out.size() < limit; i++) {
+            boolean word = i < s.length() && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '+' || s.charAt(i) == '#');
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) { out.add(s.substring(start, i)); start = -1; }
+        }
+        return out;
+    }
+}
+
+/* Where the manager keeps students and companies, by id. MemoryStore holds everything on the
+   heap; PagedStore keeps it in a PageFile so only the buffer pool is resident. */
+interface EntityStore<T> extends Closeable {
+    T get(String id);
+    T put(String id, T value); // returns the value replaced, or null
+    T remove(String id);
+    default boolean containsKey(String id) { return get(id) != null; }
+    int size();
+    // weakly consistent, like ConcurrentHashMap's views
+    Collection<T> values();
+    void clear();
+    // this state as a map that later writes leave alone, or null if the store cannot take one cheaply
+    default PersistentMap<T> snapshot() { return null; }
+    default void flush() throws IOException {}
+    @Override default void close() throws IOException {}
+}
+
+class MemoryStore<T> implements EntityStore<T> {
+    private final Map<String, T> map;
+
+    MemoryStore() { map = new ConcurrentHashMap<>(); }
+    MemoryStore(Map<String, T> initial) { map = new ConcurrentHashMap<>(initial); }
+
+    @Override public T get(String id) { return map.get(id); }
+    @Override public T put(String id, T value) { return map.put(id, value); }
+    @Override public T remove(String id) { return map.remove(id); }
+    @Override public boolean containsKey(String id) { return map.containsKey(id); }
+    @Override public int size() { return map.size(); }
+    @Override public Collection<T> values() { return map.values(); }
+    @Override public void clear() { map.clear(); }
+}
+
+/* Heap store over a PersistentMap, for data readers snapshot: writers are serialized and swap in
+   a new version, readers never lock, and values() and snapshot() are the version current at the call */
+class VersionedStore<T> implements EntityStore<T> {
+    private volatile PersistentMap<T> map = PersistentMap.empty();
+
+    VersionedStore() {}
+    VersionedStore(Map<String, T> initial) {
+        PersistentMap.Builder<T> b = PersistentMap.builder();
+        for (Map.Entry<String, T> e : initial.entrySet()) b.put(e.getKey(), e.getValue());
+        map = b.build();
+    }
+
+    @Override public T get(String id) { return map.get(id); }
+    @Override public synchronized T put(String id, T value) {
+        PersistentMap<T> m = map;
+        T old = m.get(id);
+        map = m.plus(id, value);
+        return old;
+    }
+    @Override public synchronized T remove(String id) {
+        PersistentMap<T> m = map;
+        T old = m.get(id);
+        if (old != null) map = m.minus(id);
+        return old;
+    }
+    @Override public boolean containsKey(String id) { return map.containsKey(id); }
+    @Override public int size() { return map.size(); }
+    @Override public Collection<T> values() { return map.values(); }
+    @Override public synchronized void clear() { map = PersistentMap.empty(); }
+    @Override public PersistentMap<T> snapshot() { return map; }
+}
+
+/* Persistent hash array mapped trie from String keys to non-null values. Every version stays
+   valid: an update copies the nodes on the path to its key (at most eight) and shares everything
+   else, so a reader holding an older version keeps a consistent map for free. Nodes created by a
+   Builder are updated in place while it builds, for bulk loads. */
+final class PersistentMap<V> {
+    private static final PersistentMap<Object> EMPTY = new PersistentMap<>(null, 0);
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) { this.root = root; this.size = size; }
+    @SuppressWarnings("unchecked")
+    static <V> PersistentMap<V> empty() { return (PersistentMap<V>) EMPTY; }
+    static <V> Builder<V> builder() { return new Builder<>(); }
+
+    @SuppressWarnings("unchecked")
+    V get(String key) { return root == null ? null : (V) root.find(0, hash(key), key); }
+    boolean containsKey(String key) { return get(key) != null; }
+    int size() { return size; }
+
+    PersistentMap<V> plus(String key, V value) {
+        Objects.requireNonNull(value);
+        Box added = new Box();
+        Node r = (root == null ? new Bitmap(null, 0, new Object[0]) : root).put(null, 0, hash(key), key, value, added);
+        return r == root ? this : new PersistentMap<>(r, added.hit ? size + 1 : size);
+    }
+    PersistentMap<V> minus(String key) {
+        if (root == null) return this;
+        Box removed = new Box();
+        Node r = root.remove(null, 0, hash(key), key, removed);
+        return removed.hit ? new PersistentMap<>(r, size - 1) : this;
+    }
+
+    // read-only, iterates this version
+    Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override public Iterator<V> iterator() { return new Iter<>(root); }
+            @Override public int size() { return size; }
+        };
+    }
+
+    static final class Builder<V> {
+        private final Object edit = new Object();
+        private Node root = new Bitmap(edit, 0, new Object[0]);
+        private int size;
+        private boolean built;
+
+        Builder<V> put(String key, V value) {
+            Objects.requireNonNull(value);
+            if (built) throw new IllegalStateException("Builder already used");
+            Box added = new Box();
+            root = root.put(edit, 0, hash(key), key, value, added);
+            if (added.hit) size++;
+            return this;
+        }
+        // the builder must not be used afterwards: its nodes now belong to the map
+        PersistentMap<V> build() {
+            built = true;
+            return size == 0 ? empty() : new PersistentMap<>(root, size);
+        }
+    }
+
+    private static int hash(String key) { int h = key.hashCode(); return h ^ (h >>> 16); }
+    private static final class Box { boolean hit; }
+
+    /* array holds (key, value) pairs; in a Bitmap node a null key means the value is a child node */
+    private abstract static class Node {
+        final Object edit; // the Builder allowed to update this node in place, or null
+        Object[] array;
+        Node(Object edit, Object[] array) { this.edit = edit; this.array = array; }
+        abstract Object find(int shift, int hash, String key);
+        abstract Node put(Object edit, int shift, int hash, String key, Object value, Box added);
+        abstract Node remove(Object edit, int shift, int hash, String key, Box removed); // null once empty
+        boolean owned(Object by) { return by != null && edit == by; }
+        Node with(Object by, Object[] a) { if (owned(by)) { array = a; return this; } return copy(by, a); }
+        abstract Node copy(Object by, Object[] a);
+        Node set(Object by, int i, Object x) {
+            if (owned(by)) { array[i] = x; return this; }
+            Object[] a = array.clone();
+            a[i] = x;
+            return copy(by, a);
+        }
+    }
+
+    // 32-way branch on 5 hash bits per level; bitmap says which branches are present
+    private static final class Bitmap extends Node {
+        int bitmap;
+        Bitmap(Object edit, int bitmap, Object[] array) { super(edit, array); this.bitmap = bitmap; }
+        @Override Node copy(Object by, Object[] a) { return new Bitmap(by, bitmap, a); }
+
+        @Override Object find(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) return null;
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[i], v = array[i + 1];
+            if (k == null) return ((Node) v).find(shift + 5, hash, key);
+            return key.equals(k) ? v : null;
+        }
+
+        @Override Node put(Object by, int shift, int hash, String key, Object value, Box added) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            if ((bitmap & bit) == 0) {
+                added.hit = true;
+                Object[] a = new Object[array.length + 2];
+                System.arraycopy(array, 0, a, 0, i);
+                a[i] = key;
+                a[i + 1] = value;
+                System.arraycopy(array, i, a, i + 2, array.length - i);
+                if (owned(by)) { bitmap |= bit; array = a; return this; }
+                return new Bitmap(by, bitmap | bit, a);
+            }
+            Object k = array[i], v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(by, shift + 5, hash, key, value, added);
+                return child == v ? this : set(by, i + 1, child);
+            }
+            if (key.equals(k)) return v == value ? this : set(by, i + 1, value);
+            added.hit = true;
+            Node pair = pair(by, shift + 5, hash((String) k), (String) k, v, hash, key, value);
+            if (owned(by)) { array[i] = null; array[i + 1] = pair; return this; }
+            Object[] a = array.clone();
+            a[i] = null;
+            a[i + 1] = pair;
+            return new Bitmap(by, bitmap, a);
+        }
+
+        @Override Node remove(Object by, int shift, int hash, String key, Box removed) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) return this;
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[i], v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(by, shift + 5, hash, key, removed);
+                if (child == v) return this;
+                if (child != null) return set(by, i + 1, child);
+            } else if (key.equals(k)) {
+                removed.hit = true;
+            } else {
+                return this;
+            }
+            if (bitmap == bit) return null;
+            Object[] a = new Object[array.length - 2];
+            System.arraycopy(array, 0, a, 0, i);
+            System.arraycopy(array, i + 2, a, i, a.length - i);
+            if (owned(by)) { bitmap ^= bit; array = a; return this; }
+            return new Bitmap(by, bitmap ^ bit, a);
+        }
+
+        private static Node pair(Object by, int shift, int h1, String k1, Object v1, int h2, String k2, Object v2) {
+            if (h1 == h2) return new Collision(by, h1, new Object[] { k1, v1, k2, v2 });
+            int b1 = (h1 >>> shift) & 31, b2 = (h2 >>> shift) & 31;
+            if (b1 == b2) return new Bitmap(by, 1 << b1, new Object[] { null, pair(by, shift + 5, h1, k1, v1, h2, k2, v2) });
+            return new Bitmap(by, (1 << b1) | (1 << b2), b1 < b2 ? new Object[] { k1, v1, k2, v2 } : new Object[] { k2, v2, k1, v1 });
+        }
+    }
+
+    // keys whose whole hashes are equal, searched linearly
+    private static final class Collision extends Node {
+        final int hash;
+        Collision(Object edit, int hash, Object[] array) { super(edit, array); this.hash = hash; }
+        @Override Node copy(Object by, Object[] a) { return new Collision(by, hash, a); }
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) if (key.equals(array[i])) return i;
+            return -1;
+        }
+        @Override Object find(int shift, int hash, String key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? null : array[i + 1];
+        }
+        @Override Node put(Object by, int shift, int hash, String key, Object value, Box added) {
+            if (hash != this.hash) {
+                // nest this node under a bitmap node and add the key beside it
+                Node n = new Bitmap(by, 1 << ((this.hash >>> shift) & 31), new Object[] { null, this });
+                return n.put(by, shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) return array[i + 1] == value ? this : set(by, i + 1, value);
+            added.hit = true;
+            Object[] a = Arrays.copyOf(array, array.length + 2);
+            a[array.length] = key;
+            a[array.length + 1] = value;
+            return with(by, a);
+        }
+        @Override Node remove(Object by, int shift, int hash, String key, Box removed) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) return this;
+            removed.hit = true;
+            if (array.length == 2) return null;
+            Object[] a = new Object[array.length - 2];
+            System.arraycopy(array, 0, a, 0, i);
+            System.arraycopy(array, i + 2, a, i, a.length - i);
+            return with(by, a);
+        }
+    }
+
+    // depth-first over the pair arrays; a trie is at most seven bitmap levels and a collision node deep
+    private static final class Iter<V> implements Iterator<V> {
+        private final Object[][] arrays = new Object[9][];
+        private final int[] pos = new int[9];
+        private int depth;
+        private Object next;
+
+        Iter(Node root) {
+            if (root != null) { arrays[0] = root.array; depth = 1; }
+            advance();
+        }
+        private void advance() {
+            next = null;
+            while (depth > 0) {
+                Object[] a = arrays[depth - 1];
+                int p = pos[depth - 1];
+                if (p >= a.length) { depth--; continue; }
+                pos[depth - 1] = p + 2;
+                if (a[p] != null) { next = a[p + 1]; return; }
+                arrays[depth] = ((Node) a[p + 1]).array;
+                pos[depth++] = 0;
+            }
+        }
+        @Override public boolean hasNext() { return next != null; }
+        @SuppressWarnings("unchecked")
+        @Override public V next() {
+            if (next == null) throw new NoSuchElementException();
+            Object v = next;
+            advance();
+            return (V) v;
+        }
+    }
+}
+
+
+/* Fixed-size pages in one file behind a buffer pool with CLOCK eviction. Frames hold pages
+   decoded as BTree nodes; a node is only encoded again when it is flushed. Dirty pages stay in
+   the pool until flush() (no-steal), which writes them all to <file>.dwb first and then in place,
+   so after a crash the file is always one whole flushed state; the manager's journal replays
+   everything after it. Every flush, including one forced between operations by a full pool,
+   first runs the owner's write-ahead hook, which forces the journal through the last entry
+   applied, so no page reaches the disk ahead of the journal entries that produced it. Page 0
+   is the header: page count, free list, and a root and entry count for each of SLOTS trees.
+   All access is under lock. */
+class PageFile implements Closeable {
+    static final int PAGE = 8192, SLOTS = 16;
+    private static final int MAGIC = 0x504D5350; // "PMSP"
+    private static final int VERSION = 1;
+    private static final byte LEAF = 1, INNER = 2;
+
+    private static final class Frame { int page = -1; BTree.Node node; boolean dirty, ref; }
+
+    final ReentrantLock lock = new ReentrantLock();
+    private final File file, dwb;
+    private final FileChannel ch;
+    private final Frame[] frames;
+    private final Map<Integer, Frame> resident = new HashMap<>();
+    private final ByteBuffer io = ByteBuffer.allocate(PAGE);
+    private int hand, dirty;
+    private int pageCount = 1, freeHead = -1, flags;
+    private final int[] roots = new int[SLOTS];
+    private final long[] counts = new long[SLOTS];
+    private boolean headerDirty;
+    private PlacementCodec.IOTask writeAhead = () -> {};
+
+    PageFile(File file, int poolPages) throws IOException {
+        this.file = file;
+        dwb = new File(file.getPath() + ".dwb");
+        frames = new Frame[Math.max(64, poolPages)];
+        for (int i = 0; i < frames.length; i++) frames[i] = new Frame();
+        ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+        if (ch.size() == 0) {
+            Arrays.fill(roots, -1);
+            headerDirty = true;
+            flush();
+        } else {
+            readPage(0);
+            if (io.getInt() != MAGIC) throw new IOException(file + ": not a placement page file");
+            if (io.getInt() > VERSION) throw new IOException(file + ": unsupported version");
+            pageCount = io.getInt();
+            freeHead = io.getInt();
+            flags = io.getInt();
+            for (int i = 0; i < SLOTS; i++) { roots[i] = io.getInt(); counts[i] = io.getLong(); }
+        }
+    }
+
+    // pool size from -Dpms.storage.poolMb
+    static int poolPages(int defaultMb) { return (int) (Long.getLong("pms.storage.poolMb", defaultMb) * 1024 * 1024 / PAGE); }
+
+    // set by the owner once the initial contents are complete, so an interrupted import is redone
+    boolean isInitialized() { lock.lock(); try { return flags != 0; } finally { lock.unlock(); } }
+    void markInitialized() throws IOException {
+        lock.lock();
+        try { flags = 1; headerDirty = true; flush(); }
+        finally { lock.unlock(); }
+    }
+
+    void setWriteAhead(PlacementCodec.IOTask hook) { writeAhead = hook; }
+
+    int root(int slot) { return roots[slot]; }
+    void setRoot(int slot, int page) { roots[slot] = page; headerDirty = true; }
+    long count(int slot) { return counts[slot]; }
+    void addCount(int slot, long delta) { counts[slot] += delta; headerDirty = true; }
+    int getPageCount() { lock.lock(); try { return pageCount; } finally { lock.unlock(); } }
+
+    BTree.Node read(int page) {
+        Frame f = resident.get(page);
+        if (f == null) {
+            f = frameFor(page);
+            try { readPage(page); }
+            catch (IOException e) { resident.remove(page); f.page = -1; throw new UncheckedIOException(e); }
+            f.node = decode(io);
+        }
+        f.ref = true;
+        return f.node;
+    }
+
+    // the node (possibly a new object for the page) must be written at the next flush
+    void dirty(int page, BTree.Node node) {
+        Frame f = resident.get(page);
+        if (f == null) f = frameFor(page);
+        f.node = node;
+        f.ref = true;
+        if (!f.dirty) { f.dirty = true; dirty++; }
+    }
+
+    int allocate(BTree.Node node) {
+        int page;
+        if (freeHead >= 0) { page = freeHead; freeHead = read(page).next; }
+        else page = pageCount++;
+        headerDirty = true;
+        dirty(page, node);
+        return page;
+    }
+
+    void free(int page) {
+        BTree.Node n = new BTree.Node(true);
+        n.next = freeHead;
+        freeHead = page;
+        headerDirty = true;
+        dirty(page, n);
+    }
+
+    /* Called before an operation that dirties up to n pages: flushing here, between operations,
+       keeps every flushed state a whole one */
+    void reserve(int n) {
+        lock.lock();
+        try {
+            if (dirty + n > frames.length) flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally { lock.unlock(); }
+    }
+
+    private Frame frameFor(int page) {
+        for (int scanned = 0; ; scanned++) {
+            if (scanned == 2 * frames.length) {
+                // every frame dirty: reserve() was too small, flush mid-operation rather than fail
+                try { flush(); } catch (IOException e) { throw new UncheckedIOException(e); }
+                scanned = 0;
+            }
+            Frame f = frames[hand];
+            hand = hand + 1 == frames.length ? 0 : hand + 1;
+            if (f.dirty) continue;
+            if (f.ref) { f.ref = false; continue; }
+            if (f.page >= 0) resident.remove(f.page);
+            f.page = page;
+            f.node = null;
+            resident.put(page, f);
+            return f;
+        }
+    }
+
+    void flush() throws IOException {
+        lock.lock();
+        try {
+            if (dirty == 0 && !headerDirty) return;
+            writeAhead.run();
+            List<Frame> list = new ArrayList<>();
+            for (Frame f : frames) if (f.dirty) list.add(f);
+            list.sort(Comparator.comparingInt(f -> f.page));
+            CRC32 crc = new CRC32();
+            ByteBuffer id = ByteBuffer.allocate(4);
+            try (FileChannel d = FileChannel.open(dwb.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int i = -1; i < list.size(); i++) {
+                    int page = i < 0 ? 0 : list.get(i).page;
+                    encodePage(i < 0 ? null : list.get(i).node);
+                    id.clear(); id.putInt(page).flip();
+                    crc.update(id.array(), 0, 4);
+                    crc.update(io.array(), 0, PAGE);
+                    writeFully(d, id, -1);
+                    writeFully(d, io, -1);
+                }
+                id.clear(); id.putInt((int) crc.getValue()).flip();
+                writeFully(d, id, -1);
+                d.force(true);
+            }
+            for (int i = -1; i < list.size(); i++) {
+                int page = i < 0 ? 0 : list.get(i).page;
+                encodePage(i < 0 ? null : list.get(i).node);
+                writeFully(ch, io, (long) page * PAGE);
+            }
+            ch.force(true);
+            Files.delete(dwb.toPath());
+            for (Frame f : list) f.dirty = false;
+            dirty = 0;
+            headerDirty = false;
+            Metrics.BYTES_FLUSHED.add((long) (list.size() + 1) * PAGE);
+        } finally { lock.unlock(); }
+    }
+
+    // a complete doublewrite file is replayed in place; a torn one means nothing was overwritten yet
+    private void recover() throws IOException {
+        if (!dwb.exists()) return;
+        byte[] all = Files.readAllBytes(dwb.toPath());
+        int entries = (all.length - 4) / (4 + PAGE);
+        if (all.length == entries * (4 + PAGE) + 4 && entries > 0) {
+            CRC32 crc = new CRC32();
+            crc.update(all, 0, all.length - 4);
+            if (ByteBuffer.wrap(all, all.length - 4, 4).getInt() == (int) crc.getValue()) {
+                for (int i = 0; i < entries; i++) {
+                    int off = i * (4 + PAGE);
+                    int page = ByteBuffer.wrap(all, off, 4).getInt();
+                    writeFully(ch, ByteBuffer.wrap(all, off + 4, PAGE), (long) page * PAGE);
+                }
+                ch.force(true);
+            }
+        }
+        Files.delete(dwb.toPath());
+    }
+
+    private void readPage(int page) throws IOException {
+        io.clear();
+        while (io.hasRemaining()) if (ch.read(io, (long) page * PAGE + io.position()) < 0) throw new EOFException(file + ": page " + page);
+        io.flip();
+    }
+    private static void writeFully(FileChannel c, ByteBuffer b, long pos) throws IOException {
+        while (b.hasRemaining()) {
+            if (pos < 0) c.write(b);
+            else pos += c.write(b, pos);
+        }
+    }
+
+    // header when node is null
+    private void encodePage(BTree.Node n) {
+        io.clear();
+        if (n == null) {
+            io.putInt(MAGIC).putInt(VERSION).putInt(pageCount).putInt(freeHead).putInt(flags);
+            for (int i = 0; i < SLOTS; i++) io.putInt(roots[i]).putLong(counts[i]);
+        } else {
+            io.put(n.leaf ? LEAF : INNER).putInt(n.leaf ? n.next : n.children.get(0)).putShort((short) n.keys.size());
+            for (int i = 0; i < n.keys.size(); i++) {
+                byte[] k = n.keys.get(i);
+                io.putShort((short) k.length).put(k);
+                if (n.leaf) { byte[] v = n.values.get(i); io.putShort((short) v.length).put(v); }
+                else io.putInt(n.children.get(i + 1));
+            }
+        }
+        while (io.hasRemaining()) io.put((byte) 0);
+        io.flip();
+    }
+
+    private static BTree.Node decode(ByteBuffer b) {
+        boolean leaf = b.get() != INNER;
+        BTree.Node n = new BTree.Node(leaf);
+        int first = b.getInt();
+        if (leaf) n.next = first; else n.children.add(first);
+        for (int i = 0, count = b.getShort() & 0xFFFF; i < count; i++) {
+            byte[] k = new byte[b.getShort() & 0xFFFF];
+            b.get(k);
+            n.keys.add(k);
+            if (leaf) { byte[] v = new byte[b.getShort() & 0xFFFF]; b.get(v); n.values.add(v); }
+            else n.children.add(b.getInt());
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try { flush(); ch.close(); }
+        finally { lock.unlock(); }
+    }
+}
+
+/* B+tree over one PageFile slot: byte[] keys in unsigned order, byte[] values in the leaves,
+   leaves chained for range scans. Nodes split by bytes when they outgrow a page; deletes just
+   remove from the leaf (no merging), which keeps every separator valid. */
+class BTree {
+    static final int MAX_KEY = 512, MAX_VALUE = 2048;
+    private static final Comparator<byte[]> ORDER = Arrays::compareUnsigned;
+
+    static final class Node {
+        final boolean leaf;
+        int next = -1; // right sibling of a leaf; next free page of a free one
+        final List<byte[]> keys = new ArrayList<>();
+        final List<byte[]> values = new ArrayList<>();    // leaf only
+        final List<Integer> children = new ArrayList<>(); // inner only: keys.size() + 1, child i+1 holds keys >= keys[i]
+        Node(boolean leaf) { this.leaf = leaf; }
+        int entryBytes(int i) { return 2 + keys.get(i).length + (leaf ? 2 + values.get(i).length : 4); }
+        int bytes() { int n = 7; for (int i = 0; i < keys.size(); i++) n += entryBytes(i); return n; }
+    }
+    private static final class Split {
+        final byte[] key; final int page;
+        Split(byte[] key, int page) { this.key = key; this.page = page; }
+    }
+
+    private final PageFile f;
+    private final int slot;
+
+    BTree(PageFile f, int slot) { this.f = f; this.slot = slot; }
+
+    long size() { f.lock.lock(); try { return f.count(slot); } finally { f.lock.unlock(); } }
+
+    byte[] get(byte[] key) {
+        f.lock.lock();
+        try {
+            if (f.root(slot) < 0) return null;
+            Node n = f.read(f.root(slot));
+            while (!n.leaf) n = f.read(n.children.get(childIndex(n, key)));
+            int i = Collections.binarySearch(n.keys, key, ORDER);
+            return i >= 0 ? n.values.get(i) : null;
+        } finally { f.lock.unlock(); }
+    }
+
+    // returns the value replaced, or null
+    byte[] put(byte[] key, byte[] value) {
+        if (key.length > MAX_KEY || value.length > MAX_VALUE) throw new IllegalArgumentException("Entry too large for a page: " + key.length + "+" + value.length + " bytes");
+        f.lock.lock();
+        try {
+            int root = f.root(slot);
+            if (root < 0) { root = f.allocate(new Node(true)); f.setRoot(slot, root); }
+            byte[][] prev = new byte[1][];
+            Split s = insert(root, key, value, prev);
+            if (s != null) {
+                Node r = new Node(false);
+                r.children.add(root);
+                r.keys.add(s.key);
+                r.children.add(s.page);
+                f.setRoot(slot, f.allocate(r));
+            }
+            if (prev[0] == null) f.addCount(slot, 1);
+            return prev[0];
+        } finally { f.lock.unlock(); }
+    }
+
+    private Split insert(int page, byte[] key, byte[] value, byte[][] prev) {
+        Node n = f.read(page);
+        boolean atEnd;
+        if (n.leaf) {
+            int i = Collections.binarySearch(n.keys, key, ORDER);
+            if (i >= 0) prev[0] = n.values.set(i, value);
+            else { n.keys.add(-i - 1, key); n.values.add(-i - 1, value); }
+            atEnd = -i - 1 == n.keys.size() - 1;
+        } else {
+            int ci = childIndex(n, key);
+            Split s = insert(n.children.get(ci), key, value, prev);
+            if (s == null) return null;
+            n.keys.add(ci, s.key);
+            n.children.add(ci + 1, s.page);
+            atEnd = ci == n.keys.size() - 1;
+        }
+        f.dirty(page, n);
+        return n.bytes() > PageFile.PAGE ? split(page, n, atEnd) : null;
+    }
+
+    /* Moves the upper half (by bytes) into a new right sibling; when the insert landed at the end,
+       as in an ascending bulk load, only the last entry moves so the left page stays full */
+    private Split split(int page, Node n, boolean atEnd) {
+        int total = n.bytes(), acc = 7, mid = 0, last = n.leaf ? n.keys.size() - 1 : n.keys.size() - 2;
+        if (atEnd) mid = last;
+        else while (mid < last && acc < total / 2) acc += n.entryBytes(mid++);
+        mid = Math.max(1, mid);
+        Node r = new Node(n.leaf);
+        byte[] sep;
+        if (n.leaf) {
+            r.keys.addAll(n.keys.subList(mid, n.keys.size()));
+            r.values.addAll(n.values.subList(mid, n.values.size()));
+            n.keys.subList(mid, n.keys.size()).clear();
+            n.values.subList(mid, n.values.size()).clear();
+            sep = r.keys.get(0);
+            r.next = n.next;
+        } else {
+            sep = n.keys.get(mid);
+            r.keys.addAll(n.keys.subList(mid + 1, n.keys.size()));
+            r.children.addAll(n.children.subList(mid + 1, n.children.size()));
+            n.keys.subList(mid, n.keys.size()).clear();
+            n.children.subList(mid + 1, n.children.size()).clear();
+        }
+        int rp = f.allocate(r);
+        if (n.leaf) n.next = rp;
+        f.dirty(page, n);
+        return new Split(sep, rp);
+    }
+
+    // first child that can hold key: the number of separators <= key
+    private static int childIndex(Node n, byte[] key) {
+        int lo = 0, hi = n.keys.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ORDER.compare(n.keys.get(mid), key) <= 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    byte[] remove(byte[] key) {
+        f.lock.lock();
+        try {
+            int page = f.root(slot);
+            if (page < 0) return null;
+            Node n = f.read(page);
+            while (!n.leaf) { page = n.children.get(childIndex(n, key)); n = f.read(page); }
+            int i = Collections.binarySearch(n.keys, key, ORDER);
+            if (i < 0) return null;
+            n.keys.remove(i);
+            byte[] prev = n.values.remove(i);
+            f.dirty(page, n);
+            f.addCount(slot, -1);
+            return prev;
+        } finally { f.lock.unlock(); }
+    }
+
+    interface Visitor { boolean visit(byte[] key, byte[] value); } // false stops the scan
+
+    /* Entries with from <= key < to in key order (null bounds are open); after: skip from itself */
+    void scan(byte[] from, boolean after, byte[] to, Visitor v) {
+        f.lock.lock();
+        try {
+            if (f.root(slot) < 0) return;
+            Node n = f.read(f.root(slot));
+            while (!n.leaf) n = f.read(n.children.get(from == null ? 0 : childIndex(n, from)));
+            int i = 0;
+            if (from != null) {
+                i = Collections.binarySearch(n.keys, from, ORDER);
+                i = i >= 0 ? (after ? i + 1 : i) : -i - 1;
+            }
+            while (true) {
+                if (i >= n.keys.size()) {
+                    if (n.next < 0) return;
+                    n = f.read(n.next);
+                    i = 0;
+                    continue;
+                }
+                byte[] k = n.keys.get(i);
+                if (to != null && ORDER.compare(k, to) >= 0) return;
+                if (!v.visit(k, n.values.get(i++))) return;
+            }
+        } finally { f.lock.unlock(); }
+    }
+
+    long count(byte[] from, byte[] to) {
+        long[] n = new long[1];
+        scan(from, false, to, (k, v) -> { n[0]++; return true; });
+        return n[0];
+    }
+
+    void clear() {
+        f.lock.lock();
+        try {
+            if (f.root(slot) >= 0) free(f.root(slot));
+            f.setRoot(slot, -1);
+            f.addCount(slot, -f.count(slot));
+        } finally { f.lock.unlock(); }
+    }
+    private void free(int page) {
+        Node n = f.read(page);
+        if (!n.leaf) for (int c : n.children) free(c);
+        f.free(page);
+    }
+
+    static byte[] concat(byte[]... parts) {
+        int n = 0;
+        for (byte[] p : parts) n += p.length;
+        byte[] out = new byte[n];
+        n = 0;
+        for (byte[] p : parts) { System.arraycopy(p, 0, out, n, p.length); n += p.length; }
+        return out;
+    }
+    static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+    static byte[] int32(int v) { return new byte[] { (byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v }; }
+    // the smallest key greater than every key starting with prefix
+    static byte[] after(byte[] prefix) {
+        byte[] out = Arrays.copyOf(prefix, prefix.length);
+        for (int i = out.length - 1; i >= 0; i--) if (++out[i] != 0) return Arrays.copyOf(out, i + 1);
+        return null;
+    }
+}
+
+/* EntityStore in a PageFile: a primary BTree from id to the encoded value, and secondary BTrees
+   whose keys are prefix(value) + id and whose values are the id */
+class PagedStore<T> implements EntityStore<T> {
+    interface Decoder<T> { T decode(byte[] b) throws IOException; }
+    static final class Index<T> {
+        final int slot;
+        final Function<T, byte[]> prefix;
+        Index(int slot, Function<T, byte[]> prefix) { this.slot = slot; this.prefix = prefix; }
+    }
+
+    // pages one put or remove may dirty: the primary path plus each index path, with splits
+    private static final int RESERVE = 64;
+    private static final int BATCH = 256;
+    private final PageFile f;
+    private final BTree primary;
+    private final Function<T, byte[]> encoder;
+    private final Decoder<T> decoder;
+    private final List<Index<T>> indexes;
+    private final List<BTree> trees = new ArrayList<>();
+
+    PagedStore(PageFile f, int slot, Function<T, byte[]> encoder, Decoder<T> decoder, List<Index<T>> indexes) {
+        this.f = f;
+        this.primary = new BTree(f, slot);
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.indexes = indexes;
+        for (Index<T> ix : indexes) trees.add(new BTree(f, ix.slot));
+    }
+
+    private T decode(byte[] b) {
+        try { return b == null ? null : decoder.decode(b); }
+        catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    @Override public T get(String id) { return decode(primary.get(BTree.utf8(id))); }
+    @Override public boolean containsKey(String id) { return primary.get(BTree.utf8(id)) != null; }
+    @Override public int size() { return (int) primary.size(); }
+
+    @Override
+    public T put(String id, T value) {
+        byte[] key = BTree.utf8(id);
+        f.lock.lock();
+        try {
+            f.reserve(RESERVE);
+            T old = decode(primary.put(key, encoder.apply(value)));
+            for (int i = 0; i < indexes.size(); i++) {
+                Function<T, byte[]> p = indexes.get(i).prefix;
+                if (old != null) trees.get(i).remove(BTree.concat(p.apply(old), key));
+                trees.get(i).put(BTree.concat(p.apply(value), key), key);
+            }
+            return old;
+        } finally { f.lock.unlock(); }
+    }
+
+    @Override
+    public T remove(String id) {
+        byte[] key = BTree.utf8(id);
+        f.lock.lock();
+        try {
+            f.reserve(RESERVE);
+            T old = decode(primary.remove(key));
+            if (old != null) for (int i = 0; i < indexes.size(); i++) trees.get(i).remove(BTree.concat(indexes.get(i).prefix.apply(old), key));
+            return old;
+        } finally { f.lock.unlock(); }
+    }
+
+    @Override
+    public void clear() {
+        f.lock.lock();
+        try {
+            primary.clear();
+            for (BTree t : trees) t.clear();
+        } finally { f.lock.unlock(); }
+    }
+
+    // values in id order, read BATCH at a time so writers are never held up for a full pass
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<T>() {
+            @Override public int size() { return PagedStore.this.size(); }
+            @Override public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    private final List<T> batch = new ArrayList<>();
+                    private byte[] last;
+                    private int i;
+                    private boolean done;
+                    @Override public boolean hasNext() {
+                        if (i < batch.size()) return true;
+                        if (done) return false;
+                        batch.clear();
+                        i = 0;
+                        primary.scan(last, last != null, null, (k, v) -> { batch.add(decode(v)); last = k; return batch.size() < BATCH; });
+                        done = batch.size() < BATCH;
+                        return !batch.isEmpty();
+                    }
+                    @Override public T next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return batch.get(i++);
+                    }
+                };
+            }
+        };
+    }
+
+    // values whose key in secondary index ix lies in [from, to), in index order; filter may be null
+    List<T> scan(int ix, byte[] from, byte[] to, Predicate<T> filter, int limit) {
+        List<T> out = new ArrayList<>();
+        f.lock.lock();
+        try {
+            trees.get(ix).scan(from, false, to, (k, id) -> {
+                T t = decode(primary.get(id));
+                if (t != null && (filter == null || filter.test(t))) out.add(t);
+                return out.size() < limit;
+            });
+        } finally { f.lock.unlock(); }
+        return out;
+    }
+    long count(int ix, byte[] from, byte[] to) { return trees.get(ix).count(from, to); }
+
+    /* Lazy, read-only list of the values in [from, to) of secondary index ix (-1: the primary tree,
+       in id order), at most limit, sized at the call. Rows are read BATCH at a time and the key
+       before every BATCH-th row is kept, so paging back never rescans from the start. Rows removed
+       after the call move later ones up; positions past the new end read as null. */
+    List<T> view(int ix, byte[] from, byte[] to, int limit) {
+        BTree tree = ix < 0 ? primary : trees.get(ix);
+        int n = (int) Math.min(limit, tree.count(from, to));
+        return new AbstractList<T>() {
+            private final List<byte[]> marks = new ArrayList<>(Collections.singletonList(null));
+            private final List<T> batch = new ArrayList<>();
+            private int loaded = -1;
+
+            @Override public int size() { return n; }
+            @Override public synchronized T get(int i) {
+                if (i < 0 || i >= n) throw new IndexOutOfBoundsException("Row " + i + " of " + n);
+                int b = i / BATCH;
+                if (b != loaded) load(b);
+                return i % BATCH < batch.size() ? batch.get(i % BATCH) : null;
+            }
+            private void load(int b) {
+                batch.clear();
+                loaded = b;
+                byte[][] last = new byte[1][];
+                f.lock.lock();
+                try {
+                    // keys only up to the batch; nothing is decoded on the way
+                    while (marks.size() <= b) {
+                        int[] k = { 0 };
+                        byte[] at = marks.get(marks.size() - 1);
+                        tree.scan(at == null ? from : at, at != null, to, (key, v) -> { last[0] = key; return ++k[0] < BATCH; });
+                        if (k[0] < BATCH) return;
+                        marks.add(last[0]);
+                    }
+                    byte[] at = marks.get(b);
+                    tree.scan(at == null ? from : at, at != null, to, (key, v) -> {
+                        batch.add(decode(ix < 0 ? v : primary.get(v)));
+                        last[0] = key;
+                        return batch.size() < BATCH;
+                    });
+                } finally { f.lock.unlock(); }
+                if (batch.size() == BATCH && marks.size() == b + 1) marks.add(last[0]);
+            }
+        };
+    }
+
+    @Override public void flush() throws IOException { f.flush(); }
+}
+
+/* One committed change, in manager order. data is the new state (Student, Company or
+   PlacementRecord), before the replaced or removed state, skill the skill an *_SKILL_ADDED added. */
+class ChangeEvent {
+    enum Type {
+        STUDENT_ADDED, STUDENT_UPDATED, STUDENT_REMOVED, SKILL_ADDED,
+        COMPANY_ADDED, COMPANY_UPDATED, COMPANY_REMOVED, REQUIRED_SKILL_ADDED,
+        RECORD_ADDED
+    }
+    final long seq;
+    final Type type;
+    final String id;
+    final Object data, before;
+    final Skill skill;
+    final long time;
+    final long lsn;
+
+    ChangeEvent(long seq, Type type, String id, Object data, Object before, Skill skill, long lsn) {
+        this.seq = seq; this.type = type; this.id = id; this.data = data; this.before = before; this.skill = skill;
+        this.lsn = lsn; this.time = System.currentTimeMillis();
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder("{\"seq\":").append(seq).append(",\"type\":\"").append(type).append("\",\"id\":")
+                .append(BulkIO.json(id)).append(",\"time\":").append(time);
+        if (skill != null) sb.append(",\"skill\":{\"name\":").append(BulkIO.json(skill.getName())).append(",\"level\":").append(BulkIO.json(skill.getLevel())).append('}');
+        if (data != null) sb.append(",\"data\":").append(json(data));
+        return sb.append('}').toString();
+    }
+    private static String json(Object o) {
+        if (o instanceof Student) return PlacementServer.student((Student) o);
+        if (o instanceof Company) return PlacementServer.company((Company) o);
+        return PlacementServer.record((PlacementRecord) o);
+    }
+    @Override public String toString() { return seq + " " + type + " " + id; }
+}
+
+/* Bounded ring of ChangeEvents with one cursor per subscriber. Sequence numbers are reserved under
+   the manager lock, so seq order is the journal order; the events themselves are published in that
+   order after the lock is released, and a subscriber only sees an event once its journal entry is
+   durable. Each subscriber has its own thread and receives batches. When the slowest subscriber is
+   a full ring behind, publishing blocks: the backpressure reaches the one thread publishing, never
+   the manager lock, instead of dropping events. */
+class ChangeStream {
+    interface Listener {
+        void onEvents(List<ChangeEvent> batch) throws Exception;
+        // runs under the manager lock before the first event; read initial state here
+        default void onSubscribe(PlacementManager m) {}
+    }
+
+    private final ChangeEvent[] ring;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<Subscription> subs = new CopyOnWriteArrayList<>();
+    private final LongConsumer flusher; // makes everything up to an LSN durable, then calls durable()
+    private long next, visible, durableLsn;
+    private final AtomicLong reserved = new AtomicLong();
+
+    ChangeStream(int capacity, LongConsumer flusher) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new ChangeEvent[size];
+        mask = size - 1;
+        this.flusher = flusher;
+    }
+
+    // the next event's seq; called under the manager lock, so seqs follow the journal
+    long reserve() { return reserved.getAndIncrement(); }
+
+    // events must arrive in seq order, from one thread at a time
+    void publish(ChangeEvent e) {
+        lock.lock();
+        try {
+            if (e.seq != next) throw new IllegalStateException("Change " + e.seq + " published out of order, expected " + next);
+            while (!subs.isEmpty() && next - minCursor() >= ring.length) {
+                if (visible < next) {
+                    // the ring is full of events nobody may see yet: flush them rather than wait forever
+                    long upTo = ring[(int) ((next - 1) & mask)].lsn;
+                    lock.unlock();
+                    try { flusher.accept(upTo); } finally { lock.lock(); }
+                } else {
+                    changed.awaitUninterruptibly();
+                }
+            }
+            ring[(int) (next & mask)] = e;
+            next++;
+            if (e.lsn <= durableLsn) advance();
+        } finally { lock.unlock(); }
+    }
+
+    // everything with lsn <= the given one is now durable
+    void durable(long lsn) {
+        lock.lock();
+        try {
+            if (lsn > durableLsn) durableLsn = lsn;
+            advance();
+        } finally { lock.unlock(); }
+    }
+    private void advance() {
+        long v = visible;
+        while (v < next && ring[(int) (v & mask)].lsn <= durableLsn) v++;
+        if (v != visible) { visible = v; changed.signalAll(); }
+    }
+    private long minCursor() {
+        long min = next;
+        for (Subscription s : subs) min = Math.min(min, s.cursor);
+        return min;
+    }
+
+    // seqs handed out so far, published or not yet; the manager's state reflects exactly these
+    long getPublished() { return reserved.get(); }
+
+    // the subscriber starts at the next seq reserved
+    Subscription subscribe(String name, int maxBatch, Listener listener) {
+        lock.lock();
+        try {
+            Subscription s = new Subscription(name, maxBatch, listener, reserved.get());
+            subs.add(s);
+            s.thread.start();
+            return s;
+        } finally { lock.unlock(); }
+    }
+
+    class Subscription {
+        private final Listener listener;
+        private final int maxBatch;
+        private final Thread thread;
+        private volatile long cursor;
+        private volatile boolean closed;
+        private final LongAdder failures = new LongAdder();
+
+        Subscription(String name, int maxBatch, Listener listener, long from) {
+            this.listener = listener;
+            this.maxBatch = Math.max(1, maxBatch);
+            this.cursor = from;
+            thread = new Thread(this::run, "changes-" + name);
+            thread.setDaemon(true);
+        }
+
+        long getLag() { lock.lock(); try { return Math.max(0, visible - cursor); } finally { lock.unlock(); } }
+        long getFailures() { return failures.sum(); }
+
+        // blocks until everything visible when called has been delivered (or the timeout passes)
+        boolean awaitDelivered(long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+            lock.lock();
+            try {
+                long target = visible;
+                while (cursor < target && !closed) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) return false;
+                    changed.awaitNanos(left);
+                }
+                return true;
+            } finally { lock.unlock(); }
+        }
+
+        void close() {
+            lock.lock();
+            try { closed = true; subs.remove(this); changed.signalAll(); }
+            finally { lock.unlock(); }
+        }
+
+        private void run() {
+            List<ChangeEvent> batch = new ArrayList<>(maxBatch);
+            while (true) {
+                lock.lock();
+                try {
+                    while (cursor >= visible && !closed) changed.awaitUninterruptibly();
+                    if (closed) return;
+                    for (long s = cursor, end = Math.min(visible, cursor + maxBatch); s < end; s++) batch.add(ring[(int) (s & mask)]);
+                } finally { lock.unlock(); }
+                try { listener.onEvents(batch); }
+                catch (Exception e) {
+                    failures.increment();
+                    System.err.println("Change listener " + thread.getName() + " failed: " + e);
+                }
+                lock.lock();
+                try { cursor += batch.size(); changed.signalAll(); }
+                finally { lock.unlock(); }
+                batch.clear();
+            }
+        }
+    }
+}
+
+/* File tail subscriber: appends every event as a JSON line, flushed per batch, so other tools
+   can follow the file (tail -f) instead of reloading snapshots */
+class ChangeLogWriter implements ChangeStream.Listener, Closeable {
+    private final BufferedWriter out;
+
+    ChangeLogWriter(File f) throws IOException {
+        out = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    @Override public void onEvents(List<ChangeEvent> batch) throws IOException {
+        for (ChangeEvent e : batch) { out.write(e.toJson()); out.newLine(); }
+        out.flush();
+    }
+    @Override public void close() throws IOException { out.close(); }
+}
+
+/* Live placement aggregates fed by the change stream. Every counter is a LongAdder, so readers
+   never lock and never scan the history; writes come from the single stream subscriber thread
+   (and rebuild() at load), which are serialized on this object. A student is placed once any
+   Selected record names them; branch counts and the average CGPA cover the placed students still
+   on file, with their current branch and CGPA, so a rebuild always matches the live figures. */
+class PlacementStats implements ChangeStream.Listener {
+    static final String SELECTED = "Selected";
+
+    static class CompanyStats {
+        final LongAdder records = new LongAdder(), selected = new LongAdder();
+        long getRecords() { return records.sum(); }
+        long getSelected() { return selected.sum(); }
+        double getSelectionRate() { long n = records.sum(); return n == 0 ? 0 : (double) selected.sum() / n; }
+    }
+
+    // per-student state; PlacementManager moves these into a page file for paged storage
+    private EntityStore<Student> students = new MemoryStore<>();
+    private EntityStore<String> placed = new MemoryStore<>();
+    private final Map<String, CompanyStats> companies = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> days = new ConcurrentHashMap<>();
+    // last slot counts branches outside PlacementManager.BRANCHES
+    private final LongAdder[] placedByBranch = adders(PlacementManager.BRANCHES.length + 1);
+    private final LongAdder records = new LongAdder(), selected = new LongAdder();
+    private final LongAdder present = new LongAdder(), placedPresent = new LongAdder();
+    private final LongAdder cgpaHundredths = new LongAdder(), cgpaCount = new LongAdder();
+    private final ZoneId zone = ZoneId.systemDefault();
+    private long from; // stream events before this sequence are already in the rebuilt state
+    private volatile boolean ready = true;
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] a = new LongAdder[n];
+        for (int i = 0; i < n; i++) a[i] = new LongAdder();
+        return a;
+    }
+
+    synchronized void storeIn(EntityStore<Student> students, EntityStore<String> placed) {
+        this.students = students;
+        this.placed = placed;
+    }
+
+    /* Rebuild from scratch in two halves. reset() runs under the manager lock with the current
+       students; stream events below fromSeq are then ignored and later ones apply on top. The
+       history scan, addHistory(), may then run on another thread, since every aggregate is
+       order-independent; it works in chunks so the stream subscriber is never held up for long. */
+    synchronized void reset(Collection<Student> all, long fromSeq) {
+        ready = false;
+        students.clear(); placed.clear(); companies.clear(); days.clear();
+        for (LongAdder a : placedByBranch) a.reset();
+        for (LongAdder a : new LongAdder[] { records, selected, present, placedPresent, cgpaHundredths, cgpaCount }) a.reset();
+        for (Student s : all) studentAdded(s);
+        from = fromSeq;
+    }
+    void addHistory(List<PlacementRecord> history) {
+        for (int i = 0, n = history.size(); i < n; i += 4096)
+            synchronized (this) { for (PlacementRecord r : history.subList(i, Math.min(n, i + 4096))) recordAdded(r); }
+        ready = true;
+    }
+
+    boolean isReady() { return ready; }
+
+    @Override
+    public synchronized void onEvents(List<ChangeEvent> batch) {
+        for (ChangeEvent e : batch) {
+            if (e.seq < from) continue;
+            switch (e.type) {
+                case STUDENT_ADDED: studentAdded((Student) e.data); break;
+                case STUDENT_UPDATED: case SKILL_ADDED:
+                    Student old = students.put(e.id, (Student) e.data);
+                    if (old != null && placed.containsKey(e.id)) { placed(old, -1); placed((Student) e.data, 1); }
+                    break;
+                case STUDENT_REMOVED:
+                    Student gone = students.remove(e.id);
+                    if (gone == null) break;
+                    present.decrement();
+                    if (placed.containsKey(e.id)) placed(gone, -1);
+                    break;
+                case RECORD_ADDED: recordAdded((PlacementRecord) e.data); break;
+                default: break;
+            }
+        }
+    }
+
+    private void studentAdded(Student s) {
+        if (students.put(s.getId(), s) != null) return;
+        present.increment();
+        if (placed.containsKey(s.getId())) placed(s, 1);
+    }
+
+    private void placed(Student s, int sign) {
+        placedPresent.add(sign);
+        placedByBranch[branchIndex(s.getBranch())].add(sign);
+        cgpaHundredths.add(sign * Math.round(s.getCgpa() * 100));
+        cgpaCount.add(sign);
+    }
+
+    private void recordAdded(PlacementRecord r) {
+        CompanyStats c = companies.computeIfAbsent(r.getCompanyId(), k -> new CompanyStats());
+        c.records.increment();
+        records.increment();
+        days.computeIfAbsent(r.getDate().toInstant().atZone(zone).toLocalDate(), k -> new LongAdder()).increment();
+        if (!SELECTED.equals(r.getStatus())) return;
+        c.selected.increment();
+        selected.increment();
+        if (placed.put(r.getStudentId(), r.getStudentId()) != null) return;
+        Student s = students.get(r.getStudentId());
+        if (s != null) placed(s, 1);
+    }
+
+    private static int branchIndex(String branch) {
+        String[] b = PlacementManager.BRANCHES;
+        for (int i = 0; i < b.length; i++) if (b[i].equals(branch)) return i;
+        return b.length;
+    }
+
+    long getRecordCount() { return records.sum(); }
+    long getSelectedCount() { return selected.sum(); }
+    long getStudentCount() { return present.sum(); }
+    long getUnplacedCount() { return present.sum() - placedPresent.sum(); }
+    long getPlacedCount(String branch) { return placedByBranch[branchIndex(branch)].sum(); }
+    long getRecordsOn(LocalDate day) { LongAdder a = days.get(day); return a == null ? 0 : a.sum(); }
+    // average current CGPA of the placed students on file
+    double getAverageSelectedCgpa() { long n = cgpaCount.sum(); return n == 0 ? 0 : cgpaHundredths.sum() / 100.0 / n; }
+    double getSelectionRate(String companyId) { CompanyStats c = companies.get(companyId); return c == null ? 0 : c.getSelectionRate(); }
+    CompanyStats getCompanyStats(String companyId) { return companies.get(companyId); }
+    Map<String, CompanyStats> getCompanyStats() { return new TreeMap<>(companies); }
+    SortedMap<LocalDate, Long> getDailyCounts() {
+        SortedMap<LocalDate, Long> m = new TreeMap<>();
+        days.forEach((d, a) -> m.put(d, a.sum()));
+        return m;
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder("{\"ready\":").append(ready).append(",\"records\":").append(getRecordCount()).append(",\"selected\":").append(getSelectedCount())
+                .append(",\"students\":").append(getStudentCount()).append(",\"unplaced\":").append(getUnplacedCount())
+                .append(",\"averageSelectedCgpa\":").append(String.format(Locale.ROOT, "%.2f", getAverageSelectedCgpa()))
+                .append(",\"placedByBranch\":{");
+        for (int i = 0; i < PlacementManager.BRANCHES.length; i++)
+            sb.append(i == 0 ? "" : ",").append(BulkIO.json(PlacementManager.BRANCHES[i])).append(':').append(placedByBranch[i].sum());
+        sb.append("},\"companies\":{");
+        String sep = "";
+        for (Map.Entry<String, CompanyStats> e : getCompanyStats().entrySet()) {
+            CompanyStats c = e.getValue();
+            sb.append(sep).append(BulkIO.json(e.getKey())).append(":{\"records\":").append(c.getRecords()).append(",\"selected\":")
+                    .append(c.getSelected()).append(",\"selectionRate\":").append(String.format(Locale.ROOT, "%.4f", c.getSelectionRate())).append('}');
+            sep = ",";
+        }
+        sb.append("},\"days\":{");
+        sep = "";
+        for (Map.Entry<LocalDate, Long> e : getDailyCounts().entrySet()) { sb.append(sep).append('"').append(e.getKey()).append("\":").append(e.getValue()); sep = ","; }
+        return sb.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(ready ? "" : String.format("(still reading the placement history; figures are partial)%n%n"));
+        sb.append(String.format("Records: %d   Selected: %d   Students: %d   Unplaced: %d%n", getRecordCount(), getSelectedCount(), getStudentCount(), getUnplacedCount()));
+        sb.append(String.format("Average CGPA of placed students: %.2f%n%nPlaced by branch:%n", getAverageSelectedCgpa()));
+        for (int i = 0; i < PlacementManager.BRANCHES.length; i++)
+            sb.append(String.format("  %-45s %6d%n", PlacementManager.BRANCHES[i], placedByBranch[i].sum()));
+        sb.append(String.format("%nCompanies:%n  %-12s %8s %8s %8s%n", "ID", "Records", "Selected", "Rate"));
+        getCompanyStats().forEach((id, c) -> sb.append(String.format("  %-12s %8d %8d %7.1f%%%n", id, c.getRecords(), c.getSelected(), c.getSelectionRate() * 100)));
+        sb.append(String.format("%nRecords per day:%n"));
+        getDailyCounts().forEach((d, n) -> sb.append(String.format("  %s %8d%n", d, n)));
+        return sb.toString();
+    }
+}
+
+/* Read-only state of a manager as of one point in its change stream (PlacementManager.snapshot()):
+   students, companies and history all reflect exactly the first getPublished() change events,
+   however many writes follow. Holding one costs nothing but the versions it keeps alive. */
+class PlacementSnapshot {
+    private final PersistentMap<Student> students;
+    private final PersistentMap<Company> companies;
+    private final RecordStore records;
+    private final int rows;
+    private final long published;
+
+    PlacementSnapshot(PersistentMap<Student> students, PersistentMap<Company> companies, RecordStore records, int rows, long published) {
+        this.students = students; this.companies = companies; this.records = records; this.rows = rows; this.published = published;
+    }
+
+    // null when absent
+    public Student getStudent(String id) { return students.get(id); }
+    public Company getCompany(String id) { return companies.get(id); }
+    // read-only views in no particular order
+    public Collection<Student> getStudents() { return students.values(); }
+    public Collection<Company> getCompanies() { return companies.values(); }
+    public List<PlacementRecord> getRecords() { return records.view(rows); }
+    public int getStudentCount() { return students.size(); }
+    public int getCompanyCount() { return companies.size(); }
+    public int getRecordCount() { return rows; }
+    // change events reflected; the first event after this state has seq == getPublished()
+    public long getPublished() { return published; }
+}
+
+/* Manager with persistence: binary snapshots plus a write-ahead journal of everything since.
+   With -Dpms.storage=paged, or in a directory that already has one, students, companies and a
+   record-by-company index live in placement.db instead, flushed at each checkpoint; only its
+   buffer pool is on the heap, and CGPA, branch and eligibility queries read its secondary
+   indexes instead of the in-memory EligibilityIndex and BranchRankings, which are then not
+   built. */
+class PlacementManager {
+    private static final long COMPACT_BYTES = 8L << 20;
+
+    // Branch options
+    static final String[] BRANCHES = { "Computer Science and Engineering", "Computer Science (AI&ML)",
+            "Information Technology", "Electronic Communication Engineering", "Mechanical Engineering",
+            "Civil Engineering" };
+
+    // concurrent collections: drive workers write records while the GUI reads
+    private EntityStore<Student> students = new VersionedStore<>();
+    private EntityStore<Company> companies = new VersionedStore<>();
+    private RecordStore records = RecordStore.inMemory();
+    private final EligibilityIndex index = new EligibilityIndex();
+    private final BranchRankings ranking = new BranchRankings();
+    private final SearchIndex studentSearch = new SearchIndex();
+    private final SearchIndex companySearch = new SearchIndex();
+    private final CandidateScorer scorer = new CandidateScorer();
+    private final OfferAllocator allocator = new OfferAllocator(scorer);
+    private final ChangeStream changes = new ChangeStream(4096, this::sync);
+    // events reserved under the lock and not yet handed to the stream, in seq order; guarded by this
+    private final ArrayDeque<ChangeEvent> unpublished = new ArrayDeque<>();
+    private final ReentrantLock publishing = new ReentrantLock();
+    private final PlacementStats stats = new PlacementStats();
+    private final ChangeStream.Subscription statsFeed = changes.subscribe("stats", 1024, stats);
+    private final File dir;
+    private final String STUD_FILE = "students.bin";
+    private final String COMP_FILE = "companies.bin";
+    // history lives in RecordStore; this snapshot format is only imported from
+    private final String REC_FILE = "records.bin";
+    // Java-serialized files from earlier versions, converted once by loadAll()
+    private final String LEGACY_STUD_FILE = "students.dat";
+    private final String LEGACY_COMP_FILE = "companies.dat";
+    private final String LEGACY_REC_FILE = "records.dat";
+    private final List<File> legacyLoaded = Collections.synchronizedList(new ArrayList<>());
+
+    private final boolean paged;
+    private static final String DB_FILE = "placement.db";
+    // derived, rebuilt at every load
+    private final String STATS_DB_FILE = "stats.db";
+    private static final int STUDENT_SLOT = 0, COMPANY_SLOT = 1, BRANCH_SLOT = 2, CGPA_SLOT = 3, RECORD_COMPANY_SLOT = 4;
+    private static final int BY_BRANCH = 0, BY_CGPA = 1; // secondary indexes of pagedStudents
+    private PageFile db, statsDb;
+    private PagedStore<Student> pagedStudents;
+    private BTree recordsByCompany;
+    // ids of students with a Selected record, for rules that test "placed"; built on first use
+    private volatile Set<String> placed;
+
+    // null until loadAll(): a manager that was never loaded is purely in-memory
+    private PlacementJournal journal;
+    // in-memory storage: the state after the latest change event, swapped under the lock by publish()
+    private volatile PlacementSnapshot version;
+    private final Object checkpointLock = new Object();
+    private final AtomicInteger checkpointRequests = new AtomicInteger();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public PlacementManager() { this(new File(".")); }
+    public PlacementManager(File dir) { this(dir, "paged".equals(System.getProperty("pms.storage")) || new File(dir, DB_FILE).exists()); }
+    public PlacementManager(File dir, boolean paged) { this.dir = dir; this.paged = paged; }
+
+    /* Startup progress: called from loader threads as each stage finishes */
+    public interface LoadProgress {
+        LoadProgress NONE = (stage, done, total) -> {};
+        void step(String stage, int done, int total);
+    }
+
+    public void loadAll() { loadAll(LoadProgress.NONE); }
+
+    /* The two snapshots are decoded in parallel while the history is opened (it is memory-mapped,
+       so nothing is read yet); the index and the ranking are then built in parallel. The statistics
+       scan the whole history, so they are rebuilt in the background and report isReady() when done. */
+    public synchronized void loadAll(LoadProgress progress) {
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        final int total = 6;
+        legacyLoaded.clear();
+        placed = null;
+        // the snapshot files stop where paged storage took over, loading them would go back in time
+        if (!paged && new File(dir, DB_FILE).exists())
+            throw new UncheckedIOException(new IOException(DB_FILE + " holds this directory's data: open it paged, or move it with --export/--import"));
+        boolean initialized;
+        try { initialized = paged && openPaged(); }
+        catch (IOException e) {
+            Metrics.loadFailed(DB_FILE, e);
+            throw new UncheckedIOException("Cannot open " + DB_FILE, e);
+        }
+        // a page file reads the snapshots only once, to import them when it is new
+        CompletableFuture<SnapshotSet> snap = CompletableFuture.supplyAsync(() -> {
+            SnapshotSet set = initialized ? null : loadSnapshots();
+            progress.step("students", done.incrementAndGet(), total);
+            progress.step("companies", done.incrementAndGet(), total);
+            return set;
+        });
+        try {
+            records = RecordStore.open(dir);
+            importRecords();
+            progress.step("history", done.incrementAndGet(), total);
+            SnapshotSet set = join(snap);
+            if (!paged) {
+                students = new VersionedStore<>(set.students);
+                companies = new VersionedStore<>(set.companies);
+            } else if (!initialized) {
+                for (Student x : set.students.values()) students.put(x.getId(), x);
+                for (Company x : set.companies.values()) companies.put(x.getId(), x);
+                db.markInitialized();
+            }
+            if (paged) indexRecords();
+            journal = PlacementJournal.open(dir, set == null ? -1 : set.lsn, this::replay);
+            progress.step("journal", done.incrementAndGet(), total);
+        } catch (IOException e) {
+            Metrics.loadFailed("placement history", e);
+            throw new UncheckedIOException("Cannot open placement history", e);
+        }
+        if (!paged) {
+            // the trie iterates in hash order; the rankings and the search index build much faster in id order
+            List<Student> all = new ArrayList<>(students.values());
+            all.sort(Comparator.comparing(Student::getId));
+            CompletableFuture<Void> r = CompletableFuture.runAsync(() -> ranking.rebuild(all));
+            CompletableFuture<Void> q = CompletableFuture.runAsync(() -> studentSearch.rebuild(searchable(all, SearchIndex::of)));
+            index.rebuild(all);
+            r.join();
+            q.join();
+        } else {
+            // the store reads in id order a batch at a time; only the search terms stay on the heap
+            studentSearch.rebuild(searchable(students.values(), SearchIndex::of));
+        }
+        companySearch.rebuild(searchable(companies.values(), SearchIndex::of));
+        progress.step("indexes", done.incrementAndGet(), total);
+        stats.reset(students.values(), changes.getPublished());
+        version = paged ? null : versionOf(changes.getPublished());
+        List<PlacementRecord> history = records.view();
+        Thread t = new Thread(() -> {
+            stats.addHistory(history);
+            progress.step("statistics", done.incrementAndGet(), total);
+        }, "stats-rebuild");
+        t.setDaemon(true);
+        t.start();
+        if (!legacyLoaded.isEmpty()) migrateLegacy();
+        Metrics.LOAD_ALL.since(start);
+    }
+
+    // opens placement.db and a fresh stats.db; true if placement.db already holds the data
+    private boolean openPaged() throws IOException {
+        if (db != null) db.close();
+        if (statsDb != null) statsDb.close();
+        int pool = PageFile.poolPages(64);
+        db = new PageFile(new File(dir, DB_FILE), pool);
+        db.setWriteAhead(() -> { PlacementJournal j = journal; if (j != null) j.syncAppended(); });
+        pagedStudents = new PagedStore<>(db, STUDENT_SLOT, PlacementCodec::encode, PlacementCodec::decodeStudent, Arrays.asList(
+                new PagedStore.Index<Student>(BRANCH_SLOT, x -> BTree.concat(branchKey(x.getBranch()), cgpaKey(x.getCgpa()))),
+                new PagedStore.Index<Student>(CGPA_SLOT, x -> cgpaKey(x.getCgpa()))));
+        students = pagedStudents;
+        companies = new PagedStore<>(db, COMPANY_SLOT, PlacementCodec::encode, PlacementCodec::decodeCompany, Collections.emptyList());
+        recordsByCompany = new BTree(db, RECORD_COMPANY_SLOT);
+        File sf = new File(dir, STATS_DB_FILE);
+        Files.deleteIfExists(sf.toPath());
+        Files.deleteIfExists(new File(sf.getPath() + ".dwb").toPath());
+        statsDb = new PageFile(sf, pool / 4);
+        stats.storeIn(new PagedStore<>(statsDb, 0, PlacementCodec::encode, PlacementCodec::decodeStudent, Collections.emptyList()),
+                new PagedStore<>(statsDb, 1, BTree::utf8, b -> new String(b, StandardCharsets.UTF_8), Collections.emptyList()));
+        return db.isInitialized();
+    }
+
+    // index keys: CGPA descending as 4 unsigned bytes, so an ascending scan is best first
+    private static byte[] cgpaKey(float cgpa) { return BTree.int32(0x7FFFFFFF - Float.floatToIntBits(Math.max(0f, cgpa))); }
+    private static byte[] branchKey(String branch) { return BTree.concat(BTree.utf8(branch), new byte[1]); }
+    private static byte[] companyKey(String companyId) { return BTree.concat(BTree.utf8(companyId), new byte[1]); }
+
+    // rows [0, size of the index) are indexed; the rest (a migration, say) catch up here
+    private void indexRecords() {
+        for (int row = (int) Math.min(recordsByCompany.size(), records.size()); row < records.size(); row++)
+            indexRecord(records.get(row).getCompanyId(), row);
+    }
+    private void indexRecord(String companyId, int row) {
+        db.reserve(16);
+        recordsByCompany.put(BTree.concat(companyKey(companyId), BTree.int32(row)), new byte[0]);
+    }
+    private void appendRecord(PlacementRecord pr) {
+        int row = records.size();
+        records.append(pr);
+        if (paged) indexRecord(pr.getCompanyId(), row);
+        if (placed != null && PlacementStats.SELECTED.equals(pr.getStatus())) placed.add(pr.getStudentId());
+    }
+    // PlacementStats keeps the same set, but it trails the commit; a rule has to see the history as written
+    private Set<String> placed() {
+        Set<String> p = placed;
+        if (p != null) return p;
+        synchronized (this) {
+            if (placed != null) return placed;
+            p = ConcurrentHashMap.newKeySet();
+            RecordStore store = records;
+            int selected = store.statusOrdinal(PlacementStats.SELECTED);
+            for (RecordStore.Cursor c = store.cursor(0, store.size()); selected >= 0 && c.next(); )
+                if (c.statusCode() == selected) p.add(store.idName(c.studentOrdinal()));
+            return placed = p;
+        }
+    }
+    private Set<String> placedFor(EligibilityRule rule) { return rule != null && rule.usesPlaced() ? placed() : null; }
+
+    // the in-memory accelerators; paged storage answers the same queries from its indexes
+    private void indexed(Student s) { if (!paged) { index.put(s); ranking.put(s); } studentSearch.put(SearchIndex.of(s)); }
+    private void unindexed(String id) { if (!paged) { index.remove(id); ranking.remove(id); } studentSearch.remove(id); }
+    // companies are few, so they are searchable in either storage mode
+    private void indexed(Company c) { companySearch.put(SearchIndex.of(c)); }
+    private static <T> Iterable<String[]> searchable(Collection<T> all, Function<T, String[]> doc) {
+        return () -> all.stream().map(doc).iterator();
+    }
+
+    private static <T> T join(CompletableFuture<T> f) {
+        try { return f.join(); }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /* Copies an older records.bin/records.dat into the store, then retires it. Until the rename
+       succeeds the import simply reruns from an empty store, so a crash here loses nothing. */
+    @SuppressWarnings("unchecked")
+    private void importRecords() throws IOException {
+        File old = new File(dir, REC_FILE);
+        if (!old.exists()) old = new File(dir, LEGACY_REC_FILE);
+        if (!old.exists()) return;
+        List<PlacementRecord> list;
+        if (old.getName().equals(REC_FILE)) list = PlacementCodec.readRecords(old);
+        else try (ObjectInputStream o = new ObjectInputStream(new BufferedInputStream(new FileInputStream(old)))) {
+            list = (List<PlacementRecord>) o.readObject();
+        } catch (ClassNotFoundException e) { throw new IOException(old + ": " + e.getMessage(), e); }
+        records.truncate();
+        for (PlacementRecord r : list) records.append(r);
+        records.commit(records.size(), 0);
+        old.renameTo(new File(dir, old.getName() + ".migrated"));
+    }
+
+    // one-time conversion: write binary snapshots, then retire the .dat files so this never runs again
+    private void migrateLegacy() {
+        if (!saveAll()) return;
+        for (File f : legacyLoaded) f.renameTo(new File(dir, f.getName() + ".migrated"));
+        legacyLoaded.clear();
+    }
+
+    /* Writes full snapshots and truncates the journal up to the point they cover. Mutations are
+       already durable through the journal, so this is only needed for compaction and shutdown. */
+    public boolean saveAll() {
+        long start = System.nanoTime();
+        try { return checkpoint(); }
+        finally { Metrics.SAVE_ALL.since(start); }
+    }
+    private boolean checkpoint() {
+        synchronized (checkpointLock) {
+            Collection<Student> s;
+            Collection<Company> c;
+            int rowCut;
+            long lsn;
+            synchronized (this) {
+                // the current versions: nothing is copied while writers wait
+                s = paged ? null : students.values();
+                c = paged ? null : companies.values();
+                rowCut = records.size();
+                try { lsn = journal == null ? 0 : journal.rotate(); }
+                catch (IOException e) { Metrics.saveFailed("journal rotate", e); return false; }
+            }
+            // the page file holds at least everything up to lsn, so one flush stands in for both snapshots
+            boolean ok = (paged ? save(db::flush)
+                    : save(() -> PlacementCodec.writeStudents(new File(dir, STUD_FILE), s, lsn))
+                    & save(() -> PlacementCodec.writeCompanies(new File(dir, COMP_FILE), c, lsn)))
+                    & save(() -> records.commit(rowCut, lsn));
+            if (!ok || journal == null) return ok;
+            // the page file is overwritten in place, so only snapshot files need older checkpoints replayable
+            try { journal.checkpointed(lsn, paged ? 1 : PlacementCodec.GENERATIONS); return true; }
+            catch (IOException e) { Metrics.saveFailed("journal checkpoint", e); return false; }
+        }
+    }
+
+    // releases the journal and the mapped history; the manager must not be used afterwards
+    public void close() {
+        synchronized (checkpointLock) {
+            synchronized (this) {
+                try {
+                    if (journal != null) journal.close();
+                    records.close();
+                    if (db != null) db.close();
+                    if (statsDb != null) statsDb.close();
+                } catch (IOException e) { System.err.println("Close error: " + e.getMessage()); }
+                journal = null;
+            }
+        }
+        statsFeed.close();
+        compactor.shutdownNow();
+    }
+
+    // students and companies from one checkpoint, and the journal LSN replay resumes after
+    private static final class SnapshotSet {
+        Map<String, Student> students = new HashMap<>();
+        Map<String, Company> companies = new HashMap<>();
+        long lsn = -1; // -1: the journal's latest checkpoint
+    }
+
+    /* Newest snapshot set whose files can both be read. Generations are matched by the checkpoint
+       LSN in their headers, never by position, so students and companies always come from the
+       same checkpoint and the journal (which keeps every retained checkpoint replayable) brings
+       both forward. A set that exists but cannot be read is an error rather than an empty start,
+       which the next checkpoint would make permanent. */
+    private SnapshotSet loadSnapshots() {
+        File sf = new File(dir, STUD_FILE), cf = new File(dir, COMP_FILE);
+        List<Exception> failures = new ArrayList<>();
+        Map<Long, Integer> sg = generations(sf, failures), cg = generations(cf, failures);
+        boolean sWritten = written(sf), cWritten = written(cf);
+        SnapshotSet set = new SnapshotSet();
+        if (!sWritten && !cWritten) {
+            set.students = loadLegacy(LEGACY_STUD_FILE, set.students);
+            set.companies = loadLegacy(LEGACY_COMP_FILE, set.companies);
+            return set;
+        }
+        // a file that was never written matches any checkpoint, and stays empty
+        Set<Long> lsns = new LinkedHashSet<>(sWritten ? sg.keySet() : cg.keySet());
+        if (sWritten && cWritten) lsns.retainAll(cg.keySet());
+        for (long lsn : lsns) {
+            File s = sWritten ? PlacementCodec.generation(sf, sg.get(lsn)) : null;
+            File c = cWritten ? PlacementCodec.generation(cf, cg.get(lsn)) : null;
+            try {
+                CompletableFuture<Map<String, Company>> companies = CompletableFuture.supplyAsync(() -> {
+                    try { return c == null ? new HashMap<>() : PlacementCodec.readCompanies(c); }
+                    catch (IOException e) { throw new UncheckedIOException(e); }
+                });
+                if (s != null) set.students = PlacementCodec.readStudents(s);
+                set.companies = join(companies);
+                set.lsn = lsn;
+                return set;
+            } catch (IOException | UncheckedIOException e) {
+                Metrics.loadFailed(STUD_FILE + "/" + COMP_FILE + " at LSN " + lsn, e);
+                failures.add(e);
+            }
+        }
+        IOException e = new IOException("No readable snapshot set of " + STUD_FILE + " and " + COMP_FILE);
+        for (Exception f : failures) e.addSuppressed(f);
+        throw new UncheckedIOException(e);
+    }
+
+    private static boolean written(File bin) {
+        for (int g = 0; g < PlacementCodec.GENERATIONS; g++) if (PlacementCodec.generation(bin, g).exists()) return true;
+        return false;
+    }
+
+    // checkpoint LSN -> generation, newest first; a file from before version 5 is usable only as generation 0
+    private static Map<Long, Integer> generations(File bin, List<Exception> failures) {
+        Map<Long, Integer> out = new LinkedHashMap<>();
+        for (int g = 0; g < PlacementCodec.GENERATIONS; g++) {
+            File gen = PlacementCodec.generation(bin, g);
+            if (!gen.exists()) continue;
+            try {
+                long lsn = PlacementCodec.lsnOf(gen);
+                if (lsn >= 0 || g == 0) out.putIfAbsent(lsn, g);
+            } catch (IOException e) {
+                Metrics.loadFailed(gen.getName(), e);
+                failures.add(e);
+            }
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadLegacy(String legacy, T def) {
+        File old = new File(dir, legacy);
+        if (!old.exists()) return def;
+        try (ObjectInputStream o = new ObjectInputStream(new BufferedInputStream(new FileInputStream(old)))) {
+            T t = (T) o.readObject();
+            legacyLoaded.add(old);
+            return t;
+        } catch (Exception e) {
+            Metrics.loadFailed(legacy, e);
+            throw new UncheckedIOException(new IOException("Cannot read " + legacy, e));
+        }
+    }
+    private boolean save(PlacementCodec.IOTask task) {
+        try { task.run(); return true; }
+        catch (Exception e) { Metrics.saveFailed("snapshot", e); return false; }
+    }
+
+    // record appends the store already committed are skipped, the rest is idempotent
+    private void replay(long lsn, byte op, byte[] payload) throws IOException {
+        switch (op) {
+            case PlacementJournal.PUT_STUDENT: { Student s = PlacementCodec.decodeStudent(payload); students.put(s.getId(), s); break; }
+            case PlacementJournal.REMOVE_STUDENT: students.remove(PlacementCodec.decodeId(payload)); break;
+            case PlacementJournal.PUT_COMPANY: { Company c = PlacementCodec.decodeCompany(payload); companies.put(c.getId(), c); break; }
+            case PlacementJournal.REMOVE_COMPANY: companies.remove(PlacementCodec.decodeId(payload)); break;
+            case PlacementJournal.ADD_RECORD: if (lsn > records.committedLsn()) appendRecord(PlacementCodec.decodeRecord(payload)); break;
+            default: throw new IOException("Unknown journal op " + op);
+        }
+    }
+
+    // callers hold the manager lock, so journal order always matches the order changes are applied
+    private long log(byte op, Object o) {
+        if (journal == null) return 0;
+        byte[] payload = o instanceof Student ? PlacementCodec.encode((Student) o)
+                : o instanceof Company ? PlacementCodec.encode((Company) o)
+                : o instanceof PlacementRecord ? PlacementCodec.encode((PlacementRecord) o)
+                : PlacementCodec.encodeId((String) o);
+        return journal.append(op, payload);
+    }
+
+    // called outside the manager lock so concurrent committers can share one fsync
+    private void commit(long lsn) {
+        sync(lsn);
+        publishPending();
+    }
+    // the stream's flusher too, so it must never publish
+    private void sync(long lsn) {
+        if (journal != null) {
+            try { journal.sync(lsn); }
+            catch (IOException e) { throw new UncheckedIOException("Journal write failed", e); }
+        }
+        changes.durable(lsn);
+        if (journal != null && journal.size() > COMPACT_BYTES && checkpointRequests.get() == 0) requestCheckpoint();
+    }
+
+    /* Asks for a checkpoint on the background thread and returns at once. Requests arriving while
+       one runs are coalesced into a single further checkpoint. */
+    public void requestCheckpoint() {
+        if (checkpointRequests.getAndIncrement() == 0) compactor.execute(this::runCheckpoints);
+    }
+    private void runCheckpoints() {
+        for (int seen = checkpointRequests.get(); ; seen = checkpointRequests.get()) {
+            saveAll();
+            if (checkpointRequests.addAndGet(-seen) == 0) return;
+        }
+    }
+
+    /* Ordered change events for everything committed from now on; the listener's onSubscribe
+       sees the state the first event applies to */
+    public ChangeStream.Subscription subscribe(String name, ChangeStream.Listener l) {
+        synchronized (this) {
+            l.onSubscribe(this);
+            return changes.subscribe(name, 256, l);
+        }
+    }
+    // under the lock: only reserves the event's place; commit() hands it to the stream
+    private void publish(ChangeEvent.Type type, String id, Object data, Object before, Skill skill, long lsn) {
+        ChangeEvent e = new ChangeEvent(changes.reserve(), type, id, data, before, skill, lsn);
+        unpublished.add(e);
+        if (!paged) version = versionOf(e.seq + 1);
+    }
+    /* Outside the lock, so a slow subscriber holds up only the thread publishing and a listener may
+       call back into the manager. One thread publishes at a time, in seq order; a committer that
+       finds another one at it returns at once, since that thread keeps going until nothing is left. */
+    private void publishPending() {
+        while (publishing.tryLock()) {
+            try {
+                for (List<ChangeEvent> batch; !(batch = takeUnpublished()).isEmpty(); )
+                    for (ChangeEvent e : batch) changes.publish(e);
+            } finally { publishing.unlock(); }
+            synchronized (this) { if (unpublished.isEmpty()) return; }
+        }
+    }
+    private synchronized List<ChangeEvent> takeUnpublished() {
+        List<ChangeEvent> out = new ArrayList<>(unpublished);
+        unpublished.clear();
+        return out;
+    }
+    // under the lock; the in-memory stores hand out their current version in O(1)
+    private PlacementSnapshot versionOf(long published) {
+        return new PlacementSnapshot(students.snapshot(), companies.snapshot(), records, records.size(), published);
+    }
+
+    /* Consistent state for reports and exports that must not mix before and after a concurrent
+       write: one volatile read, never blocks and never copies. Paged storage keeps no versions,
+       so there it throws; read getAllStudents()/getAllCompanies() instead. */
+    public PlacementSnapshot snapshot() {
+        PlacementSnapshot v = version;
+        if (v != null) return v;
+        if (paged) throw new UnsupportedOperationException("Paged storage keeps no snapshots");
+        synchronized (this) { return versionOf(changes.getPublished()); }
+    }
+    public boolean isPaged() { return paged; }
+
+    public void addStudent(Student s) throws InvalidDataException {
+        long lsn;
+        synchronized (this) {
+            if (students.containsKey(s.getId())) throw new InvalidDataException("Student ID exists!");
+            lsn = log(PlacementJournal.PUT_STUDENT, s);
+            students.put(s.getId(), s);
+            indexed(s);
+            publish(ChangeEvent.Type.STUDENT_ADDED, s.getId(), s, null, null, lsn);
+        }
+        commit(lsn);
+    }
+    public void updateStudent(String id, Student s) throws RecordNotFoundException {
+        long lsn;
+        synchronized (this) {
+            if (!students.containsKey(id)) throw new RecordNotFoundException("Student not found!");
+            lsn = log(PlacementJournal.PUT_STUDENT, s);
+            Student before = students.put(id, s);
+            indexed(s);
+            publish(ChangeEvent.Type.STUDENT_UPDATED, id, s, before, null, lsn);
+        }
+        commit(lsn);
+    }
+    // copy-on-write so snapshots taken in the background never see a half-updated skill list
+    public void addSkill(String studentId, Skill sk) throws RecordNotFoundException {
+        long lsn;
+        synchronized (this) {
+            Student old = getStudent(studentId);
+            Student s = new Student(old.getId(), old.getName(), old.getBranch(), old.getCgpa());
+            for (Skill own : old.getSkills()) s.addSkill(own);
+            s.addSkill(sk);
+            lsn = log(PlacementJournal.PUT_STUDENT, s);
+            students.put(studentId, s);
+            indexed(s);
+            publish(ChangeEvent.Type.SKILL_ADDED, studentId, s, old, sk, lsn);
+        }
+        commit(lsn);
+    }
+    public void addCompany(Company c) throws InvalidDataException {
+        long lsn;
+        synchronized (this) {
+            if (companies.containsKey(c.getId())) throw new InvalidDataException("Company ID exists!");
+            lsn = log(PlacementJournal.PUT_COMPANY, c);
+            companies.put(c.getId(), c);
+            indexed(c);
+            publish(ChangeEvent.Type.COMPANY_ADDED, c.getId(), c, null, null, lsn);
+        }
+        commit(lsn);
+    }
+    public void updateCompany(String id, Company c) throws RecordNotFoundException {
+        long lsn;
+        synchronized (this) {
+            if (!companies.containsKey(id)) throw new RecordNotFoundException("Company not found!");
+            lsn = log(PlacementJournal.PUT_COMPANY, c);
+            Company before = companies.put(id, c);
+            indexed(c);
+            publish(ChangeEvent.Type.COMPANY_UPDATED, id, c, before, null, lsn);
+        }
+        commit(lsn);
+    }
+    public void addRequiredSkill(String companyId, Skill sk) throws RecordNotFoundException {
+        long lsn;
+        synchronized (this) {
+            Company old = getCompany(companyId);
+            Company c = new Company(old.getId(), old.getName(), old.getRole(), old.getMinCgpa());
+            for (Skill req : old.getRequiredSkills()) c.addRequiredSkill(req);
+            c.addRequiredSkill(sk);
+            c.setRule(old.getRule());
+            c.setInterviewPlan(old.getInterviews());
+            lsn = log(PlacementJournal.PUT_COMPANY, c);
+            companies.put(companyId, c);
+            indexed(c);
+            publish(ChangeEvent.Type.REQUIRED_SKILL_ADDED, companyId, c, old, sk, lsn);
+        }
+        commit(lsn);
+    }
+    public Student getStudent(String id) throws RecordNotFoundException {
+        Student s = students.get(id); if (s == null) throw new RecordNotFoundException("Student not found!"); return s;
+    }
+    public Company getCompany(String id) throws RecordNotFoundException {
+        Company c = companies.get(id); if (c == null) throw new RecordNotFoundException("Company not found!"); return c;
+    }
+    public void removeStudent(String id) {
+        long lsn;
+        synchronized (this) {
+            Student before = students.remove(id);
+            if (before == null) return;
+            lsn = log(PlacementJournal.REMOVE_STUDENT, id);
+            unindexed(id);
+            publish(ChangeEvent.Type.STUDENT_REMOVED, id, null, before, null, lsn);
+        }
+        commit(lsn);
+    }
+    public void removeCompany(String id) {
+        long lsn;
+        synchronized (this) {
+            Company before = companies.remove(id);
+            if (before == null) return;
+            lsn = log(PlacementJournal.REMOVE_COMPANY, id);
+            companySearch.remove(id);
+            publish(ChangeEvent.Type.COMPANY_REMOVED, id, null, before, null, lsn);
+        }
+        commit(lsn);
+    }
+    /* Batch inserts for bulk import: everything valid is applied under one lock hold and committed
+       with a single fsync. The result has one entry per input, null when it was accepted. */
+    public List<String> addStudents(List<Student> batch) {
+        List<String> errors = new ArrayList<>(batch.size());
+        List<Student> accepted = new ArrayList<>(batch.size());
+        long lsn = 0;
+        synchronized (this) {
+            for (Student s : batch) {
+                if (students.containsKey(s.getId())) { errors.add("Student ID exists!"); continue; }
+                lsn = log(PlacementJournal.PUT_STUDENT, s);
+                students.put(s.getId(), s);
+                accepted.add(s);
+                if (!paged) ranking.put(s);
+                studentSearch.put(SearchIndex.of(s));
+                publish(ChangeEvent.Type.STUDENT_ADDED, s.getId(), s, null, null, lsn);
+                errors.add(null);
+            }
+            if (!paged) index.putAll(accepted);
+        }
+        commit(lsn);
+        return errors;
+    }
+    public List<String> addCompanies(List<Company> batch) {
+        List<String> errors = new ArrayList<>(batch.size());
+        long lsn = 0;
+        synchronized (this) {
+            for (Company c : batch) {
+                if (companies.containsKey(c.getId())) { errors.add("Company ID exists!"); continue; }
+                lsn = log(PlacementJournal.PUT_COMPANY, c);
+                companies.put(c.getId(), c);
+                indexed(c);
+                publish(ChangeEvent.Type.COMPANY_ADDED, c.getId(), c, null, null, lsn);
+                errors.add(null);
+            }
+        }
+        commit(lsn);
+        return errors;
+    }
+    public List<String> addSkills(List<String> studentIds, List<Skill> skills) {
+        List<String> errors = new ArrayList<>(skills.size());
+        long lsn = 0;
+        synchronized (this) {
+            for (int i = 0; i < skills.size(); i++) {
+                Student old = students.get(studentIds.get(i));
+                if (old == null) { errors.add("Student not found!"); continue; }
+                Student s = new Student(old.getId(), old.getName(), old.getBranch(), old.getCgpa());
+                for (Skill own : old.getSkills()) s.addSkill(own);
+                s.addSkill(skills.get(i));
+                lsn = log(PlacementJournal.PUT_STUDENT, s);
+                students.put(s.getId(), s);
+                indexed(s);
+                publish(ChangeEvent.Type.SKILL_ADDED, s.getId(), s, old, skills.get(i), lsn);
+                errors.add(null);
+            }
+        }
+        commit(lsn);
+        return errors;
+    }
+    public void addPlacementRecord(PlacementRecord pr) {
+        long lsn;
+        synchronized (this) {
+            lsn = log(PlacementJournal.ADD_RECORD, pr);
+            appendRecord(pr);
+            publish(ChangeEvent.Type.RECORD_ADDED, pr.getStudentId(), pr, null, null, lsn);
+        }
+        commit(lsn);
+        Metrics.RECORDS_WRITTEN.increment();
+    }
+    // one append stream and a single fsync for the whole batch
+    public void addPlacementRecords(List<PlacementRecord> batch) {
+        long lsn = 0;
+        synchronized (this) {
+            for (PlacementRecord pr : batch) {
+                lsn = log(PlacementJournal.ADD_RECORD, pr);
+                appendRecord(pr);
+                publish(ChangeEvent.Type.RECORD_ADDED, pr.getStudentId(), pr, null, null, lsn);
+            }
+        }
+        commit(lsn);
+        Metrics.RECORDS_WRITTEN.add(batch.size());
+    }
+    // read-only views of one version of each store, in no particular order (snapshot() covers all three at once)
+    public Collection<Student> getAllStudents() { return view(students); }
+    public Collection<Company> getAllCompanies() { return view(companies); }
+    // paged storage keeps no versions: its view is a lazy list over the live store, in id order
+    private static <T> Collection<T> view(EntityStore<T> store) {
+        PersistentMap<T> v = store.snapshot();
+        if (v != null) return v.values();
+        return store instanceof PagedStore ? ((PagedStore<T>) store).view(-1, null, null, Integer.MAX_VALUE)
+                : Collections.unmodifiableCollection(store.values());
+    }
+    // lazy, read-only view of the history as of this call; rows are decoded on access
+    public List<PlacementRecord> getAllRecords() { return records.view(); }
+    public int getStudentCount() { return students.size(); }
+    public int getCompanyCount() { return companies.size(); }
+    public int getRecordCount() { return records.size(); }
+    // live aggregates; may trail the latest commit by the events still in flight on the change stream
+    public PlacementStats getStats() { return stats; }
+
+    // filtered page of the history, scanned on the stored ordinals; null filters match everything
+    public List<PlacementRecord> getRecords(String studentId, String companyId, int offset, int limit) {
+        RecordStore store = records;
+        if (paged && companyId != null) return getRecordsOfCompany(store, studentId, companyId, offset, limit);
+        int student = studentId == null ? -2 : store.idOrdinal(studentId);
+        int company = companyId == null ? -2 : store.idOrdinal(companyId);
+        List<PlacementRecord> out = new ArrayList<>();
+        if (student == -1 || company == -1) return out;
+        int skipped = 0;
+        for (RecordStore.Cursor c = store.cursor(0, store.size()); out.size() < limit && c.next(); ) {
+            if (student >= 0 && c.studentOrdinal() != student) continue;
+            if (company >= 0 && c.companyOrdinal() != company) continue;
+            if (skipped++ < offset) continue;
+            out.add(store.get(c.row()));
+        }
+        return out;
+    }
+
+    /* The first limit matching records by date, ties in stored order. Dates follow the clock at
+       append (or the file imported), so stored order is not date order; a bounded heap over the
+       date column keeps limit rows and decodes only those. */
+    public List<PlacementRecord> getRecordsByDate(String studentId, String companyId, int limit) {
+        RecordStore store = records;
+        if (paged && companyId != null) {
+            List<PlacementRecord> out = getRecordsOfCompany(store, studentId, companyId, 0, Integer.MAX_VALUE);
+            out.sort(Comparator.comparing(PlacementRecord::getDate));
+            return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+        }
+        int student = studentId == null ? -2 : store.idOrdinal(studentId);
+        int company = companyId == null ? -2 : store.idOrdinal(companyId);
+        List<PlacementRecord> out = new ArrayList<>();
+        if (student == -1 || company == -1 || limit <= 0) return out;
+        Comparator<Integer> byDate = Comparator.<Integer>comparingLong(store::time).thenComparingInt(r -> r);
+        PriorityQueue<Integer> latest = new PriorityQueue<>(byDate.reversed());
+        for (RecordStore.Cursor c = store.cursor(0, store.size()); c.next(); ) {
+            if (student >= 0 && c.studentOrdinal() != student) continue;
+            if (company >= 0 && c.companyOrdinal() != company) continue;
+            if (latest.size() < limit) latest.add(c.row());
+            else if (c.time() < store.time(latest.peek())) { latest.poll(); latest.add(c.row()); }
+        }
+        List<Integer> rows = new ArrayList<>(latest);
+        rows.sort(byDate);
+        for (int row : rows) out.add(store.get(row));
+        return out;
+    }
+
+    // paged storage: only the company's rows, from the record-by-company index
+    private List<PlacementRecord> getRecordsOfCompany(RecordStore store, String studentId, String companyId, int offset, int limit) {
+        List<PlacementRecord> out = new ArrayList<>();
+        int[] skipped = { 0 };
+        byte[] from = companyKey(companyId);
+        recordsByCompany.scan(from, false, BTree.after(from), (k, v) -> {
+            int row = ByteBuffer.wrap(k, k.length - 4, 4).getInt();
+            if (row >= store.size()) return false;
+            PlacementRecord r = store.get(row);
+            if (studentId != null && !studentId.equals(r.getStudentId())) return true;
+            if (skipped[0]++ >= offset) out.add(r);
+            return out.size() < limit;
+        });
+        return out;
+    }
+
+    // per-student check the index must agree with: a merge of the two sorted skill-code arrays
+    static boolean hasRequiredSkills(Student s, Company c) {
+        return SkillCatalog.containsAllIds(s.getSkillCodes(), c.getRequiredSkillCodes());
+    }
+
+    // the order of every CGPA ranking: highest CGPA first, ties by id
+    static final Comparator<Student> CGPA_ORDER = (a, b) ->
+            a.getCgpa() != b.getCgpa() ? (a.getCgpa() > b.getCgpa() ? -1 : 1) : a.getId().compareTo(b.getId());
+
+    // minCgpa and required skills narrow the candidates; the company's rule, if any, filters what is left
+    public List<Student> getEligibleStudents(String companyId) throws RecordNotFoundException {
+        long start = System.nanoTime();
+        Company c = getCompany(companyId);
+        EligibilityRule rule = c.getCompiledRule();
+        Set<String> placed = placedFor(rule);
+        List<Student> out = paged
+                ? pagedStudents.scan(BY_CGPA, null, BTree.after(cgpaKey(c.getMinCgpa())),
+                        s -> hasRequiredSkills(s, c) && (rule == null || rule.test(s, placed)), Integer.MAX_VALUE)
+                : index.eligible(c.getMinCgpa(), c.getRequiredSkillCodes());
+        if (!paged && rule != null) out.removeIf(s -> !rule.test(s, placed));
+        Metrics.ELIGIBLE.since(start);
+        return out;
+    }
+
+    // best k eligible students by CandidateScorer, highest first; optionalSkills only add to the score
+    public List<CandidateScorer.Candidate> getShortlist(String companyId, int k, List<Skill> optionalSkills) throws RecordNotFoundException {
+        Company c = getCompany(companyId);
+        return scorer.shortlist(getEligibleStudents(companyId), c, SkillCatalog.encode(optionalSkills), k, ForkJoinPool.commonPool());
+    }
+    public List<CandidateScorer.Candidate> getShortlist(String companyId, int k) throws RecordNotFoundException {
+        return getShortlist(companyId, k, null);
+    }
+
+    /* One allocation round across several companies (OfferAllocator), written as a single batch of
+       records. seats: company id -> seat cap, only companies with seats take part; preferences:
+       student id -> company ids, most wanted first, may be null or cover only some students. */
+    public OfferAllocator.Result allocateOffers(Map<String, Integer> seats, Map<String, List<String>> preferences) throws RecordNotFoundException {
+        long start = System.nanoTime();
+        List<Company> cs = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : new TreeMap<>(seats).entrySet()) if (e.getValue() != null && e.getValue() > 0) cs.add(getCompany(e.getKey()));
+        int[] caps = new int[cs.size()];
+        for (int c = 0; c < caps.length; c++) caps[c] = seats.get(cs.get(c).getId());
+        EligibilityMatrix matrix = paged ? pagedMatrix(cs, placedFor(cs)) : index.matrix(cs, placedFor(cs), ForkJoinPool.commonPool());
+        OfferAllocator.Result r = allocator.allocate(matrix, students::get, cs, caps, preferences == null ? Collections.emptyMap() : preferences);
+        addPlacementRecords(r.getRecords());
+        Metrics.ALLOCATION.since(start);
+        return r;
+    }
+
+    /* Ranked search for search-as-you-type: every word of the query has to match the start of a
+       word (or be a small typo of one) in the id, name, skills or branch. The index is kept in
+       memory with paged storage too; only the matches are read from the store. */
+    public List<Student> searchStudents(String query, int limit) {
+        long start = System.nanoTime();
+        List<String> ids = studentSearch.search(query, limit);
+        List<Student> out = new ArrayList<>(ids.size());
+        for (String id : ids) { Student s = students.get(id); if (s != null) out.add(s); }
+        Metrics.SEARCH.since(start);
+        return out;
+    }
+    // the same over id, name, role and required skills
+    public List<Company> searchCompanies(String query, int limit) {
+        long start = System.nanoTime();
+        List<Company> out = new ArrayList<>();
+        for (String id : companySearch.search(query, limit)) { Company c = companies.get(id); if (c != null) out.add(c); }
+        Metrics.SEARCH.since(start);
+        return out;
+    }
+
+    // every company against every student in one fork/join pass over the index
+    public EligibilityMatrix getEligibilityMatrix() {
+        List<Company> cs = new ArrayList<>(companies.values());
+        return paged ? pagedMatrix(cs, placedFor(cs)) : index.matrix(cs, placedFor(cs), ForkJoinPool.commonPool());
+    }
+    /* Paged storage: the same matrix pieced together from a temporary index over MATRIX_CHUNK
+       students at a time, so the heap holds one chunk of students plus the ids and bits */
+    private EligibilityMatrix pagedMatrix(List<Company> cs, Set<String> placed) {
+        int n = cs.size(), count = 0;
+        String[] ids = new String[0];
+        int[] perStudent = new int[0];
+        long[][] bits = new long[n][0];
+        List<Student> chunk = new ArrayList<>(MATRIX_CHUNK);
+        for (Iterator<Student> it = students.values().iterator(); it.hasNext(); ) {
+            chunk.clear();
+            while (it.hasNext() && chunk.size() < MATRIX_CHUNK) chunk.add(it.next());
+            EligibilityIndex ix = new EligibilityIndex();
+            ix.rebuild(chunk);
+            EligibilityMatrix part = ix.matrix(cs, placed, ForkJoinPool.commonPool());
+            int size = count + MATRIX_CHUNK;
+            ids = Arrays.copyOf(ids, size);
+            perStudent = Arrays.copyOf(perStudent, size);
+            for (int s = 0; s < part.slotCount(); s++) {
+                ids[count + s] = part.getStudentAt(s);
+                perStudent[count + s] = part.companiesEligible(s);
+            }
+            for (int c = 0; c < n; c++) {
+                bits[c] = Arrays.copyOf(bits[c], size >>> 6);
+                System.arraycopy(part.bits(c), 0, bits[c], count >>> 6, part.bits(c).length);
+            }
+            count = size;
+        }
+        String[] companyIds = new String[n];
+        for (int c = 0; c < n; c++) companyIds[c] = cs.get(c).getId();
+        return new EligibilityMatrix(companyIds, ids, bits, perStudent);
+    }
+    private static final int MATRIX_CHUNK = 4096; // whole bitset words, so chunks line up
+    private Set<String> placedFor(List<Company> cs) {
+        for (Company c : cs) if (placedFor(c.getCompiledRule()) != null) return placed();
+        return null;
+    }
+
+    // all read straight off the maintained ranking (or the paged CGPA indexes): no per-call sort;
+    // paged storage hands out lazy lists that read the index a batch at a time
+    public List<Student> getSortedByCGPA() { return getTopByCGPA(Integer.MAX_VALUE); }
+    public List<Student> getSortedByCGPA(String branch) { return getTopByCGPA(branch, Integer.MAX_VALUE); }
+    public List<Student> getTopByCGPA(int k) {
+        if (paged) return pagedStudents.view(BY_CGPA, null, null, k);
+        CgpaRanking r = ranking.all();
+        return k >= r.size() ? r.range(0, r.size()) : r.top(k);
+    }
+    public List<Student> getTopByCGPA(String branch, int k) {
+        if (paged) return pagedStudents.view(BY_BRANCH, branchKey(branch), BTree.after(branchKey(branch)), k);
+        CgpaRanking r = ranking.branch(branch);
+        return k >= r.size() ? r.range(0, r.size()) : r.top(k);
+    }
+    public List<Student> getStudentsInCgpaBand(float min, float max) {
+        if (paged) return min > max ? new ArrayList<>() : pagedStudents.view(BY_CGPA, cgpaKey(max), BTree.after(cgpaKey(min)), Integer.MAX_VALUE);
+        return ranking.all().band(min, max);
+    }
+    // 1-based position in the overall CGPA ranking
+    public int getCgpaRank(String studentId) throws RecordNotFoundException {
+        if (paged) {
+            Student s = getStudent(studentId);
+            return (int) pagedStudents.count(BY_CGPA, null, BTree.concat(cgpaKey(s.getCgpa()), BTree.utf8(studentId))) + 1;
+        }
+        int r = ranking.all().rankOf(studentId);
+        if (r < 0) throw new RecordNotFoundException("Student not found!");
+        return r + 1;
+    }
+}
+
+/* Streaming bulk import/export of students, companies and student skills as CSV or JSON lines.
+   Lines are parsed and validated in parallel chunks (same rules as the dialogs) and each chunk
+   is inserted as one batch, in file order. Bad rows are reported and skipped.
+     students:  id,name,branch,cgpa,skills        skills as "Java:High;SQL:Low"
+     companies: id,name,role,minCgpa,requiredSkills,rule   rule optional, see EligibilityRule
+     skills:    studentId,skill,level */
+class BulkIO {
+    enum Kind {
+        STUDENTS("id", "name", "branch", "cgpa", "skills"),
+        COMPANIES("id", "name", "role", "minCgpa", "requiredSkills", "rule", "interviews"),
+        SKILLS("studentId", "skill", "level");
+        final String[] columns;
+        Kind(String... columns) { this.columns = columns; }
+    }
+
+    static final int BATCH = 1000;
+    private static final int MAX_ERRORS = 1000;
+    private static final String[] LEVELS = { "Low", "High" };
+
+    static class Report {
+        int imported, rejected;
+        final List<String> errors = new ArrayList<>();
+        void reject(int line, String msg) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) errors.add("line " + line + ": " + msg);
+        }
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder("Imported: " + imported + " | Rejected: " + rejected + "\n");
+            for (String e : errors) sb.append(e).append("\n");
+            if (rejected > errors.size()) sb.append("... ").append(rejected - errors.size()).append(" more\n");
+            return sb.toString();
+        }
+    }
+
+    // a parsed line: exactly one of value/error is set
+    private static class Row {
+        final int line;
+        final Object value;
+        final String error;
+        Row(int line, Object value, String error) { this.line = line; this.value = value; this.error = error; }
+    }
+    static class SkillRow {
+        final String studentId;
+        final Skill skill;
+        SkillRow(String studentId, Skill skill) { this.studentId = studentId; this.skill = skill; }
+    }
+
+    static boolean isJson(File f) { String n = f.getName().toLowerCase(Locale.ROOT); return n.endsWith(".jsonl") || n.endsWith(".json"); }
+
+    static Report importFile(PlacementManager m, Kind kind, File f) throws IOException {
+        boolean json = isJson(f);
+        Report report = new Report();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "bulk-import");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            List<String> chunk = new ArrayList<>(BATCH);
+            int lineNo = 0, chunkStart = 1;
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNo++;
+                if (lineNo == 1 && !json && line.trim().startsWith(kind.columns[0] + ",")) { chunkStart = 2; continue; }
+                chunk.add(line);
+                if (chunk.size() == BATCH) {
+                    final List<String> lines = chunk;
+                    final int start = chunkStart;
+                    inFlight.add(pool.submit(() -> parseChunk(kind, json, lines, start)));
+                    chunk = new ArrayList<>(BATCH);
+                    chunkStart = lineNo + 1;
+                    // bounded read-ahead: insert the oldest chunk before parsing further
+                    if (inFlight.size() >= threads * 2) insert(m, kind, await(inFlight.poll()), report);
+                }
+            }
+            if (!chunk.isEmpty()) inFlight.add(CompletableFuture.completedFuture(parseChunk(kind, json, chunk, chunkStart)));
+            while (!inFlight.isEmpty()) insert(m, kind, await(inFlight.poll()), report);
+        } finally {
+            pool.shutdownNow();
+        }
+        return report;
+    }
+
+    private static List<Row> await(Future<List<Row>> f) throws IOException {
+        try { return f.get(); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); throw new InterruptedIOException("Import interrupted"); }
+        catch (ExecutionException e) { throw new IOException("Import failed: " + e.getCause(), e.getCause()); }
+    }
+
+    private static List<Row> parseChunk(Kind kind, boolean json, List<String> lines, int firstLine) {
+        List<Row> out = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) continue;
+            try {
+                Map<String, String> fields = json ? parseJson(line) : csvFields(kind, line);
+                out.add(new Row(firstLine + i, parseRow(kind, fields), null));
+            } catch (IllegalArgumentException e) {
+                out.add(new Row(firstLine + i, null, e.getMessage()));
+            }
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void insert(PlacementManager m, Kind kind, List<Row> rows, Report report) {
+        List<Object> values = new ArrayList<>(rows.size());
+        for (Row r : rows) if (r.error == null) values.add(r.value);
+        List<String> errors = Collections.emptyList();
+        if (kind == Kind.STUDENTS && !values.isEmpty()) errors = m.addStudents((List<Student>) (List<?>) values);
+        else if (kind == Kind.COMPANIES && !values.isEmpty()) errors = m.addCompanies((List<Company>) (List<?>) values);
+        else if (kind == Kind.SKILLS && !values.isEmpty()) {
+            List<String> ids = new ArrayList<>(values.size());
+            List<Skill> skills = new ArrayList<>(values.size());
+            for (Object o : values) { ids.add(((SkillRow) o).studentId); skills.add(((SkillRow) o).skill); }
+            errors = m.addSkills(ids, skills);
+        }
+        // report parse and insert failures together, in line order
+        for (int i = 0, k = 0; i < rows.size(); i++) {
+            Row r = rows.get(i);
+            if (r.error != null) { report.reject(r.line, r.error); continue; }
+            String err = errors.get(k++);
+            if (err == null) report.imported++;
+            else report.reject(r.line, err);
+        }
+    }
+
+    /* ---- validation, shared rules with the dialogs ---- */
+    static Object parseRow(Kind kind, Map<String, String> f) {
+        switch (kind) {
+            case STUDENTS: {
+                String id = required(f, "id"), name = required(f, "name"), branch = required(f, "branch");
+                check(PatternVerifier.ID, id);
+                check(PatternVerifier.NAME, name);
+                if (!Arrays.asList(PlacementManager.BRANCHES).contains(branch)) throw new IllegalArgumentException("Unknown branch: " + branch);
+                Student s = new Student(id, name, branch, cgpa(required(f, "cgpa")));
+                for (Skill sk : skills(f.get("skills"))) s.addSkill(sk);
+                return s;
+            }
+            case COMPANIES: {
+                String id = required(f, "id"), name = required(f, "name");
+                check(PatternVerifier.ID, id);
+                check(PatternVerifier.NAME, name);
+                String role = f.get("role");
+                Company c = new Company(id, name, role == null ? "" : role.trim(), cgpa(required(f, "minCgpa")));
+                for (Skill sk : skills(f.get("requiredSkills"))) c.addRequiredSkill(sk);
+                c.setRule(f.get("rule"));
+                c.setInterviewPlan(f.get("interviews"));
+                return c;
+            }
+            default: {
+                String id = required(f, "studentId");
+                check(PatternVerifier.ID, id);
+                return new SkillRow(id, skill(f));
+            }
+        }
+    }
+    // the "skill" and "level" fields alone, as POSTed to a student's or company's skills
+    static Skill skill(Map<String, String> f) { return new Skill(required(f, "skill"), level(required(f, "level"))); }
+
+    private static String required(Map<String, String> f, String key) {
+        String v = f.get(key);
+        if (v == null || v.trim().isEmpty()) throw new IllegalArgumentException("Missing " + key);
+        return v.trim();
+    }
+    private static void check(PatternVerifier rule, String value) {
+        if (!rule.accepts(value)) throw new IllegalArgumentException(rule.getErrorMessage() + " (" + value + ")");
+    }
+    private static float cgpa(String v) {
+        if (!NumericRangeVerifier.CGPA.accepts(v)) throw new IllegalArgumentException(NumericRangeVerifier.CGPA.getErrorMessage() + " (" + v + ")");
+        return Float.parseFloat(v.trim());
+    }
+    private static String level(String v) {
+        for (String l : LEVELS) if (l.equalsIgnoreCase(v.trim())) return l;
+        throw new IllegalArgumentException("Skill level must be Low or High (" + v + ")");
+    }
+    // "Java:High;SQL:Low"
+    private static List<Skill> skills(String v) {
+        List<Skill> out = new ArrayList<>();
+        if (v == null || v.trim().isEmpty()) return out;
+        for (String part : v.split(";")) {
+            if (part.trim().isEmpty()) continue;
+            int colon = part.lastIndexOf(':');
+            String name = (colon < 0 ? part : part.substring(0, colon)).trim();
+            if (name.isEmpty()) throw new IllegalArgumentException("Empty skill name in: " + v);
+            out.add(new Skill(name, colon < 0 ? "Low" : level(part.substring(colon + 1))));
+        }
+        return out;
+    }
+    private static String skillsText(List<Skill> skills) {
+        StringBuilder sb = new StringBuilder();
+        for (Skill k : skills) { if (sb.length() > 0) sb.append(';'); sb.append(k.getName()).append(':').append(k.getLevel()); }
+        return sb.toString();
+    }
+
+    /* ---- CSV ---- */
+    private static Map<String, String> csvFields(Kind kind, String line) {
+        List<String> cells = splitCsv(line);
+        if (cells.size() > kind.columns.length) throw new IllegalArgumentException("Expected " + kind.columns.length + " columns, got " + cells.size());
+        Map<String, String> f = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) f.put(kind.columns[i], cells.get(i));
+        return f;
+    }
+    // one record per line; quoted cells may contain commas and "" for a quote
+    static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                else if (ch == '"') quoted = false;
+                else cur.append(ch);
+            } else if (ch == '"') quoted = true;
+            else if (ch == ',') { out.add(cur.toString()); cur.setLength(0); }
+            else cur.append(ch);
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quote");
+        out.add(cur.toString());
+        return out;
+    }
+    static String csv(Object v) {
+        String s = v == null ? "" : v.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    /* ---- JSON lines: one flat object per line, string/number/boolean/null values ---- */
+    static Map<String, String> parseJson(String line) {
+        Map<String, String> out = new HashMap<>();
+        int[] pos = { skipWs(line, 0) };
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') { pos[0]++; return out; }
+        while (true) {
+            String key = jsonString(line, pos);
+            expect(line, pos, ':');
+            char c = peek(line, pos);
+            String value;
+            if (c == '"') value = jsonString(line, pos);
+            else {
+                int start = pos[0];
+                while (pos[0] < line.length() && ",} \t".indexOf(line.charAt(pos[0])) < 0) pos[0]++;
+                value = line.substring(start, pos[0]);
+                if (value.equals("null")) value = null;
+                pos[0] = skipWs(line, pos[0]);
+            }
+            out.put(key, value);
+            c = peek(line, pos);
+            pos[0]++;
+            if (c == '}') return out;
+            if (c != ',') throw new IllegalArgumentException("Malformed JSON at column " + pos[0]);
+        }
+    }
+    private static int skipWs(String s, int i) { while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++; return i; }
+    private static char peek(String s, int[] pos) {
+        pos[0] = skipWs(s, pos[0]);
+        if (pos[0] >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+        return s.charAt(pos[0]);
+    }
+    private static void expect(String s, int[] pos, char c) {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("Expected '" + c + "' at column " + (pos[0] + 1));
+        pos[0]++;
+    }
+    private static String jsonString(String s, int[] pos) {
+        expect(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < s.length()) {
+            char c = s.charAt(pos[0]++);
+            if (c == '"') { pos[0] = skipWs(s, pos[0]); return sb.toString(); }
+            if (c != '\\') { sb.append(c); continue; }
+            if (pos[0] >= s.length()) break;
+            char e = s.charAt(pos[0]++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("Bad \\u escape");
+                    sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: sb.append(e);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+    static String json(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    /* ---- export ---- */
+    static int exportFile(PlacementManager m, Kind kind, File f) throws IOException {
+        boolean asJson = isJson(f);
+        int n = 0;
+        // one version throughout, so a drive writing meanwhile cannot tear the file; paged storage
+        // keeps no versions and is streamed from the live stores instead
+        PlacementSnapshot v = m.isPaged() ? null : m.snapshot();
+        Collection<Student> students = v == null ? m.getAllStudents() : v.getStudents();
+        Collection<Company> companies = v == null ? m.getAllCompanies() : v.getCompanies();
+        try (BufferedWriter out = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+            if (!asJson) { out.write(String.join(",", kind.columns)); out.newLine(); }
+            if (kind == Kind.STUDENTS) {
+                for (Student s : students) { writeRow(out, asJson, kind, s.getId(), s.getName(), s.getBranch(), String.valueOf(s.getCgpa()), skillsText(s.getSkills())); n++; }
+            } else if (kind == Kind.COMPANIES) {
+                for (Company c : companies) { writeRow(out, asJson, kind, c.getId(), c.getName(), c.getRole(), String.valueOf(c.getMinCgpa()), skillsText(c.getRequiredSkills()), ruleText(c), interviewsText(c)); n++; }
+            } else {
+                for (Student s : students)
+                    for (Skill k : s.getSkills()) { writeRow(out, asJson, kind, s.getId(), k.getName(), k.getLevel()); n++; }
+            }
+        }
+        return n;
+    }
+    private static void writeRow(BufferedWriter out, boolean asJson, Kind kind, String... values) throws IOException {
+        out.write(row(asJson, kind, values));
+        out.newLine();
+    }
+    // one student as a JSON-lines export row (also what shards send the router)
+    static String row(Student s) {
+        return row(true, Kind.STUDENTS, s.getId(), s.getName(), s.getBranch(), String.valueOf(s.getCgpa()), skillsText(s.getSkills()));
+    }
+    static String row(Company c) {
+        return row(true, Kind.COMPANIES, c.getId(), c.getName(), c.getRole(), String.valueOf(c.getMinCgpa()), skillsText(c.getRequiredSkills()), ruleText(c), interviewsText(c));
+    }
+    private static String ruleText(Company c) { return c.getRule() == null ? "" : c.getRule(); }
+    private static String interviewsText(Company c) { return c.getInterviews() == null ? "" : c.getInterviews(); }
+    private static String row(boolean asJson, Kind kind, String... values) {
+        StringBuilder sb = new StringBuilder();
+        if (asJson) {
+            sb.append('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(json(kind.columns[i])).append(':').append(json(values[i]));
+            }
+            sb.append('}');
+        } else {
+            for (int i = 0; i < values.length; i++) { if (i > 0) sb.append(','); sb.append(csv(values[i])); }
+        }
+        return sb.toString();
+    }
+}
+
+/* Level-aware candidate scoring and top-K shortlists.
+   score = (wCgpa * cgpaMargin + wLevel * levelMatch + wCoverage * coverage) / (weights that apply)
+     cgpaMargin  (cgpa - minCgpa) / (10 - minCgpa), clamped to [0, 1]
+     levelMatch  per required skill: 1 if the student's level meets it, 0.5 if the skill is held lower
+     coverage    share of the optional skills the student holds (any level)
+   A component with nothing to measure (no required or no optional skills) drops out. Ties are
+   broken by student id, so a shortlist is fully deterministic. */
+class CandidateScorer {
+    static final double W_CGPA = 0.5, W_LEVEL = 0.35, W_COVERAGE = 0.15;
+    private static final int LEAF = 4096;
+
+    private final double wCgpa, wLevel, wCoverage;
+
+    CandidateScorer() { this(W_CGPA, W_LEVEL, W_COVERAGE); }
+    CandidateScorer(double wCgpa, double wLevel, double wCoverage) {
+        this.wCgpa = wCgpa; this.wLevel = wLevel; this.wCoverage = wCoverage;
+    }
+
+    static class Candidate {
+        final Student student;
+        final double score;
+        Candidate(Student student, double score) { this.student = student; this.score = score; }
+        public Student getStudent() { return student; }
+        public double getScore() { return score; }
+        @Override public String toString() { return student.getId() + " " + String.format(Locale.ROOT, "%.4f", score); }
+    }
+
+    // optional: sorted SkillCatalog codes (levels ignored), may be empty
+    double score(Student s, Company c, int[] optional) { return score(s.getCgpa(), s.getSkillCodes(), c, optional); }
+    // the same on a student's CGPA and sorted skill codes, for callers that keep them in arrays
+    double score(float cgpa, int[] have, Company c, int[] optional) {
+        float min = c.getMinCgpa();
+        double margin = min >= 10 ? 1 : (cgpa - min) / (10.0 - min);
+        double total = wCgpa * Math.max(0, Math.min(1, margin)), w = wCgpa;
+        int[] req = c.getRequiredSkillCodes();
+        if (req.length > 0) {
+            double match = 0;
+            for (int r : req) {
+                int id = SkillCatalog.idOf(r);
+                if (Arrays.binarySearch(have, SkillCatalog.code(id, SkillLevel.HIGH)) >= 0) match += 1;
+                else if (Arrays.binarySearch(have, SkillCatalog.code(id, SkillLevel.LOW)) >= 0)
+                    match += SkillCatalog.levelOf(r) == SkillLevel.LOW ? 1 : 0.5;
+            }
+            total += wLevel * match / req.length;
+            w += wLevel;
+        }
+        if (optional.length > 0) {
+            int hit = 0;
+            for (int o : optional) {
+                int id = SkillCatalog.idOf(o);
+                if (Arrays.binarySearch(have, SkillCatalog.code(id, SkillLevel.LOW)) >= 0
+                        || Arrays.binarySearch(have, SkillCatalog.code(id, SkillLevel.HIGH)) >= 0) hit++;
+            }
+            total += wCoverage * hit / optional.length;
+            w += wCoverage;
+        }
+        return w == 0 ? 0 : total / w;
+    }
+
+    /* Best k candidates, highest score first. Partitions of the list are scored in parallel, each
+       keeping a bounded heap of k; the partial heaps are merged the same way. */
+    List<Candidate> shortlist(List<Student> candidates, Company c, int[] optional, int k, ForkJoinPool pool) {
+        if (k <= 0 || candidates.isEmpty()) return new ArrayList<>();
+        Student[] arr = candidates.toArray(new Student[0]);
+        TopK top = pool.invoke(new ShortlistTask(arr, c, optional, k, 0, arr.length));
+        return top.sorted();
+    }
+
+    private class ShortlistTask extends RecursiveTask<TopK> {
+        private static final long serialVersionUID = 1L;
+        final Student[] arr; final Company c; final int[] optional; final int k, from, to;
+        ShortlistTask(Student[] arr, Company c, int[] optional, int k, int from, int to) {
+            this.arr = arr; this.c = c; this.optional = optional; this.k = k; this.from = from; this.to = to;
+        }
+        @Override protected TopK compute() {
+            if (to - from > LEAF) {
+                int mid = (from + to) >>> 1;
+                ShortlistTask left = new ShortlistTask(arr, c, optional, k, from, mid);
+                left.fork();
+                TopK right = new ShortlistTask(arr, c, optional, k, mid, to).compute();
+                return left.join().mergeFrom(right);
+            }
+            TopK top = new TopK(k);
+            for (int i = from; i < to; i++) top.offer(arr[i], score(arr[i], c, optional));
+            return top;
+        }
+    }
+
+    // bounded min-heap on parallel arrays: the root is the weakest of the kept candidates
+    static class TopK {
+        private final Student[] s;
+        private final double[] v;
+        private int n;
+        TopK(int k) { s = new Student[k]; v = new double[k]; }
+
+        void offer(Student st, double score) {
+            if (n < s.length) { s[n] = st; v[n] = score; up(n++); return; }
+            if (!better(score, st, v[0], s[0])) return;
+            s[0] = st; v[0] = score;
+            down(0);
+        }
+        TopK mergeFrom(TopK o) { for (int i = 0; i < o.n; i++) offer(o.s[i], o.v[i]); return this; }
+
+        List<Candidate> sorted() {
+            List<Candidate> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(new Candidate(s[i], v[i]));
+            out.sort((a, b) -> better(a.score, a.student, b.score, b.student) ? -1 : 1);
+            return out;
+        }
+
+        private static boolean better(double a, Student sa, double b, Student sb) {
+            return a != b ? a > b : sa.getId().compareTo(sb.getId()) < 0;
+        }
+        private void up(int i) {
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (!better(v[p], s[p], v[i], s[i])) break;
+                swap(i, p);
+                i = p;
+            }
+        }
+        private void down(int i) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, w = i;
+                if (l < n && better(v[w], s[w], v[l], s[l])) w = l;
+                if (r < n && better(v[w], s[w], v[r], s[r])) w = r;
+                if (w == i) return;
+                swap(i, w);
+                i = w;
+            }
+        }
+        private void swap(int a, int b) {
+            Student ts = s[a]; s[a] = s[b]; s[b] = ts;
+            double tv = v[a]; v[a] = v[b]; v[b] = tv;
+        }
+    }
+}
+
+/* Offers across many companies at once: student-proposing deferred acceptance (Gale-Shapley) with a
+   seat cap per company. Free students propose down their preference lists; a company holds its best
+   cap proposals so far, in CandidateScorer order (score, then id), and lets the weakest go when a
+   better one arrives. The result is stable (no student and company would both rather have each other
+   than what they got) and, of all stable assignments, the best one for every student.
+   A student's preferences default to the companies they are eligible for, most selective (highest
+   minCgpa) first; given lists are cut down to the eligible companies taking part. Default lists are
+   a bit row per student over the companies in that order (the next choice is the next set bit),
+   given lists one CSR int array, every company's held proposals a bounded heap (weakest on top) in
+   one shared pool, and the free students an int stack, so a proposal allocates nothing. */
+class OfferAllocator {
+    private static final int[] NO_OPTIONAL = new int[0];
+    private final CandidateScorer scorer;
+
+    OfferAllocator(CandidateScorer scorer) { this.scorer = scorer; }
+
+    static class Result {
+        // one Selected record per offer; turned-down proposals are only counted (a dense run has millions)
+        final List<PlacementRecord> records;
+        final int students, matched;
+        final long proposals;
+        final Map<String, Integer> filled;
+        Result(List<PlacementRecord> records, int students, int matched, long proposals, Map<String, Integer> filled) {
+            this.records = records; this.students = students; this.matched = matched; this.proposals = proposals; this.filled = filled;
+        }
+        public List<PlacementRecord> getRecords() { return records; }
+        public int getMatched() { return matched; }
+        public Map<String, Integer> getFilled() { return filled; }
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder("Students with a preference: " + students + " | Placed: " + matched
+                    + " | Unplaced: " + (students - matched) + " | Proposals: " + proposals + "\n\nSeats filled:\n");
+            filled.forEach((id, n) -> sb.append(id).append(": ").append(n).append('\n'));
+            return sb.toString();
+        }
+    }
+
+    /* companies are the matrix rows, in order, each with seats[c] > 0; students maps a matrix slot's id
+       to its student; preferences (student id -> company ids, most wanted first) may be partial. */
+    Result allocate(EligibilityMatrix matrix, Function<String, Student> students, List<Company> companies, int[] seats,
+                    Map<String, List<String>> preferences) {
+        int n = matrix.slotCount(), m = companies.size();
+        // only what scoring needs is kept per slot, so students can be looked up one at a time
+        String[] ids = new String[n];
+        float[] cgpa = new float[n];
+        int[][] skills = new int[n][];
+        for (int s = 0; s < n; s++) {
+            ids[s] = matrix.getStudentAt(s);
+            Student st = ids[s] == null ? null : students.apply(ids[s]);
+            if (st == null) { ids[s] = null; continue; }
+            cgpa[s] = st.getCgpa();
+            skills[s] = st.getSkillCodes();
+        }
+        Company[] co = companies.toArray(new Company[0]);
+        Map<String, Integer> row = new HashMap<>();
+        for (int c = 0; c < m; c++) row.put(co[c].getId(), c);
+
+        // given lists as CSR (given[s] .. given[s + 1] in list): eligible companies taking part, first mention only
+        int[] given = new int[n + 1], seen = new int[m];
+        boolean[] explicit = new boolean[n];
+        int[][] lists = new int[n][];
+        for (Map.Entry<String, List<String>> e : preferences.entrySet()) {
+            int s = matrix.slotOf(e.getKey());
+            if (s < 0 || ids[s] == null) continue;
+            int[] l = new int[e.getValue().size()];
+            int k = 0;
+            for (String cid : e.getValue()) {
+                Integer c = row.get(cid);
+                if (c == null || seen[c] == s + 1 || !matrix.eligible(c, s)) continue;
+                seen[c] = s + 1;
+                l[k++] = c;
+            }
+            lists[s] = Arrays.copyOf(l, k);
+            explicit[s] = true;
+        }
+        for (int s = 0; s < n; s++) given[s + 1] = given[s] + (lists[s] == null ? 0 : lists[s].length);
+        int[] list = new int[given[n]];
+        for (int s = 0; s < n; s++) if (lists[s] != null) System.arraycopy(lists[s], 0, list, given[s], lists[s].length);
+        lists = null;
+
+        // default lists: each student's row of bits over the companies in selectivity order, transposed from
+        // the matrix 64 students at a time so the writes stay in one small block
+        Integer[] byOrder = new Integer[m];
+        for (int c = 0; c < m; c++) byOrder[c] = c;
+        Arrays.sort(byOrder, (a, b) -> co[a].getMinCgpa() != co[b].getMinCgpa() ? (co[a].getMinCgpa() > co[b].getMinCgpa() ? -1 : 1) : co[a].getId().compareTo(co[b].getId()));
+        int[] order = new int[m];
+        for (int p = 0; p < m; p++) order[p] = byOrder[p];
+        int words = (m + 63) >>> 6;
+        long[] rows = new long[n * words];
+        for (int w = 0, blocks = (n + 63) >>> 6; w < blocks; w++)
+            for (int p = 0; p < m; p++) {
+                long[] bits = matrix.bits(order[p]);
+                if (w >= bits.length) continue;
+                for (long x = bits[w]; x != 0; x &= x - 1) {
+                    int s = (w << 6) + Long.numberOfTrailingZeros(x);
+                    rows[s * words + (p >>> 6)] |= 1L << p;
+                }
+            }
+
+        // held proposals: company c owns held[base[c] .. base[c] + cap[c]), a heap with the weakest on top
+        int[] cap = new int[m], base = new int[m + 1];
+        for (int c = 0; c < m; c++) {
+            cap[c] = Math.min(seats[c], matrix.eligibleCount(c));
+            base[c + 1] = base[c] + cap[c];
+        }
+        int[] next = new int[n], match = new int[n], free = new int[n];
+        Arrays.fill(match, -1);
+        int top = 0;
+        for (int s = n - 1; s >= 0; s--) {
+            if (ids[s] == null) continue;
+            next[s] = explicit[s] ? given[s] : 0;
+            if (explicit[s] ? given[s + 1] > given[s] : matrix.companiesEligible(s) > 0) free[top++] = s;
+        }
+        int proposing = top;
+        // ties on score go to the lower id; comparing ranks keeps the heaps off the id strings
+        Integer[] byId = new Integer[n];
+        int ranked = 0;
+        for (int s = 0; s < n; s++) if (ids[s] != null) byId[ranked++] = s;
+        Arrays.sort(byId, 0, ranked, (a, b) -> ids[a].compareTo(ids[b]));
+        int[] idRank = new int[n];
+        for (int r = 0; r < ranked; r++) idRank[byId[r]] = r;
+        int[] size = new int[m];
+        long proposals = propose(cgpa, skills, idRank, co, order, explicit, given, list, rows, words, cap, base, size, next, match, free, top);
+
+        Date now = new Date();
+        List<PlacementRecord> records = new ArrayList<>();
+        for (int s = 0; s < n; s++) if (match[s] >= 0) records.add(new PlacementRecord(ids[s], co[match[s]].getId(), "Selected", now));
+        Map<String, Integer> filled = new LinkedHashMap<>();
+        for (int c = 0; c < m; c++) filled.put(co[c].getId(), size[c]);
+        return new Result(records, proposing, records.size(), proposals, filled);
+    }
+
+    // the proposal loop: runs until every student is held or has run out of companies; returns the proposal count
+    private long propose(float[] cgpa, int[][] skills, int[] idRank, Company[] co, int[] order, boolean[] explicit, int[] given, int[] list,
+                         long[] rows, int words, int[] cap, int[] base, int[] size, int[] next, int[] match, int[] free, int top) {
+        int[] heldSlot = new int[base[co.length]];
+        double[] heldScore = new double[base[co.length]];
+        long proposals = 0;
+        while (top > 0) {
+            int s = free[--top], c;
+            if (explicit[s]) {
+                if (next[s] == given[s + 1]) continue; // list exhausted: stays unplaced
+                c = list[next[s]++];
+            } else {
+                int p = next[s], w = p >>> 6, r = s * words;
+                if (w >= words) continue;
+                long x = rows[r + w] & (-1L << p);
+                while (x == 0 && ++w < words) x = rows[r + w];
+                if (x == 0) { next[s] = words << 6; continue; }
+                p = (w << 6) + Long.numberOfTrailingZeros(x);
+                next[s] = p + 1;
+                c = order[p];
+            }
+            proposals++;
+            if (cap[c] == 0) { free[top++] = s; continue; }
+            double score = scorer.score(cgpa[s], skills[s], co[c], NO_OPTIONAL);
+            int b = base[c];
+            if (size[c] < cap[c]) {
+                int i = size[c]++;
+                heldSlot[b + i] = s; heldScore[b + i] = score;
+                siftUp(heldSlot, heldScore, idRank, b, i);
+                match[s] = c;
+            } else if (better(score, idRank[s], heldScore[b], idRank[heldSlot[b]])) {
+                int out = heldSlot[b];
+                match[out] = -1;
+                free[top++] = out;
+                heldSlot[b] = s; heldScore[b] = score;
+                siftDown(heldSlot, heldScore, idRank, b, size[c]);
+                match[s] = c;
+            } else {
+                free[top++] = s;
+            }
+        }
+        return proposals;
+    }
+
+    // the shortlist order: higher score, then lower id
+    private static boolean better(double a, int ida, double b, int idb) {
+        return a != b ? a > b : ida < idb;
+    }
+    private static void siftUp(int[] slot, double[] score, int[] ids, int b, int i) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!better(score[b + p], ids[slot[b + p]], score[b + i], ids[slot[b + i]])) break;
+            swap(slot, score, b + i, b + p);
+            i = p;
+        }
+    }
+    private static void siftDown(int[] slot, double[] score, int[] ids, int b, int n) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, w = i;
+            if (l < n && better(score[b + w], ids[slot[b + w]], score[b + l], ids[slot[b + l]])) w = l;
+            if (r < n && better(score[b + w], ids[slot[b + w]], score[b + r], ids[slot[b + r]])) w = r;
+            if (w == i) return;
+            swap(slot, score, b + i, b + w);
+            i = w;
+        }
+    }
+    private static void swap(int[] slot, double[] score, int a, int b) {
+        int t = slot[a]; slot[a] = slot[b]; slot[b] = t;
+        double v = score[a]; score[a] = score[b]; score[b] = v;
+    }
+
+    // "studentId,companyA;companyB" (CSV, an optional header) or {"studentId":"..","companies":"A;B"} per line
+    static Map<String, List<String>> readPreferences(File f) throws IOException {
+        Map<String, List<String>> out = new HashMap<>();
+        boolean json = BulkIO.isJson(f);
+        int lineNo = 0;
+        try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNo++;
+                if (line.trim().isEmpty() || (!json && lineNo == 1 && line.trim().startsWith("studentId,"))) continue;
+                String id, list;
+                try {
+                    if (json) {
+                        Map<String, String> row = BulkIO.parseJson(line);
+                        id = row.get("studentId");
+                        list = row.get("companies");
+                    } else {
+                        List<String> cells = BulkIO.splitCsv(line);
+                        id = cells.get(0);
+                        list = cells.size() > 1 ? cells.get(1) : "";
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("line " + lineNo + ": " + e.getMessage());
+                }
+                if (id == null || id.trim().isEmpty()) throw new IOException("line " + lineNo + ": missing studentId");
+                List<String> companies = new ArrayList<>();
+                if (list != null) for (String c : list.split(";")) if (!c.trim().isEmpty()) companies.add(c.trim());
+                out.put(id.trim(), companies);
+            }
+        }
+        return out;
+    }
+}
+
+/* Decides interview outcomes. Implementations are pure functions of (seed, student, company),
+   so a drive replayed with the same seed produces the same results in any thread order. */
+interface OutcomePolicy {
+    String decide(Student s, Company c);
+
+    // even odds, as the original drive, but reproducible
+    static OutcomePolicy coinFlip(long seed) {
+        return (s, c) -> uniform(seed, s, c) < 0.5 ? "Selected" : "Rejected";
+    }
+    // selection probability follows the candidate's score, kept within [0.05, 0.95]
+    static OutcomePolicy scored(long seed, CandidateScorer scorer) {
+        return (s, c) -> uniform(seed, s, c) < Math.max(0.05, Math.min(0.95, scorer.score(s, c, new int[0]))) ? "Selected" : "Rejected";
+    }
+    // seed from -Dpms.drive.seed when given, otherwise a fresh one per run
+    static long defaultSeed() { return Long.getLong("pms.drive.seed", System.nanoTime()); }
+    // the candidate's score sets the odds; -Dpms.drive.outcome=coin for even odds
+    static OutcomePolicy configured() {
+        long seed = defaultSeed();
+        return "coin".equalsIgnoreCase(System.getProperty("pms.drive.outcome")) ? coinFlip(seed) : scored(seed, new CandidateScorer());
+    }
+
+    // deterministic value in [0, 1) from a splitmix64 finalizer over the seed and both ids
+    static double uniform(long seed, Student s, Company c) {
+        long z = seed + 0x9E3779B97F4A7C15L * (s.getId().hashCode() * 31L + c.getId().hashCode());
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
+
+/* One day of interviews across any number of drives. A drive's slots are a fixed grid, so the
+   earliest slot with a free panel is a scan of a bitset; each student's booked interviews are a
+   sorted interval array, so a clash is one binary search whichever drives booked them. Candidates
+   are seated in the order given, each in the earliest slot that is free for both. Dropping one
+   frees that seat only and hands it to the first waitlisted candidate who is free then; nobody
+   else moves. A drive that is cancelled or has run gives all its seats back. When the company's
+   panels are shared with other timetables (one per shard), a drive books only its share of the
+   slot x panel cells, dealt round robin. */
+final class InterviewTimetable {
+    /* One booked interview */
+    static final class Slot {
+        final Student student;
+        final String companyId;
+        final int index, panel, start, end;
+        Slot(Student student, String companyId, int index, int panel, int start, int end) {
+            this.student = student; this.companyId = companyId; this.index = index; this.panel = panel; this.start = start; this.end = end;
+        }
+        @Override public String toString() {
+            return InterviewPlan.clock(start) + "-" + InterviewPlan.clock(end) + " panel " + (panel + 1) + ": " + student.getName() + " (" + student.getId() + ")";
+        }
+    }
+
+    /* One company's share of the day */
+    final class Drive {
+        final Company company;
+        final InterviewPlan plan;
+        private final int words;           // bitmap words per slot
+        private final long[] busyPanels;   // slot-major panel bitmaps
+        private final BitSet open = new BitSet(); // slots with at least one free panel
+        private final Map<String, Slot> booked = new LinkedHashMap<>();
+        private final List<Student> waitlist = new ArrayList<>();
+
+        Drive(Company company, InterviewPlan plan, int share, int shares) {
+            this.company = company;
+            this.plan = plan;
+            this.words = (plan.panels + 63) >>> 6;
+            this.busyPanels = new long[plan.getSlotCount() * words];
+            for (int i = 0; i < plan.getSlotCount(); i++) {
+                int base = i * words;
+                for (int p = 0; p < plan.panels && shares > 1; p++)
+                    if ((i * plan.panels + p) % shares != share) busyPanels[base + (p >>> 6)] |= 1L << p;
+                if (!full(base)) open.set(i);
+            }
+        }
+
+        // earliest slot from `from` on with a free panel and no clash for s; null when the day is full for s
+        private Slot seat(Student s, int from) {
+            int[] iv = busy.get(s.getId());
+            for (int i = open.nextSetBit(from); i >= 0; i = open.nextSetBit(i)) {
+                int start = plan.slotStart(i), clash = clash(iv, start, start + plan.slotMinutes);
+                if (clash < 0) return book(s, i);
+                i = plan.slotAtOrAfter(clash);
+                if (i >= plan.getSlotCount()) break;
+            }
+            return null;
+        }
+        private Slot book(Student s, int i) {
+            int base = i * words, panel = 0;
+            while (busyPanels[base + (panel >>> 6)] == -1L) panel += 64;
+            panel += Long.numberOfTrailingZeros(~busyPanels[base + (panel >>> 6)]);
+            busyPanels[base + (panel >>> 6)] |= 1L << panel;
+            if (full(base)) open.clear(i);
+            Slot slot = new Slot(s, company.getId(), i, panel, plan.slotStart(i), plan.slotStart(i) + plan.slotMinutes);
+            booked.put(s.getId(), slot);
+            occupy(s.getId(), slot.start, slot.end);
+            return slot;
+        }
+        private boolean full(int base) {
+            for (int p = 0; p < plan.panels; p += 64) {
+                long want = plan.panels - p >= 64 ? -1L : (1L << (plan.panels - p)) - 1;
+                if ((busyPanels[base + (p >>> 6)] & want) != want) return false;
+            }
+            return true;
+        }
+        private void release(Slot slot) {
+            busyPanels[slot.index * words + (slot.panel >>> 6)] &= ~(1L << slot.panel);
+            open.set(slot.index);
+            vacate(slot.student.getId(), slot.start, slot.end);
+        }
+
+        // booked interviews by start, then panel
+        List<Slot> getSlots() {
+            synchronized (InterviewTimetable.this) {
+                List<Slot> out = new ArrayList<>(booked.values());
+                out.sort(Comparator.<Slot>comparingInt(x -> x.start).thenComparingInt(x -> x.panel));
+                return out;
+            }
+        }
+        List<Student> getWaitlist() { synchronized (InterviewTimetable.this) { return new ArrayList<>(waitlist); } }
+        int getBooked() { synchronized (InterviewTimetable.this) { return booked.size(); } }
+        boolean isBooked(String studentId) { synchronized (InterviewTimetable.this) { return booked.containsKey(studentId); } }
+
+        /* The student leaves this drive. Returns the interview that took the freed seat, or null
+           when nobody on the waitlist is free then, or the drive was already closed or replaced. */
+        Slot drop(String studentId) { return InterviewTimetable.this.drop(this, studentId); }
+        // gives every seat back, unless a later drive of the company already replaced this one
+        void close() { InterviewTimetable.this.close(this); }
+
+        String summary() {
+            synchronized (InterviewTimetable.this) {
+                int last = 0;
+                for (Slot s : booked.values()) last = Math.max(last, s.end);
+                return booked.size() + " interviews on " + plan.panels + " panel(s) of " + plan.slotMinutes + " min"
+                        + (booked.isEmpty() ? "" : ", " + InterviewPlan.clock(plan.slotStart(0)) + "-" + InterviewPlan.clock(last))
+                        + (waitlist.isEmpty() ? "" : "; " + waitlist.size() + " waitlisted, the day is full for them");
+            }
+        }
+    }
+
+    private final Map<String, Drive> drives = new HashMap<>();
+    private final Map<String, int[]> busy = new HashMap<>(); // student id -> start, end pairs, sorted and disjoint
+
+    // seats a company's candidates, replacing any earlier drive of the same company today
+    synchronized Drive schedule(Company c, List<Student> candidates) { return schedule(c, candidates, 0, 1); }
+    // the same on share of shares timetables splitting the company's panels; a plan sized to the candidates is not split
+    synchronized Drive schedule(Company c, List<Student> candidates, int share, int shares) {
+        Drive d = open(c, candidates.size(), share, shares);
+        for (Student s : candidates) if (!d.booked.containsKey(s.getId()) && d.seat(s, 0) == null) d.waitlist.add(s);
+        return d;
+    }
+
+    /* Several drives at once: the drive whose earliest free slot comes first seats its next candidate,
+       so drives sharing candidates take turns through the day instead of the first one taking every
+       morning slot. */
+    synchronized Map<String, Drive> schedule(Map<Company, List<Student>> candidates) {
+        Map<String, Drive> out = new LinkedHashMap<>();
+        Map<Drive, Iterator<Student>> next = new HashMap<>();
+        PriorityQueue<Drive> queue = new PriorityQueue<>(Comparator.comparingInt(InterviewTimetable::earliest));
+        for (Map.Entry<Company, List<Student>> e : candidates.entrySet()) {
+            Drive d = open(e.getKey(), e.getValue().size(), 0, 1);
+            out.put(e.getKey().getId(), d);
+            next.put(d, e.getValue().iterator());
+            if (e.getValue().size() > 0) queue.add(d);
+        }
+        for (Drive d; (d = queue.poll()) != null; ) {
+            Iterator<Student> it = next.get(d);
+            Student s = it.next();
+            if (!d.booked.containsKey(s.getId()) && d.seat(s, 0) == null) d.waitlist.add(s);
+            if (it.hasNext()) queue.add(d);
+        }
+        return out;
+    }
+    private static int earliest(Drive d) {
+        int i = d.open.nextSetBit(0);
+        return i < 0 ? Integer.MAX_VALUE : d.plan.slotStart(i);
+    }
+
+    private Drive open(Company c, int candidates, int share, int shares) {
+        cancel(c.getId());
+        InterviewPlan plan = c.getInterviewPlan();
+        if (plan == null) {
+            InterviewPlan day = InterviewPlan.DEFAULT_DAY;
+            plan = day.withPanels(Math.max(1, (candidates + day.getSlotCount() - 1) / day.getSlotCount()));
+            shares = 1;
+        }
+        Drive d = new Drive(c, plan, share, shares);
+        drives.put(c.getId(), d);
+        return d;
+    }
+
+    private synchronized Slot drop(Drive d, String studentId) {
+        if (drives.get(d.company.getId()) != d) return null;
+        Slot gone = d.booked.remove(studentId);
+        if (gone == null) {
+            d.waitlist.removeIf(s -> s.getId().equals(studentId));
+            return null;
+        }
+        d.release(gone);
+        for (Iterator<Student> it = d.waitlist.iterator(); it.hasNext(); ) {
+            Student s = it.next();
+            if (clash(busy.get(s.getId()), gone.start, gone.end) < 0) {
+                it.remove();
+                return d.book(s, gone.index);
+            }
+        }
+        return null;
+    }
+
+    // frees every seat the company's drive holds
+    synchronized void cancel(String companyId) {
+        Drive d = drives.remove(companyId);
+        if (d != null) for (Slot s : d.booked.values()) vacate(s.student.getId(), s.start, s.end);
+    }
+    private synchronized void close(Drive d) {
+        if (drives.get(d.company.getId()) == d) cancel(d.company.getId());
+    }
+
+    synchronized Drive getDrive(String companyId) { return drives.get(companyId); }
+
+    /* ---- per-student interval index ---- */
+    // end of a booked interval overlapping [start, end), or -1
+    private static int clash(int[] iv, int start, int end) {
+        if (iv == null) return -1;
+        int lo = 0, hi = iv.length / 2;
+        while (lo < hi) { // first interval ending after start
+            int mid = (lo + hi) >>> 1;
+            if (iv[2 * mid + 1] <= start) lo = mid + 1; else hi = mid;
+        }
+        return lo < iv.length / 2 && iv[2 * lo] < end ? iv[2 * lo + 1] : -1;
+    }
+    private void occupy(String id, int start, int end) {
+        int[] iv = busy.get(id);
+        if (iv == null) { busy.put(id, new int[] { start, end }); return; }
+        int at = 0;
+        while (at < iv.length && iv[at] < start) at += 2;
+        int[] out = new int[iv.length + 2];
+        System.arraycopy(iv, 0, out, 0, at);
+        out[at] = start;
+        out[at + 1] = end;
+        System.arraycopy(iv, at, out, at + 2, iv.length - at);
+        busy.put(id, out);
+    }
+    private void vacate(String id, int start, int end) {
+        int[] iv = busy.get(id);
+        if (iv == null) return;
+        for (int at = 0; at < iv.length; at += 2) {
+            if (iv[at] != start || iv[at + 1] != end) continue;
+            if (iv.length == 2) { busy.remove(id); return; }
+            int[] out = new int[iv.length - 2];
+            System.arraycopy(iv, 0, out, 0, at);
+            System.arraycopy(iv, at + 2, out, at, iv.length - at - 2);
+            busy.put(id, out);
+            return;
+        }
+    }
+}
+
+/* One interview of a drive: a single student against the drive's company, run when its slot comes up */
+class PlacementDrive implements Runnable {
+    private final InterviewTimetable.Slot slot;
+    private final Company c;
+    private final DriveHandle h;
+    private final OutcomePolicy policy;
+    public PlacementDrive(InterviewTimetable.Slot slot, Company c, DriveHandle h, OutcomePolicy policy) {
+        this.slot = slot; this.c = c; this.h = h; this.policy = policy;
+    }
+    // always reports, so the drive finishes even when a record cannot be written
+    public void run() {
+        if (h.isCancelled()) return;
+        long start = System.nanoTime();
+        String result = "Failed";
+        try {
+            String decided = policy.decide(slot.student, c);
+            h.record(new PlacementRecord(slot.student.getId(), c.getId(), decided));
+            result = decided;
+            Metrics.INTERVIEW.since(start);
+        } catch (RuntimeException e) {
+            result = "Failed: " + e.getMessage();
+        } finally {
+            h.report(new DriveResult(slot, result));
+        }
+    }
+}
+
+/* Outcome of one interview, as streamed to whoever watches the drive */
+class DriveResult {
+    final Student student;
+    final InterviewTimetable.Slot slot;
+    final String status;
+    DriveResult(InterviewTimetable.Slot slot, String status) { this.student = slot.student; this.slot = slot; this.status = status; }
+    @Override public String toString() { return slot + " -> " + status; }
+}
+
+/* A running drive: lock-free result buffer plus progress and cancellation */
+class DriveHandle {
+    private final InterviewTimetable.Drive drive;
+    private final AtomicInteger total;
+    private final AtomicInteger done = new AtomicInteger();
+    private final ConcurrentLinkedQueue<DriveResult> results = new ConcurrentLinkedQueue<>();
+    private final Map<String, Future<?>> tasks = new LinkedHashMap<>(); // by student id
+    private volatile boolean cancelled;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final long started = System.nanoTime();
+
+    private final Consumer<PlacementRecord> records;
+
+    DriveHandle(InterviewTimetable.Drive drive, Consumer<PlacementRecord> records) {
+        this.drive = drive;
+        this.records = records;
+        this.total = new AtomicInteger(drive.getBooked());
+    }
+
+    Company getCompany() { return drive.company; }
+    InterviewTimetable.Drive getTimetable() { return drive; }
+    int getTotal() { return total.get(); }
+    int getDone() { return done.get(); }
+    boolean isCancelled() { return cancelled; }
+    boolean isFinished() { return cancelled || done.get() == total.get(); }
+    // an interview is queued or in progress; a cancelled drive stays running until those in progress end
+    boolean isRunning() {
+        synchronized (tasks) { for (Future<?> f : tasks.values()) if (!f.isDone()) return true; }
+        return false;
+    }
+
+    // writes one interview's record wherever the drive's owner sends them
+    void record(PlacementRecord r) { records.accept(r); }
+
+    void report(DriveResult r) {
+        results.add(r);
+        if (done.incrementAndGet() == total.get()) finished();
+    }
+    // the last interview ran (or the last one left was withdrawn): the seats go back to the day
+    private void finished() {
+        if (!closed.compareAndSet(false, true)) return;
+        Metrics.DRIVE.since(started);
+        drive.close();
+    }
+
+    // moves everything reported so far into out; safe to call from any thread while the drive runs
+    int drainTo(List<DriveResult> out) {
+        int n = 0;
+        for (DriveResult r; (r = results.poll()) != null; n++) out.add(r);
+        return n;
+    }
+
+    // interviews already in progress finish and keep their record, queued ones never start; never
+    // interrupts, since an interrupted journal write would close the channel for every writer
+    void cancel() {
+        cancelled = true;
+        synchronized (tasks) { for (Future<?> f : tasks.values()) f.cancel(false); }
+        if (closed.compareAndSet(false, true)) drive.close();
+    }
+
+    void add(String studentId, Future<?> f) { synchronized (tasks) { tasks.put(studentId, f); } }
+
+    // false when the student's interview already ran, is running, or was never booked
+    boolean withdraw(String studentId) {
+        synchronized (tasks) {
+            Future<?> f = tasks.get(studentId);
+            return f != null && f.cancel(false);
+        }
+    }
+    void withdrawn() { if (total.decrementAndGet() == done.get()) finished(); }
+
+    // blocks until every interview has run or was cancelled
+    void await() throws InterruptedException {
+        List<Future<?>> copy;
+        synchronized (tasks) { copy = new ArrayList<>(tasks.values()); }
+        for (Future<?> f : copy) {
+            try { f.get(); }
+            catch (ExecutionException | CancellationException e) { /* reported through the handle */ }
+        }
+    }
+}
+
+/* Runs drives for any number of companies on one bounded pool. Each drive is first laid out on the
+   scheduler's timetable for today (a new date starts an empty one); every interview then runs when
+   its slot comes up, on a clock where one minute of the day lasts msPerMinute (0 runs them back to
+   back, in slot order). */
+class DriveScheduler {
+    private final ScheduledExecutorService pool;
+    private final long msPerMinute;
+    private final OutcomePolicy policy;
+    private InterviewTimetable day = new InterviewTimetable();
+    private LocalDate date = LocalDate.now();
+    private final Map<String, DriveHandle> running = new HashMap<>(); // latest drive by company id
+
+    DriveScheduler(int threads, long msPerMinute) {
+        this(threads, msPerMinute, OutcomePolicy.configured());
+    }
+    DriveScheduler(int threads, long msPerMinute, OutcomePolicy policy) {
+        AtomicInteger n = new AtomicInteger();
+        this.pool = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "drive-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.msPerMinute = msPerMinute;
+        this.policy = policy;
+    }
+
+    // running drives keep the timetable they were laid out on
+    synchronized InterviewTimetable getDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(date)) { day = new InterviewTimetable(); date = today; }
+        return day;
+    }
+
+    DriveHandle start(Company c, List<Student> eligible, PlacementManager m) { return start(c, eligible, m::addPlacementRecord, 0, 1); }
+    /* One of shares schedulers running the same company's drive, each over its own students; every
+       interview's record goes to records, on the drive's pool thread. A company runs one drive at a
+       time: laying out a second would free the first one's seats while its interviews still run. */
+    DriveHandle start(Company c, List<Student> eligible, Consumer<PlacementRecord> records, int share, int shares) {
+        DriveHandle h;
+        synchronized (this) {
+            DriveHandle old = running.get(c.getId());
+            if (old != null && old.isRunning()) throw new IllegalStateException("A drive for " + c.getId() + " is still running");
+            h = new DriveHandle(getDay().schedule(c, eligible, share, shares), records);
+            running.put(c.getId(), h);
+        }
+        for (InterviewTimetable.Slot s : h.getTimetable().getSlots()) submit(h, s);
+        return h;
+    }
+
+    /* Takes the student out of a running drive if their interview has not started. The freed seat goes
+       to the first waitlisted candidate free at that time, whose interview is returned (null if none). */
+    InterviewTimetable.Slot drop(DriveHandle h, String studentId) {
+        if (!h.withdraw(studentId)) return null;
+        InterviewTimetable.Slot in = h.getTimetable().drop(studentId);
+        if (in != null) submit(h, in);
+        else h.withdrawn();
+        return in;
+    }
+
+    private void submit(DriveHandle h, InterviewTimetable.Slot s) {
+        long delay = (s.start - h.getTimetable().plan.slotStart(0)) * msPerMinute;
+        h.add(s.student.getId(), pool.schedule(new PlacementDrive(s, h.getCompany(), h, policy), delay, TimeUnit.MILLISECONDS));
+    }
+
+    void shutdown() { pool.shutdownNow(); }
+}
+
+/* Virtualized table model: cells are rendered on demand from the backing list (lazy lists like
+   the record store view included) and filtering keeps an index array instead of copying rows */
+class ListTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    static class Column<T> {
+        final String name;
+        final Class<?> type;
+        final Function<T, Object> value;
+        Column(String name, Class<?> type, Function<T, Object> value) { this.name = name; this.type = type; this.value = value; }
+    }
+
+    private final List<Column<T>> columns;
+    private List<T> rows = new ArrayList<>();
+    private int[] visible;        // model row -> list index; null shows every row
+    private String filter = "";
+    private int cachedIndex = -1; // lazy lists build a new element per get(), so keep the last one
+    private T cached;
+
+    ListTableModel(List<Column<T>> columns) { this.columns = columns; }
+
+    void setRows(List<T> rows) {
+        this.rows = rows;
+        this.visible = null;
+        this.filter = "";
+        this.cachedIndex = -1;
+        fireTableDataChanged();
+    }
+
+    List<T> getRows() { return rows; }
+    String getFilter() { return filter; }
+    int getTotal() { return rows.size(); }
+
+    /* Indexes of rows whose text contains the filter (case-insensitive). A filter that extends
+       the current one only rechecks rows that still match. Safe to call off the EDT; returns
+       current once cancelled says so. */
+    int[] computeFilter(List<T> rows, int[] current, String currentFilter, String text, BooleanSupplier cancelled) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) return null;
+        boolean narrowing = current != null && needle.startsWith(currentFilter.toLowerCase(Locale.ROOT));
+        int n = narrowing ? current.length : rows.size();
+        int[] out = new int[n];
+        int k = 0;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (cancelled.getAsBoolean()) return current;
+            int idx = narrowing ? current[i] : i;
+            T row = rows.get(idx);
+            if (row == null) continue;
+            sb.setLength(0);
+            for (Column<T> c : columns) sb.append(c.value.apply(row)).append('\u0000');
+            if (sb.toString().toLowerCase(Locale.ROOT).contains(needle)) out[k++] = idx;
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    void applyFilter(String text, int[] idx) {
+        this.filter = text;
+        this.visible = idx;
+        fireTableDataChanged();
+    }
+    int[] getVisible() { return visible; }
+
+    private T row(int r) {
+        int idx = visible == null ? r : visible[r];
+        if (idx != cachedIndex) { cached = rows.get(idx); cachedIndex = idx; }
+        return cached;
+    }
+
+    @Override public int getRowCount() { return visible == null ? rows.size() : visible.length; }
+    @Override public int getColumnCount() { return columns.size(); }
+    @Override public String getColumnName(int c) { return columns.get(c).name; }
+    @Override public Class<?> getColumnClass(int c) { return columns.get(c).type; }
+    // a lazy list over a live store reads null past its end once rows were removed
+    @Override public Object getValueAt(int r, int c) { T row = row(r); return row == null ? null : columns.get(c).value.apply(row); }
+}
+
+/* GUI */
+class PlacementGUI extends JFrame {
+    private PlacementManager m;
+    private final DriveScheduler drives = new DriveScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()), 0);
+    private static final String INTERVIEWS_TIP = "Optional: panels x slot minutes, then the windows, e.g. 3x30 09:00-12:30,13:30-17:00";
+
+    // Reusable verifiers
+    private final PatternVerifier idVerifier = PatternVerifier.ID;
+    private final PatternVerifier nameVerifier = PatternVerifier.NAME;
+    private final NumericRangeVerifier cgpaVerifier = NumericRangeVerifier.CGPA;
+
+    // startup: actions stay disabled until load() has finished
+    private final JPanel actions = new JPanel(new GridLayout(1, 3, 12, 12));
+    private final JProgressBar progress = new JProgressBar(0, 6);
+    private final JLabel status = new JLabel("Starting...");
+
+    public PlacementGUI(PlacementManager m) {
+        this.m = m;
+        setTitle("Placement Management System");
+        setSize(1050, 720);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout(8, 8));
+
+        // Header
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBorder(new EmptyBorder(8, 8, 0, 8));
+        JLabel title = new JLabel("Placement Management System", SwingConstants.LEFT);
+        title.setFont(new Font("SansSerif", Font.BOLD, 18));
+        header.add(title, BorderLayout.WEST);
+        add(header, BorderLayout.NORTH);
+
+        // Top area: 3 columns of controls
+        JPanel columnsPanel = actions;
+        columnsPanel.setBorder(new EmptyBorder(8, 8, 8, 8));
+
+        // Column 1: Student actions (top) + Company actions (below) stacked vertically
+        JPanel col1 = new JPanel();
+        col1.setLayout(new BoxLayout(col1, BoxLayout.Y_AXIS));
+        JPanel studentGroup = new JPanel(new GridLayout(0, 1, 8, 8));
+        studentGroup.setBorder(new TitledBorder("Student Actions"));
+        JPanel companyGroup = new JPanel(new GridLayout(0, 1, 8, 8));
+        companyGroup.setBorder(new TitledBorder("Company Actions"));
+        col1.add(studentGroup);
+        col1.add(Box.createRigidArea(new Dimension(0, 12)));
+        col1.add(companyGroup);
+
+        // Column 2: Skills
+        JPanel col2 = new JPanel(new BorderLayout());
+        JPanel skillGroup = new JPanel(new GridLayout(0, 1, 8, 8));
+        skillGroup.setBorder(new TitledBorder("Skills"));
+        JPanel dataGroup = new JPanel(new GridLayout(0, 1, 8, 8));
+        dataGroup.setBorder(new TitledBorder("Data"));
+        JPanel col2Stack = new JPanel();
+        col2Stack.setLayout(new BoxLayout(col2Stack, BoxLayout.Y_AXIS));
+        col2Stack.add(skillGroup);
+        col2Stack.add(Box.createRigidArea(new Dimension(0, 12)));
+        col2Stack.add(dataGroup);
+        col2.add(col2Stack, BorderLayout.NORTH);
+
+        // Column 3: Drive & Reports
+        JPanel driveGroup = new JPanel(new GridLayout(0, 1, 8, 8));
+        driveGroup.setBorder(new TitledBorder("Drive & Reports"));
+
+        columnsPanel.add(col1);
+        columnsPanel.add(col2);
+        columnsPanel.add(driveGroup);
+
+        add(columnsPanel, BorderLayout.CENTER);
+
+        // Build buttons and wire actions
+        addButtons(studentGroup, companyGroup, skillGroup, dataGroup, driveGroup);
+
+        // Footer: load progress, then startup timing
+        JPanel footer = new JPanel(new BorderLayout(8, 8));
+        footer.setBorder(new EmptyBorder(0, 8, 8, 8));
+        progress.setStringPainted(true);
+        footer.add(status, BorderLayout.CENTER);
+        footer.add(progress, BorderLayout.EAST);
+        add(footer, BorderLayout.SOUTH);
+
+        setVisible(true);
+        Metrics.windowShown();
+    }
+
+    /* Loads the data files on a background thread while the window is already up; the buttons
+       are enabled as soon as students, companies and indexes are in (the statistics follow) */
+    void load() {
+        setActionsEnabled(actions, false);
+        Thread t = new Thread(() -> {
+            try {
+                m.loadAll((stage, done, total) -> SwingUtilities.invokeLater(() -> {
+                    progress.setValue(done);
+                    progress.setString(done + "/" + total);
+                    if (stage.equals("statistics")) status.setText(status.getText() + "; statistics loaded");
+                    else if (!actions.isEnabled()) status.setText("Loaded " + stage + "...");
+                }));
+                SwingUtilities.invokeLater(() -> {
+                    setActionsEnabled(actions, true);
+                    Metrics.ready();
+                    String ready = String.format("Ready in %d ms (window after %d ms)", Metrics.getStartupReadyMs(), Metrics.getStartupWindowMs());
+                    if (progress.getValue() == progress.getMaximum()) ready += "; statistics loaded";
+                    status.setText(ready);
+                });
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> {
+                    status.setText("Load failed: " + e.getMessage());
+                    JOptionPane.showMessageDialog(this, "Cannot load data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        }, "loader");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void setActionsEnabled(Container c, boolean on) {
+        c.setEnabled(on);
+        for (Component child : c.getComponents())
+            if (child instanceof Container) setActionsEnabled((Container) child, on);
+    }
+
+    // helper: show a popup dialog with provided text (scrollable)
+    private void showPopup(String title, String content) {
+        JTextArea area = new JTextArea(content);
+        area.setEditable(false);
+        area.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane sp = new JScrollPane(area);
+        sp.setPreferredSize(new Dimension(700, 400));
+        JDialog dlg = new JDialog(this, title, true);
+        dlg.add(sp);
+        dlg.pack();
+        dlg.setLocationRelativeTo(this);
+        dlg.setVisible(true);
+    }
+
+    private static final List<ListTableModel.Column<Student>> STUDENT_COLUMNS = Arrays.asList(
+            new ListTableModel.Column<Student>("ID", String.class, Student::getId),
+            new ListTableModel.Column<Student>("Name", String.class, Student::getName),
+            new ListTableModel.Column<Student>("Branch", String.class, Student::getBranch),
+            new ListTableModel.Column<Student>("CGPA", Float.class, Student::getCgpa),
+            new ListTableModel.Column<Student>("Skills", String.class, s -> s.getSkills().toString()));
+    private static final List<ListTableModel.Column<Company>> COMPANY_COLUMNS = Arrays.asList(
+            new ListTableModel.Column<Company>("ID", String.class, Company::getId),
+            new ListTableModel.Column<Company>("Name", String.class, Company::getName),
+            new ListTableModel.Column<Company>("Role", String.class, Company::getRole),
+            new ListTableModel.Column<Company>("Min CGPA", Float.class, Company::getMinCgpa),
+            new ListTableModel.Column<Company>("Required Skills", String.class, c -> c.getRequiredSkills().toString()));
+    private static final List<ListTableModel.Column<CandidateScorer.Candidate>> CANDIDATE_COLUMNS = Arrays.asList(
+            new ListTableModel.Column<CandidateScorer.Candidate>("ID", String.class, c -> c.getStudent().getId()),
+            new ListTableModel.Column<CandidateScorer.Candidate>("Name", String.class, c -> c.getStudent().getName()),
+            new ListTableModel.Column<CandidateScorer.Candidate>("CGPA", Float.class, c -> c.getStudent().getCgpa()),
+            new ListTableModel.Column<CandidateScorer.Candidate>("Score", Double.class, c -> Math.round(c.getScore() * 10000) / 10000.0),
+            new ListTableModel.Column<CandidateScorer.Candidate>("Skills", String.class, c -> c.getStudent().getSkills().toString()));
+    private static final List<ListTableModel.Column<PlacementRecord>> RECORD_COLUMNS = Arrays.asList(
+            new ListTableModel.Column<PlacementRecord>("Student", String.class, PlacementRecord::getStudentId),
+            new ListTableModel.Column<PlacementRecord>("Company", String.class, PlacementRecord::getCompanyId),
+            new ListTableModel.Column<PlacementRecord>("Status", String.class, PlacementRecord::getStatus),
+            new ListTableModel.Column<PlacementRecord>("Date", Date.class, PlacementRecord::getDate));
+
+    /* Table popup: the list is fetched off the EDT, rows render on demand, header clicks sort an
+       index (no copy of the data) and the filter box narrows rows in the background */
+    private <T> void showTablePopup(String title, Supplier<? extends Collection<T>> source, List<ListTableModel.Column<T>> columns) {
+        showTablePopup(title, source, columns, true);
+    }
+    // sorting reads every row, so lazy lists (the record history) pass sortable = false to stay virtual
+    private <T> void showTablePopup(String title, Supplier<? extends Collection<T>> source, List<ListTableModel.Column<T>> columns, boolean sortable) {
+        ListTableModel<T> model = new ListTableModel<>(columns);
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(sortable);
+        table.setFillsViewportHeight(true);
+        JScrollPane sp = new JScrollPane(table);
+        sp.setPreferredSize(new Dimension(800, 400));
+
+        JTextField filter = new JTextField();
+        JLabel status = new JLabel("Loading...");
+        JPanel top = new JPanel(new BorderLayout(8, 8));
+        top.setBorder(new EmptyBorder(8, 8, 0, 8));
+        top.add(new JLabel("Filter:"), BorderLayout.WEST);
+        top.add(filter, BorderLayout.CENTER);
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.setBorder(new EmptyBorder(4, 8, 8, 8));
+        bottom.add(status, BorderLayout.WEST);
+
+        Runnable showCount = () -> {
+            if (model.getTotal() == 0) status.setText("No records found.");
+            else if (model.getVisible() == null) status.setText(model.getTotal() + " rows");
+            else status.setText(model.getRowCount() + " of " + model.getTotal() + " rows");
+        };
+
+        // one filter pass at a time; a newer keystroke cancels the running one without interrupting
+        // it, since the rows may be read from a paged store whose channel closes on an interrupt
+        List<SwingWorker<int[], Void>> running = new ArrayList<>();
+        Timer debounce = new Timer(250, ev -> {
+            for (SwingWorker<int[], Void> w : running) w.cancel(false);
+            running.clear();
+            String text = filter.getText();
+            List<T> rows = model.getRows();
+            int[] current = model.getVisible();
+            String currentFilter = model.getFilter();
+            status.setText("Filtering...");
+            SwingWorker<int[], Void> w = new SwingWorker<int[], Void>() {
+                @Override protected int[] doInBackground() { return model.computeFilter(rows, current, currentFilter, text, this::isCancelled); }
+                @Override protected void done() {
+                    if (isCancelled() || model.getRows() != rows) return;
+                    try { model.applyFilter(text, get()); showCount.run(); }
+                    catch (Exception ex) { status.setText("Filter error: " + ex.getMessage()); }
+                }
+            };
+            running.add(w);
+            w.execute();
+        });
+        debounce.setRepeats(false);
+        filter.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { debounce.restart(); }
+        });
+
+        new SwingWorker<List<T>, Void>() {
+            // the table needs random access: a snapshot view is copied once, here, off the EDT (lazy
+            // lists, like the record history and paged students, are used as they are)
+            @Override protected List<T> doInBackground() {
+                Collection<T> rows = source.get();
+                return rows instanceof List ? (List<T>) rows : new ArrayList<>(rows);
+            }
+            @Override protected void done() {
+                try { model.setRows(get()); showCount.run(); }
+                catch (Exception ex) { status.setText("Error: " + ex.getMessage()); }
+            }
+        }.execute();
+
+        JDialog dlg = new JDialog(this, title, true);
+        dlg.add(top, BorderLayout.NORTH);
+        dlg.add(sp, BorderLayout.CENTER);
+        dlg.add(bottom, BorderLayout.SOUTH);
+        dlg.pack();
+        dlg.setLocationRelativeTo(this);
+        dlg.setVisible(true);
+        debounce.stop();
+        for (SwingWorker<int[], Void> w : running) w.cancel(false);
+    }
+
+    private void addButtons(JPanel studentGroup, JPanel companyGroup, JPanel skillGroup, JPanel dataGroup, JPanel driveGroup) {
+        Font btnFont = new Font("SansSerif", Font.PLAIN, 14);
+        Dimension btnDim = new Dimension(300, 38);
+
+        JButton addStudent = new JButton("Add Student");
+        JButton editStudent = new JButton("Edit Student");
+        JButton removeStudent = new JButton("Remove Student");
+
+        for (JButton b : new JButton[] { addStudent, editStudent, removeStudent }) {
+            b.setFont(btnFont);
+            b.setPreferredSize(btnDim);
+            studentGroup.add(b);
+        }
+
+        JButton addCompany = new JButton("Add Company");
+        JButton editCompany = new JButton("Edit Company");
+        JButton removeCompany = new JButton("Remove Company");
+        for (JButton b : new JButton[] { addCompany, editCompany, removeCompany }) {
+            b.setFont(btnFont);
+            b.setPreferredSize(btnDim);
+            companyGroup.add(b);
+        }
+
+        JButton addSkill = new JButton("Add Skill to Student");
+        JButton addReqSkill = new JButton("Add Required Skill to Company");
+        for (JButton b : new JButton[] { addSkill, addReqSkill }) {
+            b.setFont(btnFont);
+            b.setPreferredSize(btnDim);
+            skillGroup.add(b);
+        }
+
+        JButton bulkImport = new JButton("Bulk Import (CSV / JSONL)");
+        JButton bulkExport = new JButton("Bulk Export (CSV / JSONL)");
+        for (JButton b : new JButton[] { bulkImport, bulkExport }) {
+            b.setFont(btnFont);
+            b.setPreferredSize(btnDim);
+            dataGroup.add(b);
+        }
+
+        JButton showStudents = new JButton("Show Students");
+        JButton showCompanies = new JButton("Show Companies");
+        JButton eligible = new JButton("Show Eligible Students");
+        JButton drive = new JButton("Start Placement Drive");
+        JButton records = new JButton("Show Placement Records");
+        JButton sorted = new JButton("Show Students Sorted by CGPA");
+        JButton shortlist = new JButton("Show Top Candidates");
+        JButton statistics = new JButton("Show Placement Statistics");
+        JButton allocate = new JButton("Allocate Offers (All Companies)");
+
+        for (JButton b : new JButton[] { showStudents, showCompanies, eligible, drive, allocate, records, sorted, shortlist, statistics }) {
+            b.setFont(btnFont);
+            b.setPreferredSize(btnDim);
+            driveGroup.add(b);
+        }
+
+        // Tooltips
+        addStudent.setToolTipText("Add a new student record (ID, name, branch, CGPA).");
+        editStudent.setToolTipText("Edit existing student details by ID.");
+        removeStudent.setToolTipText("Remove a student by ID.");
+
+        addCompany.setToolTipText("Add a new company.");
+        editCompany.setToolTipText("Edit company details by ID.");
+        removeCompany.setToolTipText("Remove company by ID.");
+
+        addSkill.setToolTipText("Add a skill to a student.");
+        addReqSkill.setToolTipText("Add a required skill to a company.");
+        bulkImport.setToolTipText("Import students, companies or skills from a .csv or .jsonl file.");
+        bulkExport.setToolTipText("Export students, companies or skills to a .csv or .jsonl file.");
+
+        showStudents.setToolTipText("List all students in a popup window.");
+        showCompanies.setToolTipText("List all companies in a popup window.");
+        eligible.setToolTipText("Show students eligible for a given company in popup.");
+        drive.setToolTipText("Run placement interviews for eligible students and show summary.");
+        allocate.setToolTipText("Give each student at most one offer across all companies (stable matching with seat caps).");
+        records.setToolTipText("Show all placement records in a popup.");
+        sorted.setToolTipText("Show students sorted by CGPA (descending) in popup.");
+        shortlist.setToolTipText("Rank a company's eligible students by CGPA margin and skill levels.");
+        statistics.setToolTipText("Selection rate per company, placed students per branch, records per day.");
+
+        // Action listeners: reuse your existing dialog methods
+        addStudent.addActionListener(e -> addStudentDialog());
         editStudent.addActionListener(e -> editStudentDialog());
         removeStudent.addActionListener(e -> removeStudentDialog());
         addCompany.addActionListener(e -> addCompanyDialog());
@@ -490,12 +6445,18 @@ class PlacementGUI extends JFrame {
         removeCompany.addActionListener(e -> removeCompanyDialog());
         addSkill.addActionListener(e -> addSkillDialog());
         addReqSkill.addActionListener(e -> addRequiredSkillDialog());
-        showStudents.addActionListener(e -> showListPopup("All Students", m.getAllStudents()));
-        showCompanies.addActionListener(e -> showListPopup("All Companies", m.getAllCompanies()));
+        bulkImport.addActionListener(e -> bulkDialog(true));
+        bulkExport.addActionListener(e -> bulkDialog(false));
+        showStudents.addActionListener(e -> showTablePopup("All Students", m::getAllStudents, STUDENT_COLUMNS));
+        showCompanies.addActionListener(e -> showTablePopup("All Companies", m::getAllCompanies, COMPANY_COLUMNS));
         eligible.addActionListener(e -> showEligibleStudents());
         drive.addActionListener(e -> startDriveAndShowSummary());
-        records.addActionListener(e -> showListPopup("Placement Records", m.getAllRecords()));
-        sorted.addActionListener(e -> showListPopup("Students by CGPA", m.getSortedByCGPA()));
+        allocate.addActionListener(e -> allocateOffersDialog());
+        // already in date order: the history is append-only
+        records.addActionListener(e -> showTablePopup("Placement Records", m::getAllRecords, RECORD_COLUMNS, false));
+        sorted.addActionListener(e -> showTablePopup("Students by CGPA", m::getSortedByCGPA, STUDENT_COLUMNS));
+        shortlist.addActionListener(e -> showShortlist());
+        statistics.addActionListener(e -> showPopup("Placement Statistics", m.getStats().toString()));
     }
 
     private JSpinner createCgpaSpinner(double initial, boolean unusedRtl) {
@@ -514,6 +6475,99 @@ class PlacementGUI extends JFrame {
         return spinner;
     }
 
+    /* ID prompt with search-as-you-type: typing part of a name, skill, branch or id lists the best
+       matches (searched off the EDT 250 ms after the last keystroke; a newer keystroke cancels the
+       running search and an answer to an older one is dropped). Returns the picked row's id, or
+       the text itself when nothing is listed; null if cancelled. */
+    private String askStudentId(String prompt) {
+        return askId(prompt, "Find Student", q -> m.searchStudents(q, SEARCH_ROWS), Student::getId,
+                s -> s.getId() + "  " + s.getName() + "  |  " + s.getBranch() + "  |  CGPA " + String.format("%.2f", s.getCgpa()));
+    }
+    private String askCompanyId(String prompt) {
+        return askId(prompt, "Find Company", q -> m.searchCompanies(q, SEARCH_ROWS), Company::getId,
+                c -> c.getId() + "  " + c.getName() + "  |  " + c.getRole() + "  |  Min CGPA " + String.format("%.2f", c.getMinCgpa()));
+    }
+    private static final int SEARCH_ROWS = 50;
+
+    private <T> String askId(String prompt, String title, Function<String, List<T>> search, Function<T, String> idOf, Function<T, String> label) {
+        JTextField query = new JTextField(30);
+        DefaultListModel<String> rows = new DefaultListModel<>();
+        List<String> ids = new ArrayList<>();
+        JList<String> list = new JList<>(rows);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane sp = new JScrollPane(list);
+        sp.setPreferredSize(new Dimension(560, 240));
+        JLabel status = new JLabel("Type a name, skill, branch or ID.");
+
+        // one search at a time, like the table filter; never interrupted, since a paged store's
+        // channel closes when a thread reading it is interrupted
+        AtomicInteger latest = new AtomicInteger();
+        List<SwingWorker<List<T>, Void>> running = new ArrayList<>();
+        Timer debounce = new Timer(250, ev -> {
+            for (SwingWorker<List<T>, Void> w : running) w.cancel(false);
+            running.clear();
+            String text = query.getText();
+            int seq = latest.incrementAndGet();
+            SwingWorker<List<T>, Void> w = new SwingWorker<List<T>, Void>() {
+                @Override protected List<T> doInBackground() { return text.trim().isEmpty() ? Collections.<T>emptyList() : search.apply(text); }
+                @Override protected void done() {
+                    if (isCancelled() || seq != latest.get()) return;
+                    try {
+                        List<T> found = get();
+                        rows.clear();
+                        ids.clear();
+                        for (T x : found) { rows.addElement(label.apply(x)); ids.add(idOf.apply(x)); }
+                        if (!found.isEmpty()) list.setSelectedIndex(0);
+                        status.setText(text.trim().isEmpty() ? "Type a name, skill, branch or ID." : found.isEmpty() ? "No matches; the text is used as the ID."
+                                : found.size() + (found.size() == SEARCH_ROWS ? "+" : "") + " matches");
+                    } catch (Exception ex) { status.setText("Search error: " + ex.getMessage()); }
+                }
+            };
+            running.add(w);
+            w.execute();
+        });
+        debounce.setRepeats(false);
+        query.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { debounce.restart(); }
+        });
+        // arrows in the text field move through the list; Enter is the dialog's OK, a double click too
+        query.getInputMap().put(KeyStroke.getKeyStroke("DOWN"), "pick-next");
+        query.getInputMap().put(KeyStroke.getKeyStroke("UP"), "pick-previous");
+        query.getActionMap().put("pick-next", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { move(list, 1); }
+        });
+        query.getActionMap().put("pick-previous", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { move(list, -1); }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() < 2) return;
+                JOptionPane pane = (JOptionPane) SwingUtilities.getAncestorOfClass(JOptionPane.class, list);
+                if (pane != null) pane.setValue(JOptionPane.OK_OPTION);
+            }
+        });
+
+        Object[] f = { prompt, query, sp, status };
+        int res = showDialogWithFocus(f, title, query, true);
+        debounce.stop();
+        for (SwingWorker<List<T>, Void> w : running) w.cancel(false);
+        latest.incrementAndGet();
+        if (res != JOptionPane.OK_OPTION) return null;
+        int sel = list.getSelectedIndex();
+        if (sel >= 0 && sel < ids.size()) return ids.get(sel);
+        return query.getText();
+    }
+    private static void move(JList<String> list, int by) {
+        int n = list.getModel().getSize();
+        if (n == 0) return;
+        int i = Math.max(0, Math.min(n - 1, list.getSelectedIndex() + by));
+        list.setSelectedIndex(i);
+        list.ensureIndexIsVisible(i);
+    }
+
     private int showDialogWithFocus(Object[] components, String title, final JComponent focusComponent,
             final boolean focusCaretAtEnd) {
         JOptionPane pane = new JOptionPane(components, JOptionPane.PLAIN_MESSAGE, JOptionPane.OK_CANCEL_OPTION);
@@ -552,26 +6606,121 @@ class PlacementGUI extends JFrame {
         return JOptionPane.CLOSED_OPTION;
     }
 
-    private void addStudentDialog() {
+    private void addStudentDialog() {
+        JTextField id = new JTextField();
+        JTextField name = new JTextField();
+        id.setInputVerifier(idVerifier);
+        name.setInputVerifier(nameVerifier);
+        JComboBox<String> branchCombo = new JComboBox<>(PlacementManager.BRANCHES);
+        branchCombo.setSelectedIndex(0);
+
+        // CGPA spinner (left aligned)
+        JSpinner cgpaSpinner = createCgpaSpinner(8.00, false);
+
+        Object[] f = { "ID:", id, "Name:", name, "Branch:", branchCombo, "CGPA:", cgpaSpinner };
+        int res = showDialogWithFocus(f, "Add Student", cgpaSpinner, false);
+
+        if (res == JOptionPane.OK_OPTION) {
+            try {
+                String sid = id.getText() == null ? "" : id.getText().trim();
+                String sname = name.getText() == null ? "" : name.getText().trim();
+                if (sid.isEmpty() || sname.isEmpty()) {
+                    showPopup("Input required", "Student ID and Name are required. Please provide both.");
+                    return;
+                }
+
+                if (!idVerifier.verify(id)) { idVerifier.shouldYieldFocus(id); return; }
+                if (!nameVerifier.verify(name)) { nameVerifier.shouldYieldFocus(name); return; }
+
+                JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
+                InputVerifier v = tf.getInputVerifier();
+                if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+
+                String sbranch = (String) branchCombo.getSelectedItem();
+                float val = ((Number) cgpaSpinner.getValue()).floatValue();
+
+                Student s = new Student(sid, sname, sbranch, val);
+                m.addStudent(s);
+                showPopup("Student Added", "Student added:\n" + s.toString());
+
+            } catch (InvalidDataException ide) {
+                showPopup("Error", ide.getMessage());
+            } catch (Exception e) {
+                showPopup("Error", "Error adding student: " + e.getMessage());
+            }
+        }
+    }
+
+    private void editStudentDialog() {
+        String idVal = askStudentId("Student ID or search:");
+        if (idVal == null || idVal.trim().isEmpty()) return;
+        try {
+            Student sOld = m.getStudent(idVal.trim());
+            JLabel idLabel = new JLabel(idVal.trim());
+            JTextField nameField = new JTextField(sOld.getName());
+            nameField.setInputVerifier(nameVerifier);
+            JComboBox<String> branchCombo = new JComboBox<>(PlacementManager.BRANCHES);
+            branchCombo.setSelectedItem(sOld.getBranch());
+            JSpinner cgpaSpinner = createCgpaSpinner(sOld.getCgpa(), false);
+
+            Object[] f = { "ID:", idLabel, "Name:", nameField, "Branch:", branchCombo, "CGPA:", cgpaSpinner };
+            int res = showDialogWithFocus(f, "Edit Student - " + idVal.trim(), cgpaSpinner, false);
+            if (res != JOptionPane.OK_OPTION) { showPopup("Info", "Operation cancelled."); return; }
+
+            if (nameField.getText() == null || nameField.getText().trim().isEmpty()) {
+                showPopup("Input required", "Name is required.");
+                return;
+            }
+            if (!nameVerifier.verify(nameField)) { nameVerifier.shouldYieldFocus(nameField); return; }
+
+            JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
+            InputVerifier v = tf.getInputVerifier();
+            if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+
+            String newName = nameField.getText().trim();
+            String newBranch = (String) branchCombo.getSelectedItem();
+            float val = ((Number) cgpaSpinner.getValue()).floatValue();
+
+            Student sNew = new Student(idVal.trim(), newName, newBranch, val);
+            for (Skill sk : sOld.getSkills()) sNew.addSkill(sk);
+
+            m.updateStudent(idVal.trim(), sNew);
+            showPopup("Student Updated", "Updated:\n" + sNew.toString());
+        } catch (RecordNotFoundException rnfe) {
+            showPopup("Error", rnfe.getMessage());
+        } catch (Exception e) {
+            showPopup("Error", "Error updating student: " + e.getMessage());
+        }
+    }
+
+    private void removeStudentDialog() {
+        String id = askStudentId("Student to remove (ID or search):");
+        if (id == null || id.trim().isEmpty()) return;
+        m.removeStudent(id.trim());
+        showPopup("Student Removed", "Student removed (if existed): " + id.trim());
+    }
+
+    private void addCompanyDialog() {
         JTextField id = new JTextField();
         JTextField name = new JTextField();
+        JTextField role = new JTextField();
+        JTextField rule = new JTextField();
+        rule.setToolTipText("Optional, e.g. branch in (\"Information Technology\") and any (Java, Go) >= High and not placed");
+        JTextField interviews = new JTextField();
+        interviews.setToolTipText(INTERVIEWS_TIP);
         id.setInputVerifier(idVerifier);
         name.setInputVerifier(nameVerifier);
-        JComboBox<String> branchCombo = new JComboBox<>(BRANCHES);
-        branchCombo.setSelectedIndex(0);
-
-        // CGPA spinner (left aligned)
-        JSpinner cgpaSpinner = createCgpaSpinner(8.00, false);
-
-        Object[] f = { "ID:", id, "Name:", name, "Branch:", branchCombo, "CGPA:", cgpaSpinner };
-        int res = showDialogWithFocus(f, "Add Student", cgpaSpinner, false);
+        JSpinner cgpaSpinner = createCgpaSpinner(7.00, false);
 
+        Object[] f = { "ID:", id, "Name:", name, "Role:", role, "Min CGPA:", cgpaSpinner, "Rule (optional):", rule, "Interviews (optional):", interviews };
+        int res = showDialogWithFocus(f, "Add Company", cgpaSpinner, false);
         if (res == JOptionPane.OK_OPTION) {
             try {
-                String sid = id.getText() == null ? "" : id.getText().trim();
-                String sname = name.getText() == null ? "" : name.getText().trim();
-                if (sid.isEmpty() || sname.isEmpty()) {
-                    showPopup("Input required", "Student ID and Name are required. Please provide both.");
+                // explicit empty checks
+                String cid = id.getText() == null ? "" : id.getText().trim();
+                String cname = name.getText() == null ? "" : name.getText().trim();
+                if (cid.isEmpty() || cname.isEmpty()) {
+                    showPopup("Input required", "Company ID and Name are required. Please provide both.");
                     return;
                 }
 
@@ -582,240 +6731,1521 @@ class PlacementGUI extends JFrame {
                 InputVerifier v = tf.getInputVerifier();
                 if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
 
-                String sbranch = (String) branchCombo.getSelectedItem();
+                String crole = role.getText().trim();
                 float val = ((Number) cgpaSpinner.getValue()).floatValue();
 
-                Student s = new Student(sid, sname, sbranch, val);
-                m.addStudent(s);
-                m.saveAll();
-                showPopup("Student Added", "Student added:\n" + s.toString());
-
+                Company c = new Company(cid, cname, crole, val);
+                c.setRule(rule.getText());
+                c.setInterviewPlan(interviews.getText());
+                m.addCompany(c);
+                showPopup("Company Added", "Company added:\n" + c.toString());
             } catch (InvalidDataException ide) {
                 showPopup("Error", ide.getMessage());
             } catch (Exception e) {
-                showPopup("Error", "Error adding student: " + e.getMessage());
+                showPopup("Error", "Error adding company: " + e.getMessage());
+            }
+        }
+    }
+
+    private void editCompanyDialog() {
+        String idVal = askCompanyId("Company ID or search:");
+        if (idVal == null || idVal.trim().isEmpty()) return;
+        try {
+            Company old = m.getCompany(idVal.trim());
+            JLabel idLabel = new JLabel(idVal.trim());
+            JTextField nameField = new JTextField(old.getName());
+            nameField.setInputVerifier(nameVerifier);
+            JTextField roleField = new JTextField(old.getRole());
+            JSpinner cgpaSpinner = createCgpaSpinner(old.getMinCgpa(), false);
+            JTextField ruleField = new JTextField(old.getRule() == null ? "" : old.getRule());
+            JTextField interviewsField = new JTextField(old.getInterviews() == null ? "" : old.getInterviews());
+            interviewsField.setToolTipText(INTERVIEWS_TIP);
+
+            Object[] f = { "ID:", idLabel, "Name:", nameField, "Role:", roleField, "Min CGPA:", cgpaSpinner, "Rule (optional):", ruleField,
+                    "Interviews (optional):", interviewsField };
+            int res = showDialogWithFocus(f, "Edit Company - " + idVal.trim(), cgpaSpinner, false);
+            if (res != JOptionPane.OK_OPTION) { showPopup("Info", "Operation cancelled."); return; }
+
+            if (nameField.getText() == null || nameField.getText().trim().isEmpty()) {
+                showPopup("Input required", "Name is required.");
+                return;
+            }
+            if (!nameVerifier.verify(nameField)) { nameVerifier.shouldYieldFocus(nameField); return; }
+
+            JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
+            InputVerifier v = tf.getInputVerifier();
+            if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+
+            String newName = nameField.getText().trim();
+            String newRole = roleField.getText().trim();
+            float val = ((Number) cgpaSpinner.getValue()).floatValue();
+
+            Company updated = new Company(idVal.trim(), newName, newRole, val);
+            for (Skill sk : old.getRequiredSkills()) updated.addRequiredSkill(sk);
+            updated.setRule(ruleField.getText());
+            updated.setInterviewPlan(interviewsField.getText());
+
+            m.updateCompany(idVal.trim(), updated);
+            showPopup("Company Updated", "Updated:\n" + updated.toString());
+        } catch (RecordNotFoundException rnfe) {
+            showPopup("Error", rnfe.getMessage());
+        } catch (Exception e) {
+            showPopup("Error", "Error updating company: " + e.getMessage());
+        }
+    }
+
+    private void removeCompanyDialog() {
+        String id = askCompanyId("Company to remove (ID or search):");
+        if (id == null || id.trim().isEmpty()) return;
+        m.removeCompany(id.trim());
+        showPopup("Company Removed", "Company removed (if existed): " + id.trim());
+    }
+
+    private void addSkillDialog() {
+        String sid = askStudentId("Student ID or search:");
+        if (sid == null || sid.trim().isEmpty()) return;
+        try {
+            Student s = m.getStudent(sid.trim());
+            String skill = JOptionPane.showInputDialog(this, "Skill name:");
+            if (skill == null || skill.trim().isEmpty()) { showPopup("Info", "No skill entered. Operation cancelled."); return; }
+            String[] options = { "Low", "High" };
+            int sel = JOptionPane.showOptionDialog(this, "Select skill level for \"" + skill.trim() + "\":",
+                    "Skill Level", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+            if (sel < 0) { showPopup("Info", "Operation cancelled."); return; }
+            String level = options[sel];
+            m.addSkill(s.getId(), new Skill(skill.trim(), level));
+            showPopup("Skill Added", "Skill added to " + s.getName() + " (" + level + ")");
+        } catch (RecordNotFoundException rnfe) {
+            showPopup("Error", rnfe.getMessage());
+        } catch (Exception e) {
+            showPopup("Error", "Error adding skill: " + e.getMessage());
+        }
+    }
+
+    private void addRequiredSkillDialog() {
+        String cid = askCompanyId("Company ID or search:");
+        if (cid == null || cid.trim().isEmpty()) return;
+        try {
+            Company c = m.getCompany(cid.trim());
+            String skill = JOptionPane.showInputDialog(this, "Required skill:");
+            if (skill == null || skill.trim().isEmpty()) { showPopup("Info", "No skill entered. Operation cancelled."); return; }
+            String[] options = { "Low", "High" };
+            int sel = JOptionPane.showOptionDialog(this, "Select preferred level for \"" + skill.trim() + "\":",
+                    "Preferred Skill Level", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+            if (sel < 0) { showPopup("Info", "Operation cancelled."); return; }
+            String level = options[sel];
+            m.addRequiredSkill(c.getId(), new Skill(skill.trim(), level));
+            showPopup("Skill Added", "Skill added to " + c.getName() + " (" + level + ")");
+        } catch (RecordNotFoundException rnfe) {
+            showPopup("Error", rnfe.getMessage());
+        } catch (Exception e) {
+            showPopup("Error", "Error adding required skill: " + e.getMessage());
+        }
+    }
+
+    // file work runs in a SwingWorker; the dialog only picks kind and file, then shows the report
+    private void bulkDialog(boolean importing) {
+        BulkIO.Kind[] kinds = BulkIO.Kind.values();
+        String[] options = { "Students", "Companies", "Skills" };
+        int sel = JOptionPane.showOptionDialog(this, (importing ? "Import" : "Export") + " which data?",
+                importing ? "Bulk Import" : "Bulk Export", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (sel < 0) return;
+        BulkIO.Kind kind = kinds[sel];
+        JFileChooser fc = new JFileChooser(new File("."));
+        fc.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV or JSON lines", "csv", "jsonl", "json"));
+        if (!importing) fc.setSelectedFile(new File(options[sel].toLowerCase(Locale.ROOT) + ".csv"));
+        int r = importing ? fc.showOpenDialog(this) : fc.showSaveDialog(this);
+        if (r != JFileChooser.APPROVE_OPTION) return;
+        File f = fc.getSelectedFile();
+        new SwingWorker<String, Void>() {
+            @Override protected String doInBackground() throws Exception {
+                if (importing) return BulkIO.importFile(m, kind, f).toString();
+                return "Exported " + BulkIO.exportFile(m, kind, f) + " rows to " + f.getPath();
+            }
+            @Override protected void done() {
+                try { showPopup(importing ? "Import Report" : "Export", get()); }
+                catch (Exception e) { showPopup("Error", "Bulk " + (importing ? "import" : "export") + " failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage())); }
+            }
+        }.execute();
+    }
+
+    private void showEligibleStudents() {
+        String cid = askCompanyId("Company ID or search:");
+        if (cid == null || cid.trim().isEmpty()) return;
+        try {
+            String id = m.getCompany(cid.trim()).getId();
+            showTablePopup("Eligible Students for " + id, () -> {
+                try { return m.getEligibleStudents(id); }
+                catch (RecordNotFoundException e) { throw new IllegalStateException(e.getMessage()); }
+            }, STUDENT_COLUMNS);
+        } catch (Exception e) {
+            showPopup("Error", "Error: " + e.getMessage());
+        }
+    }
+
+    private void showShortlist() {
+        String cid = askCompanyId("Company ID or search:");
+        if (cid == null || cid.trim().isEmpty()) return;
+        String k = JOptionPane.showInputDialog(this, "How many candidates?", "50");
+        if (k == null) return;
+        try {
+            String id = m.getCompany(cid.trim()).getId();
+            int top = Integer.parseInt(k.trim());
+            showTablePopup("Top " + top + " Candidates for " + id, () -> {
+                try { return m.getShortlist(id, top); }
+                catch (RecordNotFoundException e) { throw new IllegalStateException(e.getMessage()); }
+            }, CANDIDATE_COLUMNS);
+        } catch (NumberFormatException e) {
+            showPopup("Error", "Please enter a whole number of candidates.");
+        } catch (Exception e) {
+            showPopup("Error", "Error: " + e.getMessage());
+        }
+    }
+
+    // seats per company and an optional preferences file; the allocation itself runs off the EDT
+    private void allocateOffersDialog() {
+        String n = JOptionPane.showInputDialog(this, "Seats per company:", "10");
+        if (n == null) return;
+        int seats;
+        try { seats = Integer.parseInt(n.trim()); }
+        catch (NumberFormatException e) { showPopup("Error", "Please enter a whole number of seats."); return; }
+        if (seats <= 0) { showPopup("Error", "Seats must be at least 1."); return; }
+        File prefs = null;
+        int choice = JOptionPane.showConfirmDialog(this, "Load student preferences from a file?\n"
+                + "(studentId,companyA;companyB per line, CSV or JSONL)\nNo: students rank the most selective companies first.",
+                "Student Preferences", JOptionPane.YES_NO_CANCEL_OPTION);
+        if (choice == JOptionPane.CANCEL_OPTION || choice == JOptionPane.CLOSED_OPTION) return;
+        if (choice == JOptionPane.YES_OPTION) {
+            JFileChooser fc = new JFileChooser(new File("."));
+            fc.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV or JSON lines", "csv", "jsonl", "json"));
+            if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            prefs = fc.getSelectedFile();
+        }
+        File file = prefs;
+        new SwingWorker<String, Void>() {
+            @Override protected String doInBackground() throws Exception {
+                Map<String, Integer> caps = new HashMap<>();
+                for (Company c : m.getAllCompanies()) caps.put(c.getId(), seats);
+                return m.allocateOffers(caps, file == null ? null : OfferAllocator.readPreferences(file)).toString();
+            }
+            @Override protected void done() {
+                try { showPopup("Offer Allocation", get()); }
+                catch (Exception e) { showPopup("Error", "Allocation failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage())); }
+            }
+        }.execute();
+    }
+
+    // the drive runs on the scheduler; this non-modal window only polls its results, so several can run at once
+    private void startDriveAndShowSummary() {
+        String cid = askCompanyId("Company for the drive (ID or search):");
+        if (cid == null || cid.trim().isEmpty()) return;
+        try {
+            Company c = m.getCompany(cid.trim());
+            List<Student> eligible = m.getEligibleStudents(cid.trim());
+            if (eligible.isEmpty()) { showPopup("Drive Summary", "No eligible students!"); return; }
+            DriveHandle h = drives.start(c, eligible, m);
+
+            JTextArea area = new JTextArea("Placement Drive Results for company: " + c.getName() + " (" + c.getId() + ")\n"
+                    + h.getTimetable().summary() + "\n\n");
+            area.setEditable(false);
+            area.setFont(new Font("Monospaced", Font.PLAIN, 12));
+            JScrollPane sp = new JScrollPane(area);
+            sp.setPreferredSize(new Dimension(700, 400));
+            JProgressBar bar = new JProgressBar(0, h.getTotal());
+            bar.setStringPainted(true);
+            JButton cancel = new JButton("Cancel Drive");
+            JButton dropOut = new JButton("Drop Candidate");
+            JPanel buttons = new JPanel(new GridLayout(1, 0, 8, 8));
+            buttons.add(dropOut);
+            buttons.add(cancel);
+            JPanel bottom = new JPanel(new BorderLayout(8, 8));
+            bottom.setBorder(new EmptyBorder(8, 8, 8, 8));
+            bottom.add(bar, BorderLayout.CENTER);
+            bottom.add(buttons, BorderLayout.EAST);
+
+            JDialog dlg = new JDialog(this, "Drive Summary - " + c.getName(), false);
+            dlg.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+            dlg.add(sp, BorderLayout.CENTER);
+            dlg.add(bottom, BorderLayout.SOUTH);
+            dlg.pack();
+            dlg.setLocationRelativeTo(this);
+
+            List<DriveResult> batch = new ArrayList<>();
+            Timer poll = new Timer(100, null);
+            poll.addActionListener(ev -> {
+                batch.clear();
+                if (h.drainTo(batch) > 0) {
+                    StringBuilder sb = new StringBuilder();
+                    for (DriveResult r : batch) sb.append(r).append("\n");
+                    area.append(sb.toString());
+                }
+                bar.setMaximum(h.getTotal());
+                bar.setValue(h.getDone());
+                bar.setString(h.getDone() + " / " + h.getTotal());
+                if (h.isFinished()) {
+                    poll.stop();
+                    area.append(h.isCancelled() ? "\nDrive cancelled.\n" : "\nDrive complete.\n");
+                    cancel.setText("Close");
+                    dropOut.setEnabled(false);
+                }
+            });
+            // the rest of the timetable stays as it is; only the freed seat is handed on
+            dropOut.addActionListener(ev -> {
+                String sid = JOptionPane.showInputDialog(dlg, "Student ID dropping out:");
+                if (sid == null || sid.trim().isEmpty() || h.isFinished()) return;
+                boolean seated = h.getTimetable().isBooked(sid.trim());
+                InterviewTimetable.Slot in = drives.drop(h, sid.trim());
+                if (in != null) area.append("Dropped " + sid.trim() + "; seat taken by " + in + "\n");
+                else if (seated && !h.getTimetable().isBooked(sid.trim())) area.append("Dropped " + sid.trim() + "; nobody waitlisted is free then\n");
+                else area.append(sid.trim() + " has no interview waiting in this drive\n");
+            });
+            cancel.addActionListener(ev -> { if (h.isFinished()) dlg.dispose(); else h.cancel(); });
+            dlg.addWindowListener(new WindowAdapter() {
+                @Override public void windowClosed(WindowEvent e) { poll.stop(); }
+            });
+            poll.start();
+            dlg.setVisible(true);
+        } catch (Exception e) {
+            showPopup("Error", "Error: " + e.getMessage());
+        }
+    }
+}
+
+/* Headless HTTP/JSON front end over a PlacementManager, started with
+     java PlacementManagementSystem --serve [port]
+   Reads run straight on the request pool against the manager's concurrent maps and index (no global
+   lock); every mutation is handed to one writer thread, so writes apply in arrival order.
+     GET    /health
+     GET    /students[?offset=&limit=&branch=]     GET/PUT/DELETE /students/{id}     POST /students
+     POST   /students/{id}/skills                   {"skill":"Java","level":"High"}
+     GET    /companies[?offset=&limit=]             GET/PUT/DELETE /companies/{id}    POST /companies
+     POST   /companies/{id}/skills                  GET /companies/{id}/eligible
+     GET    /companies/{id}/shortlist[?k=50&optional=Go;Rust]   top-k by CandidateScorer
+     POST   /companies/{id}/drive                   runs the drive, answers with each interview's result,
+                                                    start time and panel (the company's interview plan)
+     GET    /records[?student=&company=&offset=&limit=]
+     GET    /metrics                                latency histograms and counters (see Metrics)
+   Request bodies are flat JSON objects with the bulk import field names (BulkIO). */
+class PlacementServer {
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_LIMIT = 1000;
+
+    private final PlacementManager m;
+    private final HttpServer http;
+    private final ExecutorService readers;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "http-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final DriveScheduler drives = new DriveScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()), 0);
+    // set when this instance is one shard of a ShardRouter deployment
+    private int shard, shardCount = 1;
+
+    // thrown by handlers to answer with a given status
+    static class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        HttpError(int status, String msg) { super(msg); this.status = status; }
+    }
+    interface Write<T> { T run() throws Exception; }
+
+    // a complete response other than JSON: newline-delimited rows, or a reply forwarded from a shard
+    static class Reply {
+        final int status;
+        final String type;
+        final byte[] body;
+        Reply(int status, String type, byte[] body) { this.status = status; this.type = type; this.body = body; }
+    }
+    // a 200 JSON body written while it is produced, sent chunked; a failure part way leaves it unterminated
+    interface Streamed { void writeTo(Writer out) throws IOException; }
+
+    PlacementServer(PlacementManager m, int port, int threads) throws IOException {
+        this.m = m;
+        AtomicInteger n = new AtomicInteger();
+        readers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        http = HttpServer.create(new InetSocketAddress(port), 256);
+        http.setExecutor(readers);
+        http.createContext("/health", ex -> handle(ex, this::health));
+        http.createContext("/students", ex -> handle(ex, this::students));
+        http.createContext("/companies", ex -> handle(ex, this::companies));
+        http.createContext("/records", ex -> handle(ex, this::records));
+        http.createContext("/metrics", ex -> handle(ex, (e, path) -> metrics()));
+        http.createContext("/stats", ex -> handle(ex, (e, path) -> m.getStats().toJson()));
+    }
+
+    void start() { http.start(); }
+    int getPort() { return http.getAddress().getPort(); }
+    void stop() {
+        http.stop(0);
+        readers.shutdownNow();
+        writer.shutdown();
+        drives.shutdown();
+    }
+
+    // serve as shard index of count: student writes for ids hashed to another shard are refused
+    void ownShard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) throw new IllegalArgumentException("Bad shard " + index + "/" + count);
+        shard = index;
+        shardCount = count;
+    }
+    private void owned(String studentId) throws HttpError {
+        if (shardCount > 1 && ShardRouter.shardOf(studentId, shardCount) != shard)
+            throw new HttpError(421, "Student " + studentId + " belongs to shard " + ShardRouter.shardOf(studentId, shardCount) + ", not " + shard);
+    }
+
+    // a route answers with a JSON string (200, or 201 for a POST to a collection), a Reply or a Streamed body
+    interface Route { Object handle(HttpExchange ex, String[] path) throws Exception; }
+
+    static void handle(HttpExchange ex, Route route) throws IOException {
+        int status = 200;
+        String type = "application/json; charset=utf-8";
+        Object body;
+        try {
+            String[] path = ex.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+            body = route.handle(ex, path);
+            if (body instanceof String && ex.getRequestMethod().equals("POST") && path.length == 1) status = 201;
+        } catch (HttpError e) {
+            status = e.status; body = error(e.getMessage());
+        } catch (RecordNotFoundException e) {
+            status = 404; body = error(e.getMessage());
+        } catch (InvalidDataException | IllegalArgumentException e) {
+            status = 400; body = error(e.getMessage());
+        } catch (Exception e) {
+            status = 500; body = error(String.valueOf(e));
+        }
+        if (body instanceof Streamed) {
+            ex.getResponseHeaders().set("Content-Type", type);
+            ex.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8))) {
+                ((Streamed) body).writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                ex.close();
+            }
+            return;
+        }
+        byte[] out;
+        if (body instanceof Reply) {
+            Reply r = (Reply) body;
+            status = r.status; type = r.type; out = r.body;
+        } else out = ((String) body).getBytes(StandardCharsets.UTF_8);
+        if (type != null) ex.getResponseHeaders().set("Content-Type", type);
+        ex.sendResponseHeaders(status, out.length == 0 ? -1 : out.length);
+        try (OutputStream os = ex.getResponseBody()) { os.write(out); }
+    }
+
+    // queues a mutation behind all earlier ones and waits for it to be applied and durable
+    private <T> T write(Write<T> w) throws Exception {
+        Future<T> f = writer.submit(w::run);
+        try { return f.get(); }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+    // drive records: a failed write becomes that interview's result
+    private void writeRecord(PlacementRecord r) {
+        try { write(() -> { m.addPlacementRecord(r); return null; }); }
+        catch (RuntimeException e) { throw e; }
+        catch (Exception e) { throw new IllegalStateException(e.getMessage(), e); }
+    }
+
+    /* ---- routes ---- */
+    private String health(HttpExchange ex, String[] path) {
+        return "{\"status\":\"ok\",\"students\":" + m.getStudentCount() + ",\"companies\":" + m.getCompanyCount()
+                + ",\"records\":" + m.getRecordCount() + (shardCount > 1 ? ",\"shard\":\"" + shard + "/" + shardCount + "\"" : "") + "}";
+    }
+
+    static String metrics() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Object> e : Metrics.snapshot().entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            Object v = e.getValue();
+            sb.append(BulkIO.json(e.getKey())).append(':').append(v instanceof String ? BulkIO.json((String) v) : String.valueOf(v));
+        }
+        return sb.append('}').toString();
+    }
+
+    private Object students(HttpExchange ex, String[] path) throws Exception {
+        String method = ex.getRequestMethod();
+        Map<String, String> q = query(ex);
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                String branch = q.get("branch");
+                if (lines(q)) {
+                    int n = (int) Math.min(Integer.MAX_VALUE, (long) intParam(q, "offset", 0) + intParam(q, "limit", DEFAULT_LIMIT));
+                    return rows(page(branch == null ? m.getTopByCGPA(n) : m.getTopByCGPA(branch, n), q), BulkIO::row);
+                }
+                Collection<Student> all = branch == null ? m.getAllStudents() : m.getSortedByCGPA(branch);
+                return array(page(all, q), PlacementServer::student);
+            }
+            if (method.equals("POST")) {
+                Student s = (Student) BulkIO.parseRow(BulkIO.Kind.STUDENTS, body(ex));
+                owned(s.getId());
+                write(() -> { m.addStudent(s); return null; });
+                return student(s);
+            }
+        } else if (path.length == 2) {
+            String id = path[1];
+            if (method.equals("GET")) return student(m.getStudent(id));
+            if (method.equals("PUT")) {
+                Map<String, String> f = body(ex);
+                f.put("id", id);
+                Student s = (Student) BulkIO.parseRow(BulkIO.Kind.STUDENTS, f);
+                owned(id);
+                write(() -> { m.updateStudent(id, s); return null; });
+                return student(s);
+            }
+            if (method.equals("DELETE")) {
+                m.getStudent(id);
+                write(() -> { m.removeStudent(id); return null; });
+                return "{}";
+            }
+        } else if (path.length == 3 && path[2].equals("skills") && method.equals("POST")) {
+            Map<String, String> f = body(ex);
+            Skill sk = BulkIO.skill(f);
+            owned(path[1]);
+            write(() -> { m.addSkill(path[1], sk); return null; });
+            return student(m.getStudent(path[1]));
+        }
+        throw new HttpError(path.length <= 3 ? 405 : 404, method + " not supported on " + ex.getRequestURI().getPath());
+    }
+
+    private Object companies(HttpExchange ex, String[] path) throws Exception {
+        String method = ex.getRequestMethod();
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                Map<String, String> q = query(ex);
+                List<Company> page = page(m.getAllCompanies(), q);
+                return lines(q) ? rows(page, BulkIO::row) : array(page, PlacementServer::company);
+            }
+            if (method.equals("POST")) {
+                Company c = (Company) BulkIO.parseRow(BulkIO.Kind.COMPANIES, body(ex));
+                write(() -> { m.addCompany(c); return null; });
+                return company(c);
+            }
+        } else if (path.length == 2) {
+            String id = path[1];
+            if (method.equals("GET")) return company(m.getCompany(id));
+            if (method.equals("PUT")) {
+                Map<String, String> f = body(ex);
+                f.put("id", id);
+                Company c = (Company) BulkIO.parseRow(BulkIO.Kind.COMPANIES, f);
+                write(() -> { m.updateCompany(id, c); return null; });
+                return company(c);
+            }
+            if (method.equals("DELETE")) {
+                m.getCompany(id);
+                write(() -> { m.removeCompany(id); return null; });
+                return "{}";
+            }
+        } else if (path.length == 3) {
+            String id = path[1];
+            if (path[2].equals("eligible") && method.equals("GET")) {
+                Map<String, String> q = query(ex);
+                List<Student> eligible = m.getEligibleStudents(id);
+                if (!lines(q)) return array(page(eligible, q), PlacementServer::student);
+                eligible.sort(PlacementManager.CGPA_ORDER);
+                return rows(page(eligible, q), BulkIO::row);
+            }
+            if (path[2].equals("shortlist") && method.equals("GET")) {
+                Map<String, String> q = query(ex);
+                List<Skill> optional = new ArrayList<>();
+                String opt = q.get("optional");
+                if (opt != null) for (String name : opt.split(";")) if (!name.trim().isEmpty()) optional.add(new Skill(name.trim(), "Low"));
+                List<CandidateScorer.Candidate> top = m.getShortlist(id, intParam(q, "k", 50), optional);
+                if (lines(q)) return rows(top, cand -> "{\"score\":\"" + cand.getScore() + "\"," + BulkIO.row(cand.getStudent()).substring(1));
+                return array(top, PlacementServer::candidate);
+            }
+            if (path[2].equals("skills") && method.equals("POST")) {
+                Map<String, String> f = body(ex);
+                Skill sk = BulkIO.skill(f);
+                write(() -> { m.addRequiredSkill(id, sk); return null; });
+                return company(m.getCompany(id));
+            }
+            if (path[2].equals("drive") && method.equals("POST")) {
+                // the drive runs on its own pool; each record joins the writer queue, so other writes interleave
+                Company c = m.getCompany(id);
+                DriveHandle h;
+                try { h = drives.start(c, m.getEligibleStudents(id), this::writeRecord, shard, shardCount); }
+                catch (IllegalStateException e) { throw new HttpError(409, e.getMessage()); }
+                h.await();
+                List<DriveResult> results = new ArrayList<>();
+                h.drainTo(results);
+                return array(results, r -> "{\"studentId\":" + BulkIO.json(r.student.getId()) + ",\"status\":" + BulkIO.json(r.status)
+                        + ",\"start\":" + BulkIO.json(InterviewPlan.clock(r.slot.start)) + ",\"panel\":" + (r.slot.panel + 1) + "}");
+            }
+        }
+        throw new HttpError(path.length <= 3 ? 405 : 404, method + " not supported on " + ex.getRequestURI().getPath());
+    }
+
+    private Object records(HttpExchange ex, String[] path) throws Exception {
+        if (path.length != 1 || !ex.getRequestMethod().equals("GET")) throw new HttpError(405, "Only GET /records");
+        Map<String, String> q = query(ex);
+        int offset = intParam(q, "offset", 0), limit = intParam(q, "limit", DEFAULT_LIMIT);
+        if (!lines(q)) return array(m.getRecords(q.get("student"), q.get("company"), offset, limit), PlacementServer::record);
+        List<PlacementRecord> out = m.getRecordsByDate(q.get("student"), q.get("company"), (int) Math.min(Integer.MAX_VALUE, (long) offset + limit));
+        return rows(out.subList(Math.min(offset, out.size()), out.size()), PlacementServer::record);
+    }
+
+    /* ---- JSON ---- */
+    static String student(Student s) {
+        return "{\"id\":" + BulkIO.json(s.getId()) + ",\"name\":" + BulkIO.json(s.getName()) + ",\"branch\":" + BulkIO.json(s.getBranch())
+                + ",\"cgpa\":" + s.getCgpa() + ",\"skills\":" + skills(s.getSkills()) + "}";
+    }
+    static String company(Company c) {
+        return "{\"id\":" + BulkIO.json(c.getId()) + ",\"name\":" + BulkIO.json(c.getName()) + ",\"role\":" + BulkIO.json(c.getRole())
+                + ",\"minCgpa\":" + c.getMinCgpa() + ",\"requiredSkills\":" + skills(c.getRequiredSkills()) + ",\"rule\":" + BulkIO.json(c.getRule())
+                + ",\"interviews\":" + BulkIO.json(c.getInterviews()) + "}";
+    }
+    static String candidate(CandidateScorer.Candidate c) {
+        return "{\"score\":" + c.getScore() + ",\"student\":" + student(c.getStudent()) + "}";
+    }
+    static String record(PlacementRecord r) {
+        return "{\"studentId\":" + BulkIO.json(r.getStudentId()) + ",\"companyId\":" + BulkIO.json(r.getCompanyId())
+                + ",\"status\":" + BulkIO.json(r.getStatus()) + ",\"date\":" + r.getDate().getTime() + "}";
+    }
+    private static String skills(List<Skill> skills) {
+        return array(skills, k -> "{\"name\":" + BulkIO.json(k.getName()) + ",\"level\":" + BulkIO.json(k.getLevel()) + "}");
+    }
+    static <T> String array(List<T> items, Function<T, String> f) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < items.size(); i++) { if (i > 0) sb.append(','); sb.append(f.apply(items.get(i))); }
+        return sb.append(']').toString();
+    }
+    static String error(String msg) { return "{\"error\":" + BulkIO.json(msg) + "}"; }
+
+    /* format=lines: one flat JSON object per line, in the order the router merges on (students by
+       CGPA_ORDER, shortlists by score, records by date); student rows are BulkIO export rows */
+    private static boolean lines(Map<String, String> q) { return "lines".equals(q.get("format")); }
+    private static <T> Reply rows(List<T> items, Function<T, String> f) {
+        StringBuilder sb = new StringBuilder();
+        for (T t : items) sb.append(f.apply(t)).append('\n');
+        return new Reply(200, "application/x-ndjson; charset=utf-8", sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* ---- request helpers ---- */
+    private static Map<String, String> body(HttpExchange ex) throws IOException, HttpError {
+        String text = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (text.isEmpty()) throw new HttpError(400, "Missing JSON body");
+        return BulkIO.parseJson(text);
+    }
+    static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> q = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return q;
+        for (String kv : raw.split("&")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) q.put(URLDecoder.decode(kv.substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+    static int intParam(Map<String, String> q, String key, int def) {
+        String v = q.get(key);
+        if (v == null) return def;
+        try { return Math.max(0, Integer.parseInt(v)); }
+        catch (NumberFormatException e) { throw new IllegalArgumentException("Bad " + key + ": " + v); }
+    }
+    // a list is sliced, any other view is walked only as far as the page
+    private static <T> List<T> page(Collection<T> all, Map<String, String> q) {
+        int offset = Math.min(intParam(q, "offset", 0), all.size());
+        int limit = intParam(q, "limit", DEFAULT_LIMIT);
+        if (all instanceof List) return ((List<T>) all).subList(offset, (int) Math.min(all.size(), (long) offset + limit));
+        List<T> out = new ArrayList<>();
+        Iterator<T> it = all.iterator();
+        for (int i = 0; i < offset; i++) it.next();
+        while (out.size() < limit && it.hasNext()) out.add(it.next());
+        return out;
+    }
+
+    /* Load generator against a running instance:
+         java PlacementManagementSystem --loadtest http://localhost:8080 [threads] [seconds] [writePercent]
+       Seeds its own students and companies (ids from 900000) if missing, then mixes reads (student lookups,
+       eligibility) with student inserts, and prints throughput and latency percentiles. */
+    static void loadTest(String base, int threads, int seconds, int writePercent) throws Exception {
+        int seed = 200;
+        for (int i = 0; i < seed; i++)
+            request("POST", base + "/students", "{\"id\":\"" + (900000 + i) + "\",\"name\":\"Load Student\",\"branch\":\""
+                    + PlacementManager.BRANCHES[i % PlacementManager.BRANCHES.length] + "\",\"cgpa\":\"" + (5 + i % 50 / 10.0) + "\",\"skills\":\"Java:High;SQL:Low\"}");
+        for (int i = 0; i < 10; i++)
+            request("POST", base + "/companies", "{\"id\":\"" + (900000 + i) + "\",\"name\":\"Load Company\",\"role\":\"Dev\",\"minCgpa\":\"" + (5 + i * 0.4) + "\",\"requiredSkills\":\"Java:Low\"}");
+        // inserted ids carry the run's start time so repeated runs do not collide
+        String runTag = Long.toString(System.currentTimeMillis());
+        AtomicInteger nextId = new AtomicInteger();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<long[]>> parts = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            parts.add(pool.submit(() -> {
+                Random r = new Random(id);
+                long[] lat = new long[1 << 16];
+                int n = 0;
+                while (System.nanoTime() < end) {
+                    long t0 = System.nanoTime();
+                    int status;
+                    int pick = r.nextInt(100);
+                    if (pick < writePercent)
+                        status = request("POST", base + "/students", "{\"id\":\"" + runTag + "-" + nextId.getAndIncrement() + "\",\"name\":\"Load Student\",\"branch\":\""
+                                + PlacementManager.BRANCHES[0] + "\",\"cgpa\":\"7.5\",\"skills\":\"Java:High\"}");
+                    else if (pick < 60) status = request("GET", base + "/students/" + (900000 + r.nextInt(seed)), null);
+                    else status = request("GET", base + "/companies/" + (900000 + r.nextInt(10)) + "/eligible?limit=50", null);
+                    if (status >= 400) errors.incrementAndGet();
+                    if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                    lat[n++] = System.nanoTime() - t0;
+                }
+                return Arrays.copyOf(lat, n);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> f : parts) {
+            long[] l = f.get();
+            int old = all.length;
+            all = Arrays.copyOf(all, old + l.length);
+            System.arraycopy(l, 0, all, old, l.length);
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+        System.out.println(String.format(Locale.ROOT, "requests=%d errors=%d throughput=%.0f req/s p50=%.2fms p99=%.2fms max=%.2fms",
+                all.length, errors.get(), all.length / (double) seconds, pct(all, 0.50), pct(all, 0.99), pct(all, 1.0)));
+    }
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+    }
+    private static int request(String method, String url, String json) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        c.setRequestMethod(method);
+        if (json != null) {
+            c.setDoOutput(true);
+            c.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream os = c.getOutputStream()) { os.write(json.getBytes(StandardCharsets.UTF_8)); }
+        }
+        int status = c.getResponseCode();
+        try (InputStream in = status >= 400 ? c.getErrorStream() : c.getInputStream()) { if (in != null) in.readAllBytes(); }
+        return status;
+    }
+}
+
+/* Coordinator for a sharded deployment. Students are partitioned across worker processes by a hash
+   of the student id; each worker is a --serve instance started with -Dpms.shard=<i>/<n> in its own
+   data directory. Companies are replicated to every worker. The router serves the same REST surface
+   as PlacementServer:
+     one student (read, write, skills)    forwarded to the shard that owns the id
+     company writes                       sent to every shard; one company write at a time, so every
+                                          replica applies them in the same order
+     company reads                        any shard, round robin
+     eligible, shortlist, student lists,  scatter-gather: each shard returns its partial result already
+     records                              sorted (format=lines, limit pushed down to offset+limit) and the
+                                          streams are k-way merged as they arrive
+     drives                               run on every shard over its own students, results concatenated;
+                                          each shard seats them on its round-robin share of the plan's
+                                          slot x panel cells, so together they book the plan once
+   A replica that misses a company write (down, or refused it) is marked stale and copied back from a
+   current replica as soon as it answers; the router also compares the replicas when it starts.
+   The shard count is fixed for a set of data directories; changing it means export and re-import.
+     java PlacementManagementSystem --coordinator <port> <url>,<url>,...   workers already running
+     java PlacementManagementSystem --cluster <shards> [port]            starts local workers too */
+class ShardRouter {
+    private final List<String> shards;
+    private final HttpServer http;
+    private final ExecutorService readers;
+    private final ExecutorService scatter = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "shard-scatter");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object companyWrites = new Object();
+    // replicas behind on companies; changed under companyWrites
+    private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService resync = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "shard-resync");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicInteger nextRead = new AtomicInteger();
+    private final List<Process> workers = new ArrayList<>();
+
+    static final Comparator<CandidateScorer.Candidate> SCORE_ORDER = (a, b) ->
+            a.getScore() != b.getScore() ? (a.getScore() > b.getScore() ? -1 : 1) : a.getStudent().getId().compareTo(b.getStudent().getId());
+    static final Comparator<PlacementRecord> DATE_ORDER = Comparator.comparing(PlacementRecord::getDate);
+
+    // String.hashCode is fixed by the language spec, so every JVM routes an id the same way
+    static int shardOf(String studentId, int shards) {
+        int h = studentId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards);
+    }
+
+    ShardRouter(List<String> shards, int port, int threads) throws IOException {
+        if (shards.isEmpty()) throw new IllegalArgumentException("No shards given");
+        this.shards = new ArrayList<>();
+        for (String s : shards) this.shards.add(s.replaceAll("/+$", ""));
+        AtomicInteger n = new AtomicInteger();
+        readers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "router-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        http = HttpServer.create(new InetSocketAddress(port), 256);
+        http.setExecutor(readers);
+        http.createContext("/health", ex -> PlacementServer.handle(ex, this::health));
+        http.createContext("/students", ex -> PlacementServer.handle(ex, this::students));
+        http.createContext("/companies", ex -> PlacementServer.handle(ex, this::companies));
+        http.createContext("/records", ex -> PlacementServer.handle(ex, this::records));
+        http.createContext("/metrics", ex -> PlacementServer.handle(ex, (e, path) -> PlacementServer.metrics()));
+    }
+
+    // refuses to start unless shard i of the list reports itself as i/n
+    void start() throws IOException {
+        for (int i = 0; i < shards.size(); i++) {
+            Map<String, String> h = health(i);
+            String expected = shards.size() == 1 ? null : i + "/" + shards.size();
+            if (!Objects.equals(expected, h.get("shard")))
+                throw new IllegalArgumentException(shards.get(i) + " is shard " + h.get("shard") + ", expected " + expected);
+        }
+        synchronized (companyWrites) {
+            try {
+                Map<String, Map<String, String>> reference = companyRows(0);
+                for (int i = 1; i < shards.size(); i++) if (!sameCompanies(companyRows(i), reference)) stale.add(i);
+            } catch (PlacementServer.HttpError e) {
+                throw new IOException(e.getMessage(), e);
             }
+            repair();
+        }
+        resync.scheduleWithFixedDelay(() -> {
+            if (stale.isEmpty()) return;
+            synchronized (companyWrites) { repair(); }
+        }, 2, 2, TimeUnit.SECONDS);
+        http.start();
+    }
+    int getPort() { return http.getAddress().getPort(); }
+    void stop() {
+        http.stop(0);
+        readers.shutdownNow();
+        scatter.shutdownNow();
+        resync.shutdownNow();
+        // workers started by cluster() checkpoint in their shutdown hooks
+        for (Process p : workers) p.destroy();
+        for (Process p : workers) {
+            try { p.waitFor(30, TimeUnit.SECONDS); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); }
         }
     }
 
-    private void editStudentDialog() {
-        String idVal = JOptionPane.showInputDialog(this, "Enter Student ID:");
-        if (idVal == null || idVal.trim().isEmpty()) return;
+    /* Starts n local workers as child JVMs on ports port+1..port+n, each in ./shard-<i> with its log
+       in shard-<i>/worker.log and the parent's pms.* properties, waits for them, then starts the router on port. */
+    static ShardRouter cluster(int n, int port) throws IOException {
+        if (n < 1) throw new IllegalArgumentException("Need at least one shard");
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        StringBuilder cp = new StringBuilder();
+        for (String e : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (cp.length() > 0) cp.append(File.pathSeparator);
+            cp.append(new File(e).getAbsolutePath());
+        }
+        List<String> urls = new ArrayList<>();
+        List<Process> started = new ArrayList<>();
         try {
-            Student sOld = m.getStudent(idVal.trim());
-            JLabel idLabel = new JLabel(idVal.trim());
-            JTextField nameField = new JTextField(sOld.getName());
-            nameField.setInputVerifier(nameVerifier);
-            JComboBox<String> branchCombo = new JComboBox<>(BRANCHES);
-            branchCombo.setSelectedItem(sOld.getBranch());
-            JSpinner cgpaSpinner = createCgpaSpinner(sOld.getCgpa(), false);
+            for (int i = 0; i < n; i++) {
+                File dir = new File("shard-" + i);
+                if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+                List<String> cmd = new ArrayList<>(Arrays.asList(java, "-cp", cp.toString()));
+                for (String key : System.getProperties().stringPropertyNames())
+                    if (key.startsWith("pms.") && !key.equals("pms.shard")) cmd.add("-D" + key + "=" + System.getProperty(key));
+                cmd.addAll(Arrays.asList("-Dpms.shard=" + i + "/" + n, "PlacementManagementSystem", "--serve", String.valueOf(port + 1 + i)));
+                started.add(new ProcessBuilder(cmd).directory(dir).redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(dir, "worker.log"))).start());
+                urls.add("http://localhost:" + (port + 1 + i));
+            }
+            ShardRouter router = new ShardRouter(urls, port, Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+            router.workers.addAll(started);
+            long deadline = System.currentTimeMillis() + 120_000;
+            for (int i = 0; i < n; i++) {
+                while (true) {
+                    try { router.health(i); break; }
+                    catch (IOException e) {
+                        if (!started.get(i).isAlive()) throw new IOException("Shard " + i + " exited; see shard-" + i + "/worker.log");
+                        if (System.currentTimeMillis() > deadline) throw new IOException("Shard " + i + " did not come up");
+                        try { Thread.sleep(100); }
+                        catch (InterruptedException ie) { Thread.currentThread().interrupt(); throw new InterruptedIOException(); }
+                    }
+                }
+            }
+            router.start();
+            return router;
+        } catch (IOException | RuntimeException e) {
+            for (Process p : started) p.destroyForcibly();
+            throw e;
+        }
+    }
 
-            Object[] f = { "ID:", idLabel, "Name:", nameField, "Branch:", branchCombo, "CGPA:", cgpaSpinner };
-            int res = showDialogWithFocus(f, "Edit Student - " + idVal.trim(), cgpaSpinner, false);
-            if (res != JOptionPane.OK_OPTION) { showPopup("Info", "Operation cancelled."); return; }
+    /* ---- scatter-gather queries ---- */
+    /* Every shard's sorted rows (format=lines), merged in order through a heap of one head row per
+       shard, so the router holds shards-many rows whatever the result size. Reading stops when the
+       caller has enough; the remaining rows are never parsed. */
+    static final class Merge<T> implements Iterator<T>, Closeable {
+        private final class Cursor {
+            final int shard;
+            final BufferedReader in;
+            T head;
+            Cursor(int shard, BufferedReader in) { this.shard = shard; this.in = in; }
+            boolean advance() {
+                try {
+                    String line;
+                    do line = in.readLine(); while (line != null && line.isEmpty());
+                    if (line == null) { in.close(); return false; }
+                    head = row.apply(BulkIO.parseJson(line));
+                    return true;
+                } catch (IOException e) { throw new UncheckedIOException("Shard " + shard + " stream failed", e); }
+            }
+        }
+        private final Function<Map<String, String>, T> row;
+        private final PriorityQueue<Cursor> heap;
 
-            if (nameField.getText() == null || nameField.getText().trim().isEmpty()) {
-                showPopup("Input required", "Name is required.");
-                return;
+        Merge(List<BufferedReader> inputs, Function<Map<String, String>, T> row, Comparator<T> order) {
+            this.row = row;
+            heap = new PriorityQueue<>(Math.max(1, inputs.size()), (a, b) -> {
+                int c = order.compare(a.head, b.head);
+                return c != 0 ? c : Integer.compare(a.shard, b.shard);
+            });
+            try {
+                for (int i = 0; i < inputs.size(); i++) {
+                    Cursor c = new Cursor(i, inputs.get(i));
+                    if (c.advance()) heap.add(c);
+                }
+            } catch (RuntimeException e) {
+                for (BufferedReader in : inputs) closeQuietly(in);
+                throw e;
             }
-            if (!nameVerifier.verify(nameField)) { nameVerifier.shouldYieldFocus(nameField); return; }
+        }
+        @Override public boolean hasNext() { return !heap.isEmpty(); }
+        @Override public T next() {
+            Cursor c = heap.poll();
+            if (c == null) throw new NoSuchElementException();
+            T out = c.head;
+            if (c.advance()) heap.add(c);
+            return out;
+        }
+        @Override public void close() {
+            for (Cursor c : heap) closeQuietly(c.in);
+            heap.clear();
+        }
+    }
 
-            JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
-            InputVerifier v = tf.getInputVerifier();
-            if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+    // opens every shard's stream in parallel; an error reply from any shard fails the query with its status
+    private <T> Merge<T> scatter(String pathAndQuery, Function<Map<String, String>, T> row, Comparator<T> order) throws Exception {
+        String sep = pathAndQuery.contains("?") ? "&" : "?";
+        List<Future<BufferedReader>> opening = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final int shard = i;
+            opening.add(scatter.submit(() -> open(shard, pathAndQuery + sep + "format=lines")));
+        }
+        List<BufferedReader> inputs = new ArrayList<>();
+        Exception failure = null;
+        for (Future<BufferedReader> f : opening) {
+            try { inputs.add(f.get()); }
+            catch (ExecutionException e) { if (failure == null) failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e; }
+        }
+        if (failure != null) {
+            for (BufferedReader in : inputs) closeQuietly(in);
+            throw failure;
+        }
+        return new Merge<>(inputs, row, order);
+    }
 
-            String newName = nameField.getText().trim();
-            String newBranch = (String) branchCombo.getSelectedItem();
-            float val = ((Number) cgpaSpinner.getValue()).floatValue();
+    // the merged rows as a JSON array, streamed to the client
+    private <T> PlacementServer.Streamed stream(Merge<T> merge, int offset, int limit, Function<T, String> json) {
+        return out -> {
+            try (Merge<T> m = merge) {
+                for (int i = 0; i < offset && m.hasNext(); i++) m.next();
+                out.write('[');
+                for (int i = 0; i < limit && m.hasNext(); i++) {
+                    if (i > 0) out.write(',');
+                    out.write(json.apply(m.next()));
+                }
+                out.write(']');
+            }
+        };
+    }
 
-            Student sNew = new Student(idVal.trim(), newName, newBranch, val);
-            for (Skill sk : sOld.getSkills()) sNew.addSkill(sk);
+    private static Student student(Map<String, String> row) { return (Student) BulkIO.parseRow(BulkIO.Kind.STUDENTS, row); }
+    private static CandidateScorer.Candidate candidate(Map<String, String> row) {
+        return new CandidateScorer.Candidate(student(row), Double.parseDouble(row.get("score")));
+    }
+    private static PlacementRecord record(Map<String, String> row) {
+        return new PlacementRecord(row.get("studentId"), row.get("companyId"), row.get("status"), new Date(Long.parseLong(row.get("date"))));
+    }
 
-            m.updateStudent(idVal.trim(), sNew);
-            m.saveAll();
-            showPopup("Student Updated", "Updated:\n" + sNew.toString());
-        } catch (RecordNotFoundException rnfe) {
-            showPopup("Error", rnfe.getMessage());
-        } catch (Exception e) {
-            showPopup("Error", "Error updating student: " + e.getMessage());
+    /* ---- routes ---- */
+    private String health(HttpExchange ex, String[] path) throws Exception {
+        long students = 0, records = 0;
+        String companies = "0";
+        StringBuilder down = new StringBuilder();
+        for (int i = 0; i < shards.size(); i++) {
+            try {
+                Map<String, String> h = health(i);
+                students += Long.parseLong(h.get("students"));
+                records += Long.parseLong(h.get("records"));
+                companies = h.get("companies");
+            } catch (IOException e) {
+                if (down.length() > 0) down.append(',');
+                down.append(i);
+            }
         }
+        StringBuilder behind = new StringBuilder();
+        for (int i : new TreeSet<>(stale)) behind.append(behind.length() > 0 ? "," : "").append(i);
+        return "{\"status\":\"" + (down.length() == 0 && behind.length() == 0 ? "ok" : "degraded") + "\",\"shards\":" + shards.size() + ",\"down\":[" + down
+                + "],\"stale\":[" + behind + "],\"students\":" + students + ",\"companies\":" + companies + ",\"records\":" + records + "}";
     }
 
-    private void removeStudentDialog() {
-        String id = JOptionPane.showInputDialog(this, "Enter Student ID to remove:");
-        if (id == null || id.trim().isEmpty()) return;
-        m.removeStudent(id.trim());
-        m.saveAll();
-        showPopup("Student Removed", "Student removed (if existed): " + id.trim());
+    private Object students(HttpExchange ex, String[] path) throws Exception {
+        String method = ex.getRequestMethod();
+        if (path.length == 1 && method.equals("GET")) {
+            Map<String, String> q = PlacementServer.query(ex);
+            int offset = PlacementServer.intParam(q, "offset", 0), limit = PlacementServer.intParam(q, "limit", PlacementServer.DEFAULT_LIMIT);
+            String branch = q.get("branch");
+            String filter = branch == null ? "" : "branch=" + enc(branch) + "&";
+            return stream(scatter("/students?" + filter + pushdown(offset, limit), ShardRouter::student, PlacementManager.CGPA_ORDER),
+                    offset, limit, PlacementServer::student);
+        }
+        if (path.length == 1 && method.equals("POST")) {
+            byte[] body = ex.getRequestBody().readAllBytes();
+            String id = BulkIO.parseJson(new String(body, StandardCharsets.UTF_8)).get("id");
+            if (id == null || id.trim().isEmpty()) throw new IllegalArgumentException("Missing id");
+            return forward(shardOf(id.trim(), shards.size()), "POST", "/students", body);
+        }
+        if (path.length < 2) throw new PlacementServer.HttpError(405, method + " not supported on /students");
+        // everything about one student lives on its shard
+        return forward(shardOf(path[1], shards.size()), method, target(ex), ex.getRequestBody().readAllBytes());
     }
 
-    private void addCompanyDialog() {
-        JTextField id = new JTextField();
-        JTextField name = new JTextField();
-        JTextField role = new JTextField();
-        id.setInputVerifier(idVerifier);
-        name.setInputVerifier(nameVerifier);
-        JSpinner cgpaSpinner = createCgpaSpinner(7.00, false);
+    private Object companies(HttpExchange ex, String[] path) throws Exception {
+        String method = ex.getRequestMethod();
+        if (method.equals("GET")) {
+            if (path.length == 3 && path[2].equals("eligible")) {
+                Map<String, String> q = PlacementServer.query(ex);
+                int offset = PlacementServer.intParam(q, "offset", 0), limit = PlacementServer.intParam(q, "limit", PlacementServer.DEFAULT_LIMIT);
+                return stream(scatter("/companies/" + enc(path[1]) + "/eligible?" + pushdown(offset, limit), ShardRouter::student, PlacementManager.CGPA_ORDER),
+                        offset, limit, PlacementServer::student);
+            }
+            if (path.length == 3 && path[2].equals("shortlist")) {
+                // scores depend only on the student and the company, so the best k overall are among each shard's best k
+                Map<String, String> q = PlacementServer.query(ex);
+                int k = PlacementServer.intParam(q, "k", 50);
+                String opt = q.get("optional");
+                return stream(scatter("/companies/" + enc(path[1]) + "/shortlist?k=" + k + (opt == null ? "" : "&optional=" + enc(opt)),
+                        ShardRouter::candidate, SCORE_ORDER), 0, k, PlacementServer::candidate);
+            }
+            int shard = Math.floorMod(nextRead.getAndIncrement(), shards.size());
+            for (int i = 0; i < shards.size() && stale.contains(shard); i++) shard = (shard + 1) % shards.size();
+            return forward(shard, "GET", target(ex), null);
+        }
+        byte[] body = ex.getRequestBody().readAllBytes();
+        if (path.length == 3 && path[2].equals("drive") && method.equals("POST")) {
+            List<PlacementServer.Reply> replies = broadcast(method, target(ex), body);
+            StringBuilder statuses = new StringBuilder();
+            boolean agree = true;
+            for (int i = 0; i < replies.size(); i++) {
+                agree &= replies.get(i).status == replies.get(0).status;
+                statuses.append(i == 0 ? "" : ", ").append("shard ").append(i).append(": ").append(replies.get(i).status);
+            }
+            if (!agree) throw new PlacementServer.HttpError(502, "Drive failed on some shards (" + statuses + ")");
+            if (replies.get(0).status >= 400) return replies.get(0);
+            StringBuilder sb = new StringBuilder("[");
+            for (PlacementServer.Reply r : replies) {
+                String part = new String(r.body, StandardCharsets.UTF_8).trim();
+                part = part.substring(1, part.length() - 1).trim();
+                if (part.isEmpty()) continue;
+                if (sb.length() > 1) sb.append(',');
+                sb.append(part);
+            }
+            return sb.append(']').toString();
+        }
+        synchronized (companyWrites) {
+            repair();
+            return replicate(method, target(ex), body);
+        }
+    }
 
-        Object[] f = { "ID:", id, "Name:", name, "Role:", role, "Min CGPA:", cgpaSpinner };
-        int res = showDialogWithFocus(f, "Add Company", cgpaSpinner, false);
-        if (res == JOptionPane.OK_OPTION) {
-            try {
-                // explicit empty checks
-                String cid = id.getText() == null ? "" : id.getText().trim();
-                String cname = name.getText() == null ? "" : name.getText().trim();
-                if (cid.isEmpty() || cname.isEmpty()) {
-                    showPopup("Input required", "Company ID and Name are required. Please provide both.");
-                    return;
-                }
+    private Object records(HttpExchange ex, String[] path) throws Exception {
+        if (path.length != 1 || !ex.getRequestMethod().equals("GET")) throw new PlacementServer.HttpError(405, "Only GET /records");
+        Map<String, String> q = PlacementServer.query(ex);
+        String student = q.get("student"), company = q.get("company");
+        if (student != null) return forward(shardOf(student, shards.size()), "GET", target(ex), null);
+        int offset = PlacementServer.intParam(q, "offset", 0), limit = PlacementServer.intParam(q, "limit", PlacementServer.DEFAULT_LIMIT);
+        String filter = company == null ? "" : "company=" + enc(company) + "&";
+        return stream(scatter("/records?" + filter + pushdown(offset, limit), ShardRouter::record, DATE_ORDER), offset, limit, PlacementServer::record);
+    }
 
-                if (!idVerifier.verify(id)) { idVerifier.shouldYieldFocus(id); return; }
-                if (!nameVerifier.verify(name)) { nameVerifier.shouldYieldFocus(name); return; }
+    /* ---- shard calls ---- */
+    private static String pushdown(int offset, int limit) { return "offset=0&limit=" + Math.min(Integer.MAX_VALUE, (long) offset + limit); }
+    private static String enc(String s) { return URLEncoder.encode(s, StandardCharsets.UTF_8); }
+    private static String target(HttpExchange ex) {
+        String q = ex.getRequestURI().getRawQuery();
+        return ex.getRequestURI().getRawPath() + (q == null ? "" : "?" + q);
+    }
+    private static void closeQuietly(Closeable c) {
+        try { c.close(); } catch (IOException ignored) { }
+    }
 
-                JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
-                InputVerifier v = tf.getInputVerifier();
-                if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+    private HttpURLConnection connect(int shard, String method, String pathAndQuery) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(shards.get(shard) + pathAndQuery).openConnection();
+        c.setRequestMethod(method);
+        c.setConnectTimeout(5000);
+        return c;
+    }
+    private PlacementServer.HttpError unavailable(int shard, IOException e) {
+        return new PlacementServer.HttpError(502, "Shard " + shard + " (" + shards.get(shard) + ") unavailable: " + e.getMessage());
+    }
 
-                String crole = role.getText().trim();
-                float val = ((Number) cgpaSpinner.getValue()).floatValue();
+    private Map<String, String> health(int shard) throws IOException {
+        HttpURLConnection c = connect(shard, "GET", "/health");
+        try (InputStream in = c.getInputStream()) { return BulkIO.parseJson(new String(in.readAllBytes(), StandardCharsets.UTF_8)); }
+    }
 
-                Company c = new Company(cid, cname, crole, val);
-                m.addCompany(c);
-                m.saveAll();
-                showPopup("Company Added", "Company added:\n" + c.toString());
-            } catch (InvalidDataException ide) {
-                showPopup("Error", ide.getMessage());
-            } catch (Exception e) {
-                showPopup("Error", "Error adding company: " + e.getMessage());
+    private PlacementServer.Reply forward(int shard, String method, String pathAndQuery, byte[] body) throws PlacementServer.HttpError {
+        try {
+            HttpURLConnection c = connect(shard, method, pathAndQuery);
+            if (body != null && body.length > 0) {
+                c.setDoOutput(true);
+                c.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream os = c.getOutputStream()) { os.write(body); }
             }
+            int status = c.getResponseCode();
+            byte[] out;
+            try (InputStream in = status >= 400 ? c.getErrorStream() : c.getInputStream()) { out = in == null ? new byte[0] : in.readAllBytes(); }
+            return new PlacementServer.Reply(status, c.getContentType(), out);
+        } catch (IOException e) {
+            throw unavailable(shard, e);
         }
     }
 
-    private void editCompanyDialog() {
-        String idVal = JOptionPane.showInputDialog(this, "Enter Company ID:");
-        if (idVal == null || idVal.trim().isEmpty()) return;
+    private BufferedReader open(int shard, String pathAndQuery) throws PlacementServer.HttpError {
         try {
-            Company old = m.getCompany(idVal.trim());
-            JLabel idLabel = new JLabel(idVal.trim());
-            JTextField nameField = new JTextField(old.getName());
-            nameField.setInputVerifier(nameVerifier);
-            JTextField roleField = new JTextField(old.getRole());
-            JSpinner cgpaSpinner = createCgpaSpinner(old.getMinCgpa(), false);
+            HttpURLConnection c = connect(shard, "GET", pathAndQuery);
+            int status = c.getResponseCode();
+            if (status != 200) {
+                String msg = "HTTP " + status;
+                try (InputStream in = c.getErrorStream()) {
+                    if (in != null) msg = BulkIO.parseJson(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getOrDefault("error", msg);
+                } catch (IllegalArgumentException ignored) { }
+                throw new PlacementServer.HttpError(status, msg);
+            }
+            return new BufferedReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw unavailable(shard, e);
+        }
+    }
 
-            Object[] f = { "ID:", idLabel, "Name:", nameField, "Role:", roleField, "Min CGPA:", cgpaSpinner };
-            int res = showDialogWithFocus(f, "Edit Company - " + idVal.trim(), cgpaSpinner, false);
-            if (res != JOptionPane.OK_OPTION) { showPopup("Info", "Operation cancelled."); return; }
+    // the same request to every shard in parallel; an unreachable shard answers 502
+    private List<PlacementServer.Reply> broadcast(String method, String pathAndQuery, byte[] body) throws InterruptedException {
+        List<Future<PlacementServer.Reply>> sent = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final int shard = i;
+            sent.add(scatter.submit(() -> forward(shard, method, pathAndQuery, body)));
+        }
+        List<PlacementServer.Reply> replies = new ArrayList<>();
+        for (Future<PlacementServer.Reply> f : sent) {
+            try { replies.add(f.get()); }
+            catch (ExecutionException e) {
+                replies.add(new PlacementServer.Reply(502, null, PlacementServer.error(e.getCause().getMessage()).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return replies;
+    }
 
-            if (nameField.getText() == null || nameField.getText().trim().isEmpty()) {
-                showPopup("Input required", "Name is required.");
-                return;
+    /* A company write, under companyWrites. Replicas that all accept, or all refuse for the same reason
+       (validation, unknown id), agree and the first reply stands for them. Replicas that did not accept
+       what others did, and any that could not be reached (it may have applied the write or not), are
+       marked stale and resynced at once; if one is still behind the write is answered 202. */
+    private PlacementServer.Reply replicate(String method, String pathAndQuery, byte[] body) throws Exception {
+        List<PlacementServer.Reply> replies = broadcast(method, pathAndQuery, body);
+        int accepted = -1, answered = -1;
+        boolean agree = true;
+        for (int i = 0; i < replies.size(); i++) {
+            int status = replies.get(i).status;
+            if (status < 300 && accepted < 0) accepted = i;
+            if (status != 502 && answered < 0) answered = i;
+            agree &= status == replies.get(0).status;
+        }
+        if (agree && replies.get(0).status != 502) return replies.get(0);
+        if (answered < 0) throw new PlacementServer.HttpError(502, "No shard reachable");
+        for (int i = 0; i < replies.size(); i++) {
+            int status = replies.get(i).status;
+            if (status == 502 || (accepted >= 0 && status >= 300)) stale.add(i);
+        }
+        repair();
+        PlacementServer.Reply first = replies.get(accepted >= 0 ? accepted : answered);
+        return stale.isEmpty() ? first : new PlacementServer.Reply(202, first.type, first.body);
+    }
+
+    // under companyWrites: copies the companies of a current replica onto each stale one it can reach
+    private void repair() {
+        if (stale.isEmpty()) return;
+        int source = -1;
+        for (int i = 0; i < shards.size() && source < 0; i++) if (!stale.contains(i)) source = i;
+        if (source < 0) return;
+        Map<String, Map<String, String>> want;
+        try { want = companyRows(source); }
+        catch (IOException | PlacementServer.HttpError e) { return; }
+        for (int i : new ArrayList<>(stale)) {
+            try {
+                Map<String, Map<String, String>> have = companyRows(i);
+                for (Map.Entry<String, Map<String, String>> e : want.entrySet()) {
+                    Map<String, String> h = have.get(e.getKey());
+                    if (h != null && sameCompany(h, e.getValue())) continue;
+                    StringBuilder json = new StringBuilder("{");
+                    for (Map.Entry<String, String> f : e.getValue().entrySet())
+                        json.append(json.length() > 1 ? "," : "").append(BulkIO.json(f.getKey())).append(':').append(BulkIO.json(f.getValue()));
+                    byte[] body = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+                    PlacementServer.Reply r = h == null ? forward(i, "POST", "/companies", body) : forward(i, "PUT", "/companies/" + enc(e.getKey()), body);
+                    if (r.status >= 300) throw new IOException("company " + e.getKey() + ": HTTP " + r.status);
+                }
+                for (String id : have.keySet()) {
+                    if (want.containsKey(id)) continue;
+                    PlacementServer.Reply r = forward(i, "DELETE", "/companies/" + enc(id), null);
+                    if (r.status >= 300 && r.status != 404) throw new IOException("company " + id + ": HTTP " + r.status);
+                }
+                stale.remove(i);
+            } catch (IOException | PlacementServer.HttpError e) {
+                // still behind; tried again on the next company write or resync tick
             }
-            if (!nameVerifier.verify(nameField)) { nameVerifier.shouldYieldFocus(nameField); return; }
+        }
+    }
 
-            JFormattedTextField tf = ((JSpinner.NumberEditor) cgpaSpinner.getEditor()).getTextField();
-            InputVerifier v = tf.getInputVerifier();
-            if (v != null && !v.verify(tf)) { v.shouldYieldFocus(tf); return; }
+    private Map<String, Map<String, String>> companyRows(int shard) throws IOException, PlacementServer.HttpError {
+        Map<String, Map<String, String>> out = new HashMap<>();
+        try (BufferedReader in = open(shard, "/companies?offset=0&limit=" + Integer.MAX_VALUE + "&format=lines")) {
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isEmpty()) continue;
+                Map<String, String> row = BulkIO.parseJson(line);
+                out.put(row.get("id"), row);
+            }
+        }
+        return out;
+    }
+    private static boolean sameCompanies(Map<String, Map<String, String>> a, Map<String, Map<String, String>> b) {
+        if (!a.keySet().equals(b.keySet())) return false;
+        for (Map.Entry<String, Map<String, String>> e : a.entrySet()) if (!sameCompany(e.getValue(), b.get(e.getKey()))) return false;
+        return true;
+    }
+    // skill order follows each JVM's SkillCatalog, so skills compare as sets
+    private static boolean sameCompany(Map<String, String> a, Map<String, String> b) {
+        return Objects.equals(a.get("name"), b.get("name")) && Objects.equals(a.get("role"), b.get("role"))
+                && Float.parseFloat(a.get("minCgpa")) == Float.parseFloat(b.get("minCgpa"))
+                && Objects.equals(Objects.toString(a.get("rule"), ""), Objects.toString(b.get("rule"), ""))
+                && Objects.equals(Objects.toString(a.get("interviews"), ""), Objects.toString(b.get("interviews"), ""))
+                && new TreeSet<>(Arrays.asList(a.get("requiredSkills").split(";"))).equals(new TreeSet<>(Arrays.asList(b.get("requiredSkills").split(";"))));
+    }
+}
 
-            String newName = nameField.getText().trim();
-            String newRole = roleField.getText().trim();
-            float val = ((Number) cgpaSpinner.getValue()).floatValue();
+/* Benchmarks for the manager's hot paths on synthetic data, run with
+     java PlacementManagementSystem --bench [students=N] [companies=N] [skills=N] [warmup=N] [iterations=N] [seed=N] [out=file.csv|file.json]
+   Each benchmark runs its warmup iterations, then times each measured iteration separately.
+   Results go to stdout as CSV, or to the out file as CSV or JSON, one row per benchmark, so runs can
+   be compared by a script. */
+class PlacementBenchmark {
+    static final String[] COLUMNS = { "benchmark", "students", "companies", "skills", "iterations", "opsPerIteration",
+            "meanMs", "minMs", "p50Ms", "maxMs", "opsPerSec" };
+    private static volatile long sink; // keeps results alive so the JIT cannot drop the work
 
-            Company updated = new Company(idVal.trim(), newName, newRole, val);
-            for (Skill sk : old.getRequiredSkills()) updated.addRequiredSkill(sk);
+    interface Op { void run() throws Exception; }
 
-            m.updateCompany(idVal.trim(), updated);
-            m.saveAll();
-            showPopup("Company Updated", "Updated:\n" + updated.toString());
-        } catch (RecordNotFoundException rnfe) {
-            showPopup("Error", rnfe.getMessage());
-        } catch (Exception e) {
-            showPopup("Error", "Error updating company: " + e.getMessage());
+    final Map<String, Long> params = new HashMap<>();
+    final List<String[]> results = new ArrayList<>();
+
+    PlacementBenchmark(String[] args) {
+        params.put("students", 10000L); params.put("companies", 100L); params.put("skills", 5L);
+        params.put("warmup", 3L); params.put("iterations", 5L); params.put("seed", 42L);
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + a);
+            String k = a.substring(0, eq);
+            if (k.equals("out")) continue;
+            if (!params.containsKey(k)) throw new IllegalArgumentException("Unknown parameter: " + k);
+            params.put(k, Long.parseLong(a.substring(eq + 1)));
         }
     }
+    int p(String k) { return params.get(k).intValue(); }
 
-    private void removeCompanyDialog() {
-        String id = JOptionPane.showInputDialog(this, "Enter Company ID to remove:");
-        if (id == null || id.trim().isEmpty()) return;
-        m.removeCompany(id.trim());
-        m.saveAll();
-        showPopup("Company Removed", "Company removed (if existed): " + id.trim());
+    /* ---- synthetic data; the same seed always gives the same dataset ---- */
+    static List<Student> students(int n, int skills, Random r) {
+        List<Student> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Student s = new Student(String.valueOf(100000 + i), "Student " + i,
+                    PlacementManager.BRANCHES[r.nextInt(PlacementManager.BRANCHES.length)], r.nextInt(1001) / 100f);
+            for (int k = 0; k < skills; k++) s.addSkill(new Skill(skillName(r), r.nextBoolean() ? "High" : "Low"));
+            out.add(s);
+        }
+        return out;
+    }
+    static List<Company> companies(int n, int skills, Random r) {
+        List<Company> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Company c = new Company(String.valueOf(500000 + i), "Company " + i, "Engineer", 5 + r.nextInt(401) / 100f);
+            for (int k = 0, req = r.nextInt(Math.max(1, skills / 2) + 1); k < req; k++) c.addRequiredSkill(new Skill(skillName(r), "Low"));
+            out.add(c);
+        }
+        return out;
+    }
+    // skewed towards a few common skills, like real profiles
+    private static String skillName(Random r) {
+        int k = r.nextInt(10) < 7 ? r.nextInt(12) : 12 + r.nextInt(88);
+        return "Skill" + k;
     }
 
-    private void addSkillDialog() {
-        String sid = JOptionPane.showInputDialog(this, "Enter Student ID:");
-        if (sid == null || sid.trim().isEmpty()) return;
-        try {
-            Student s = m.getStudent(sid.trim());
-            String skill = JOptionPane.showInputDialog(this, "Skill name:");
-            if (skill == null || skill.trim().isEmpty()) { showPopup("Info", "No skill entered. Operation cancelled."); return; }
-            String[] options = { "Low", "High" };
-            int sel = JOptionPane.showOptionDialog(this, "Select skill level for \"" + skill.trim() + "\":",
-                    "Skill Level", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
-            if (sel < 0) { showPopup("Info", "Operation cancelled."); return; }
-            String level = options[sel];
-            s.addSkill(new Skill(skill.trim(), level));
-            m.saveAll();
-            showPopup("Skill Added", "Skill added to " + s.getName() + " (" + level + ")");
-        } catch (RecordNotFoundException rnfe) {
-            showPopup("Error", rnfe.getMessage());
-        } catch (Exception e) {
-            showPopup("Error", "Error adding skill: " + e.getMessage());
+    /* ---- harness ---- */
+    void measure(String name, int ops, Op op) throws Exception {
+        for (int i = 0; i < p("warmup"); i++) op.run();
+        int n = Math.max(1, p("iterations"));
+        long[] ns = new long[n];
+        for (int i = 0; i < n; i++) {
+            long t = System.nanoTime();
+            op.run();
+            ns[i] = System.nanoTime() - t;
         }
+        long[] sorted = ns.clone();
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (long x : ns) mean += x;
+        mean /= n;
+        results.add(new String[] { name, String.valueOf(p("students")), String.valueOf(p("companies")), String.valueOf(p("skills")),
+                String.valueOf(n), String.valueOf(ops), ms(mean), ms(sorted[0]), ms(sorted[n / 2]), ms(sorted[n - 1]),
+                String.format(Locale.ROOT, "%.1f", ops * 1e9 / mean) });
+        System.err.println(String.format(Locale.ROOT, "%-22s %10s ms/iter %14s ops/s", name, ms(mean), results.get(results.size() - 1)[10]));
     }
+    private static String ms(double ns) { return String.format(Locale.ROOT, "%.3f", ns / 1e6); }
 
-    private void addRequiredSkillDialog() {
-        String cid = JOptionPane.showInputDialog(this, "Enter Company ID:");
-        if (cid == null || cid.trim().isEmpty()) return;
+    void runAll() throws Exception {
+        Random r = new Random(params.get("seed"));
+        List<Student> students = students(p("students"), p("skills"), r);
+        List<Company> companies = companies(p("companies"), p("skills"), r);
+        File dir = Files.createTempDirectory("pms-bench").toFile();
         try {
-            Company c = m.getCompany(cid.trim());
-            String skill = JOptionPane.showInputDialog(this, "Required skill:");
-            if (skill == null || skill.trim().isEmpty()) { showPopup("Info", "No skill entered. Operation cancelled."); return; }
-            String[] options = { "Low", "High" };
-            int sel = JOptionPane.showOptionDialog(this, "Select preferred level for \"" + skill.trim() + "\":",
-                    "Preferred Skill Level", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
-            if (sel < 0) { showPopup("Info", "Operation cancelled."); return; }
-            String level = options[sel];
-            c.addRequiredSkill(new Skill(skill.trim(), level));
-            m.saveAll();
-            showPopup("Skill Added", "Skill added to " + c.getName() + " (" + level + ")");
-        } catch (RecordNotFoundException rnfe) {
-            showPopup("Error", rnfe.getMessage());
-        } catch (Exception e) {
-            showPopup("Error", "Error adding required skill: " + e.getMessage());
+            PlacementManager m = new PlacementManager(dir);
+            m.loadAll();
+            m.addStudents(students);
+            m.addCompanies(companies);
+
+            measure("getEligibleStudents", companies.size(), () -> {
+                for (Company c : companies) sink += m.getEligibleStudents(c.getId()).size();
+            });
+            int pairs = Math.min(students.size(), 1000) * companies.size();
+            measure("hasRequiredSkills", pairs, () -> {
+                int hits = 0;
+                for (int i = 0; i < Math.min(students.size(), 1000); i++)
+                    for (Company c : companies) if (PlacementManager.hasRequiredSkills(students.get(i), c)) hits++;
+                sink += hits;
+            });
+            // company rules: the tree walk against the compiled bitmask form, on the same pairs
+            StringBuilder wide = new StringBuilder("any (");
+            for (int k = 10; k < 30; k++) wide.append(k == 10 ? "" : ", ").append("Skill").append(k);
+            EligibilityRule[] rules = {
+                EligibilityRule.compile("branch in (\"Computer Science and Engineering\", \"Information Technology\") and cgpa >= 7"),
+                EligibilityRule.compile("any (Skill0, Skill1, Skill2) >= High and not placed"),
+                EligibilityRule.compile("all (Skill3, Skill4) or (skill Skill5 >= High and cgpa > 8.5) or not branch = \"Civil Engineering\""),
+                EligibilityRule.compile(wide.append(") and not placed").toString()) };
+            Set<String> placed = new HashSet<>();
+            for (int i = 0; i < students.size(); i += 7) placed.add(students.get(i).getId());
+            int rulePairs = Math.min(students.size(), 10000) * rules.length;
+            measure("ruleInterpreted", rulePairs, () -> {
+                int hits = 0;
+                for (int i = 0; i < Math.min(students.size(), 10000); i++)
+                    for (EligibilityRule rule : rules) if (rule.interpret(students.get(i), placed)) hits++;
+                sink += hits;
+            });
+            measure("ruleCompiled", rulePairs, () -> {
+                int hits = 0;
+                for (int i = 0; i < Math.min(students.size(), 10000); i++)
+                    for (EligibilityRule rule : rules) if (rule.test(students.get(i), placed)) hits++;
+                sink += hits;
+            });
+            measure("eligibilityMatrix", companies.size(), () -> sink += m.getEligibilityMatrix().getStudentCount());
+            measure("getSortedByCGPA", 1, () -> sink += m.getSortedByCGPA().size());
+            measure("shortlistTop50", companies.size(), () -> {
+                for (Company c : companies) sink += m.getShortlist(c.getId(), 50).size();
+            });
+            // as typed: a prefix, a name, a typo, skill and branch words, an id prefix
+            String[] queries = { "stu", "student 12", "studnet", "skill1 comp sci", students.get(0).getId().substring(0, 4) };
+            measure("searchStudents", queries.length, () -> {
+                for (String q : queries) sink += m.searchStudents(q, 20).size();
+            });
+            Map<String, Integer> seats = new HashMap<>();
+            for (Company c : companies) seats.put(c.getId(), 10);
+            measure("allocateOffers", companies.size(), () -> sink += m.allocateOffers(seats, null).getMatched());
+            int batch = 1000;
+            measure("addPlacementRecord", batch, () -> {
+                for (int i = 0; i < batch; i++)
+                    m.addPlacementRecord(new PlacementRecord(students.get(i % students.size()).getId(), companies.get(i % companies.size()).getId(), "Selected"));
+            });
+            measure("saveAll", 1, () -> { if (!m.saveAll()) throw new IOException("saveAll failed"); });
+            // loads a copy: m still holds the live directory's journal and mapped history
+            File copy = copyData(dir, new File(dir, "load"));
+            measure("loadAll", 1, () -> {
+                PlacementManager fresh = new PlacementManager(copy);
+                fresh.loadAll();
+                sink += fresh.getAllStudents().size();
+                fresh.close();
+            });
+            // a day's timetable: up to 20 drives of 40 panels sharing candidates, then dropouts backfilled one at a time
+            Map<Company, List<Student>> dayCandidates = new LinkedHashMap<>();
+            for (Company c : companies.subList(0, Math.min(20, companies.size()))) {
+                Company planned = new Company(c.getId(), c.getName(), c.getRole(), c.getMinCgpa());
+                planned.setInterviewPlan("40x20 09:00-12:30,13:30-17:00");
+                dayCandidates.put(planned, m.getEligibleStudents(c.getId()));
+            }
+            int dayOps = 0;
+            for (List<Student> l : dayCandidates.values()) dayOps += l.size();
+            measure("scheduleDay", Math.max(1, dayOps), () -> sink += new InterviewTimetable().schedule(dayCandidates).size());
+            InterviewTimetable[] day = { null };
+            List<InterviewTimetable.Slot> seated = new ArrayList<>();
+            int[] cursor = { 0 };
+            int drops = 100;
+            measure("rescheduleDropout", drops, () -> {
+                for (int i = 0; i < drops; i++) {
+                    if (cursor[0] == seated.size()) { // everyone dropped once: lay out a fresh day
+                        day[0] = new InterviewTimetable();
+                        seated.clear();
+                        for (InterviewTimetable.Drive d : day[0].schedule(dayCandidates).values()) seated.addAll(d.getSlots());
+                        Collections.shuffle(seated, new Random(1));
+                        cursor[0] = 0;
+                        if (seated.isEmpty()) return;
+                    }
+                    InterviewTimetable.Slot s = seated.get(cursor[0]++);
+                    if (day[0].getDrive(s.companyId).drop(s.student.getId()) != null) sink++;
+                }
+            });
+            // a whole drive without the UI: zero interview delay, results drained like the drive window does
+            // seeded outcomes so repeated runs write identical histories
+            DriveScheduler drives = new DriveScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()), 0,
+                    OutcomePolicy.coinFlip(params.get("seed")));
+            EligibilityMatrix matrix = m.getEligibilityMatrix();
+            Company busiest = companies.get(0);
+            for (Company c : companies) if (matrix.getEligibleCount(c.getId()) > matrix.getEligibleCount(busiest.getId())) busiest = c;
+            Company driveCompany = busiest;
+            List<Student> eligible = m.getEligibleStudents(driveCompany.getId());
+            measure("placementDrive", eligible.size(), () -> {
+                DriveHandle h = drives.start(driveCompany, eligible, m);
+                h.await();
+                List<DriveResult> out = new ArrayList<>();
+                sink += h.drainTo(out);
+            });
+            drives.shutdown();
+            m.close();
+        } finally {
+            deleteTree(dir);
         }
     }
 
-    private void showEligibleStudents() {
-        String cid = JOptionPane.showInputDialog(this, "Enter Company ID:");
-        if (cid == null || cid.trim().isEmpty()) return;
-        try {
-            List<Student> eligible = m.getEligibleStudents(cid.trim());
-            showListPopup("Eligible Students for " + cid.trim(), eligible);
-        } catch (Exception e) {
-            showPopup("Error", "Error: " + e.getMessage());
+    static File copyData(File from, File to) throws IOException {
+        if (!to.isDirectory() && !to.mkdirs()) throw new IOException("Cannot create " + to);
+        File[] files = from.listFiles(File::isFile);
+        if (files != null) for (File f : files) Files.copy(f.toPath(), new File(to, f.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return to;
+    }
+    static void deleteTree(File f) {
+        File[] files = f.listFiles();
+        if (files != null) for (File c : files) deleteTree(c);
+        f.delete();
+    }
+
+    /* Hook for the JMH module (benchmarks/): JMH cannot generate code for classes in the default
+       package, so PlacementManagerBenchmark calls this once per trial by reflection and then times
+       the returned Callables. The dataset is the one --bench generates for the same parameters. */
+    static Workloads workloads(int students, int companies, int skills, long seed, File dir) throws Exception {
+        return new Workloads(students, companies, skills, seed, dir);
+    }
+    static final class Workloads extends LinkedHashMap<String, Callable<Object>> implements AutoCloseable {
+        private static final long serialVersionUID = 1L;
+        private final transient PlacementManager m;
+        private final transient DriveScheduler drives;
+
+        Workloads(int studentCount, int companyCount, int skills, long seed, File dir) throws Exception {
+            Random r = new Random(seed);
+            List<Student> students = students(studentCount, skills, r);
+            List<Company> companies = companies(companyCount, skills, r);
+            File live = new File(dir, "live");
+            if (!live.isDirectory() && !live.mkdirs()) throw new IOException("Cannot create " + live);
+            m = new PlacementManager(live);
+            m.loadAll();
+            m.addStudents(students);
+            m.addCompanies(companies);
+            drives = new DriveScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()), 0, OutcomePolicy.coinFlip(seed));
+
+            put("getEligibleStudents", () -> {
+                int n = 0;
+                for (Company c : companies) n += m.getEligibleStudents(c.getId()).size();
+                return n;
+            });
+            put("hasRequiredSkills", () -> {
+                int hits = 0;
+                for (int i = 0; i < Math.min(students.size(), 1000); i++)
+                    for (Company c : companies) if (PlacementManager.hasRequiredSkills(students.get(i), c)) hits++;
+                return hits;
+            });
+            put("getSortedByCGPA", () -> m.getSortedByCGPA().size());
+            put("addPlacementRecord", () -> {
+                for (int i = 0; i < 1000; i++)
+                    m.addPlacementRecord(new PlacementRecord(students.get(i % students.size()).getId(), companies.get(i % companies.size()).getId(), "Selected"));
+                return null;
+            });
+            put("saveAll", () -> { if (!m.saveAll()) throw new IOException("saveAll failed"); return null; });
+            m.saveAll();
+            File copy = copyData(live, new File(dir, "load"));
+            put("loadAll", () -> {
+                PlacementManager fresh = new PlacementManager(copy);
+                try { fresh.loadAll(); return fresh.getAllStudents().size(); }
+                finally { fresh.close(); }
+            });
+            EligibilityMatrix matrix = m.getEligibilityMatrix();
+            Company busiest = companies.get(0);
+            for (Company c : companies) if (matrix.getEligibleCount(c.getId()) > matrix.getEligibleCount(busiest.getId())) busiest = c;
+            Company driveCompany = busiest;
+            List<Student> eligible = m.getEligibleStudents(driveCompany.getId());
+            put("placementDrive", () -> {
+                DriveHandle h = drives.start(driveCompany, eligible, m);
+                h.await();
+                return h.drainTo(new ArrayList<>());
+            });
+        }
+
+        @Override public void close() {
+            drives.shutdown();
+            m.close();
         }
     }
 
-    private void startDriveAndShowSummary() {
-        String cid = JOptionPane.showInputDialog(this, "Enter Company ID for Drive:");
-        if (cid == null || cid.trim().isEmpty()) return;
-        try {
-            Company c = m.getCompany(cid.trim());
-            List<Student> eligible = m.getEligibleStudents(cid.trim());
-            if (eligible.isEmpty()) { showPopup("Drive Summary", "No eligible students!"); return; }
-            List<String> summary = new ArrayList<>();
-            for (Student s : eligible) {
-                String result = Math.random() > 0.5 ? "Selected" : "Rejected";
-                m.addPlacementRecord(new PlacementRecord(s.getId(), c.getId(), result));
-                summary.add(s.getName() + " (" + s.getId() + ") -> " + result);
+    void write(PrintStream out, boolean json) {
+        if (json) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                String[] row = results.get(i);
+                StringBuilder sb = new StringBuilder("  {");
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    if (c > 0) sb.append(", ");
+                    sb.append(BulkIO.json(COLUMNS[c])).append(": ").append(c == 0 ? BulkIO.json(row[c]) : row[c]);
+                }
+                out.println(sb.append(i + 1 < results.size() ? "}," : "}"));
             }
-            m.saveAll();
-            StringBuilder sb = new StringBuilder();
-            sb.append("Placement Drive Results for company: ").append(c.getName()).append(" (" + c.getId() + ")\n\n");
-            for (String line : summary) sb.append(line).append("\n");
-            showPopup("Drive Summary", sb.toString());
-        } catch (Exception e) {
-            showPopup("Error", "Error: " + e.getMessage());
+            out.println("]");
+        } else {
+            out.println(String.join(",", COLUMNS));
+            for (String[] row : results) out.println(String.join(",", row));
+        }
+    }
+
+    static void main(String[] args) throws Exception {
+        String outFile = null;
+        for (String a : args) if (a.startsWith("out=")) outFile = a.substring(4);
+        PlacementBenchmark b = new PlacementBenchmark(args);
+        b.runAll();
+        if (outFile == null) { b.write(System.out, false); return; }
+        try (PrintStream out = new PrintStream(new FileOutputStream(outFile), false, "UTF-8")) {
+            b.write(out, outFile.toLowerCase(Locale.ROOT).endsWith(".json"));
         }
     }
 }
@@ -823,8 +8253,89 @@ class PlacementGUI extends JFrame {
 /* Main */
 public class PlacementManagementSystem {
     public static void main(String[] args) {
+        // read once when the JDK's HttpServer classes load, so it must be set before any server exists:
+        // headers and body go out as separate writes, and without TCP_NODELAY each response waits on delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+        Metrics.registerMBean();
+        int dump = Integer.getInteger("pms.metrics.interval", 0);
+        if (dump > 0) Metrics.startDump(System.err, dump);
+        if (args.length > 0 && args[0].equals("--bench")) {
+            try { PlacementBenchmark.main(Arrays.copyOfRange(args, 1, args.length)); }
+            catch (Exception e) { System.err.println("Benchmark failed: " + e); System.exit(1); }
+            System.exit(0);
+        }
+        if (args.length > 0 && args[0].equals("--loadtest")) {
+            try {
+                PlacementServer.loadTest(args.length > 1 ? args[1] : "http://localhost:" + PlacementServer.DEFAULT_PORT,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 16, args.length > 3 ? Integer.parseInt(args[3]) : 10,
+                        args.length > 4 ? Integer.parseInt(args[4]) : 5);
+            } catch (Exception e) { System.err.println("Load test failed: " + e); System.exit(1); }
+            System.exit(0);
+        }
+        // sharded front: --coordinator <port> <url>,<url>,... or --cluster <shards> [port] (local workers)
+        if (args.length > 0 && (args[0].equals("--coordinator") || args[0].equals("--cluster"))) {
+            try {
+                ShardRouter router;
+                if (args[0].equals("--cluster")) {
+                    if (args.length < 2) throw new IllegalArgumentException("Usage: --cluster <shards> [port]");
+                    router = ShardRouter.cluster(Integer.parseInt(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : PlacementServer.DEFAULT_PORT);
+                } else {
+                    if (args.length < 3) throw new IllegalArgumentException("Usage: --coordinator <port> <url>,<url>,...");
+                    router = new ShardRouter(Arrays.asList(args[2].split(",")), Integer.parseInt(args[1]), Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+                    router.start();
+                }
+                Runtime.getRuntime().addShutdownHook(new Thread(router::stop));
+                System.out.println("Shard router listening on port " + router.getPort());
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Cannot start router: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
         PlacementManager m = new PlacementManager();
-        m.loadAll();
-        SwingUtilities.invokeLater(() -> new PlacementGUI(m));
+        String changeLog = System.getProperty("pms.changes.file");
+        if (changeLog != null) {
+            try { m.subscribe("file", new ChangeLogWriter(new File(changeLog))); }
+            catch (IOException e) { System.err.println("Change log disabled: " + e.getMessage()); }
+        }
+        // headless service mode: --serve [port]; a checkpoint on shutdown keeps the next start fast
+        if (args.length > 0 && args[0].equals("--serve")) {
+            try {
+                m.loadAll();
+                int port = args.length > 1 ? Integer.parseInt(args[1]) : PlacementServer.DEFAULT_PORT;
+                PlacementServer server = new PlacementServer(m, port, Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+                // -Dpms.shard=<index>/<count> when this instance is one worker behind a ShardRouter
+                String shard = System.getProperty("pms.shard");
+                if (shard != null) {
+                    String[] p = shard.split("/");
+                    if (p.length != 2) throw new IllegalArgumentException("pms.shard must be <index>/<count>: " + shard);
+                    server.ownShard(Integer.parseInt(p[0].trim()), Integer.parseInt(p[1].trim()));
+                }
+                server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> { server.stop(); m.saveAll(); }));
+                System.out.println("Placement service listening on port " + server.getPort());
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Cannot start service: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        // headless bulk mode: --import|--export <students|companies|skills> <file>
+        if (args.length == 3 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            try {
+                m.loadAll();
+                BulkIO.Kind kind = BulkIO.Kind.valueOf(args[1].toUpperCase(Locale.ROOT));
+                File f = new File(args[2]);
+                if (args[0].equals("--import")) System.out.print(BulkIO.importFile(m, kind, f));
+                else System.out.println("Exported " + BulkIO.exportFile(m, kind, f) + " rows to " + f.getPath());
+                m.saveAll();
+            } catch (IllegalArgumentException | IOException e) {
+                System.err.println("Bulk " + args[0].substring(2) + " failed: " + e.getMessage());
+                System.exit(1);
+            }
+            System.exit(0);
+        }
+        // the window comes up first and loads the data itself, reporting progress
+        SwingUtilities.invokeLater(() -> new PlacementGUI(m).load());
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* BTree splits: a page that outgrows PAGE splits in half by bytes, or, for an insert at the end
+   of the page, moves only the last entry so an ascending load leaves full pages behind */
+class BTreeTest {
+    @TempDir File dir;
+    private PageFile f;
+
+    @BeforeEach void open() throws IOException { f = new PageFile(new File(dir, "t.db"), 1024); }
+    @AfterEach void close() throws IOException { f.close(); }
+
+    private static byte[] key(int i) { return BTree.utf8(String.format("%08d", i)); }
+    private static byte[] value(int i) { return BTree.utf8("v" + i + "-".repeat(60)); }
+
+    private static List<Integer> shuffled(int n, long seed) {
+        List<Integer> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(i);
+        Collections.shuffle(out, new Random(seed));
+        return out;
+    }
+
+    private static void assertInOrder(BTree t, int n) {
+        List<byte[]> keys = new ArrayList<>();
+        t.scan(null, false, null, (k, v) -> { assertArrayEquals(value(keys.size()), v); return keys.add(k); });
+        assertEquals(n, keys.size());
+        for (int i = 0; i < n; i++) assertArrayEquals(key(i), keys.get(i), "key " + i);
+    }
+
+    @Test
+    void splitsKeepEveryEntryReachable() {
+        BTree t = new BTree(f, 0);
+        int n = 20000;
+        for (int i : shuffled(n, 1)) assertNull(t.put(key(i), value(i)));
+        assertEquals(n, t.size());
+        assertTrue(f.getPageCount() > 100, "pages " + f.getPageCount());
+        for (int i = 0; i < n; i++) assertArrayEquals(value(i), t.get(key(i)));
+        assertInOrder(t, n);
+        assertEquals(1000, t.count(key(5000), key(6000)));
+        // a scan from a separator key starts in the right leaf
+        List<byte[]> from = new ArrayList<>();
+        t.scan(key(12345), true, null, (k, v) -> from.add(k) && from.size() < 3);
+        assertArrayEquals(key(12346), from.get(0));
+        assertArrayEquals(key(12348), from.get(2));
+    }
+
+    @Test
+    void replaceAndRemoveAfterSplits() {
+        BTree t = new BTree(f, 0);
+        int n = 5000;
+        for (int i : shuffled(n, 2)) t.put(key(i), value(i));
+        assertArrayEquals(value(7), t.put(key(7), value(8)));
+        assertEquals(n, t.size());
+        t.put(key(7), value(7));
+        for (int i = 0; i < n; i += 2) assertArrayEquals(value(i), t.remove(key(i)));
+        assertNull(t.remove(key(0)));
+        assertEquals(n / 2, t.size());
+        for (int i = 0; i < n; i++) {
+            if (i % 2 == 0) assertNull(t.get(key(i)));
+            else assertArrayEquals(value(i), t.get(key(i)));
+        }
+        assertEquals(n / 2, t.count(null, null));
+    }
+
+    @Test
+    void appendSplitLeavesFullPages() {
+        int n = 20000;
+        BTree ascending = new BTree(f, 0);
+        int before = f.getPageCount();
+        for (int i = 0; i < n; i++) ascending.put(key(i), value(i));
+        int appendPages = f.getPageCount() - before;
+        assertInOrder(ascending, n);
+
+        BTree random = new BTree(f, 1);
+        before = f.getPageCount();
+        for (int i : shuffled(n, 3)) random.put(key(i), value(i));
+        int randomPages = f.getPageCount() - before;
+        assertInOrder(random, n);
+
+        long bytes = 0;
+        for (int i = 0; i < n; i++) bytes += 4 + key(i).length + value(i).length;
+        int full = (int) ((bytes + PageFile.PAGE - 1) / PageFile.PAGE);
+        assertTrue(appendPages <= full + full / 20, "append split pages " + appendPages + " for " + full + " pages of entries");
+        assertTrue(randomPages > appendPages + appendPages / 5, "random " + randomPages + " vs append " + appendPages);
+    }
+
+    @Test
+    void entryLargerThanAPageIsRejected() {
+        BTree t = new BTree(f, 0);
+        assertThrows(IllegalArgumentException.class, () -> t.put(new byte[BTree.MAX_KEY + 1], new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> t.put(key(1), new byte[BTree.MAX_VALUE + 1]));
+        assertEquals(0, t.size());
+    }
+}
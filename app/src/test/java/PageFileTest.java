@@ -0,0 +1,171 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* PageFile persistence: reopen, doublewrite recovery, eviction with a small pool, and the
+   write-ahead hook running before any page of a flush reaches the disk */
+class PageFileTest {
+    private static final int POOL = 64; // the smallest pool PageFile allows
+
+    @TempDir File dir;
+
+    private static byte[] key(int i) { return BTree.utf8(String.format("k%06d", i)); }
+    private static byte[] value(int i) { return BTree.utf8("value of " + i + " ".repeat(i % 40)); }
+
+    // one put the way PagedStore does it: room for the dirtied pages first
+    private static void put(PageFile f, BTree t, int i) {
+        f.reserve(16);
+        t.put(key(i), value(i));
+    }
+
+    private static void assertEntries(BTree t, int from, int to) {
+        assertEquals(to - from, t.size());
+        for (int i = from; i < to; i++) assertArrayEquals(value(i), t.get(key(i)), "entry " + i);
+    }
+
+    @Test
+    void reopenAfterFlush() throws IOException {
+        File file = new File(dir, "p.db");
+        PageFile f = new PageFile(file, POOL);
+        BTree t = new BTree(f, 0);
+        for (int i = 0; i < 2000; i++) put(f, t, i);
+        f.markInitialized();
+        f.flush();
+        f.close();
+
+        PageFile g = new PageFile(file, POOL);
+        assertTrue(g.isInitialized());
+        assertEntries(new BTree(g, 0), 0, 2000);
+        assertEquals(0, new BTree(g, 1).size());
+        g.close();
+        assertFalse(new File(dir, "p.db.dwb").exists());
+    }
+
+    @Test
+    void tornPageIsRepairedFromDoublewrite() throws IOException {
+        File file = new File(dir, "p.db");
+        PageFile f = new PageFile(file, POOL);
+        BTree t = new BTree(f, 0);
+        for (int i = 0; i < 500; i++) put(f, t, i);
+        f.close();
+        byte[] before = Files.readAllBytes(file.toPath());
+        f = new PageFile(file, POOL);
+        t = new BTree(f, 0);
+        for (int i = 500; i < 1000; i++) put(f, t, i);
+        f.close();
+        byte[] after = Files.readAllBytes(file.toPath());
+        assertTrue(after.length > before.length);
+
+        // a crash while the second flush wrote in place: its doublewrite file is complete, page 1
+        // is half old and half new and the pages past the old end are missing
+        Files.write(new File(dir, "p.db.dwb").toPath(), doublewrite(after));
+        byte[] torn = Arrays.copyOf(before, before.length);
+        System.arraycopy(after, PageFile.PAGE, torn, PageFile.PAGE, PageFile.PAGE / 2);
+        Files.write(file.toPath(), torn);
+
+        PageFile g = new PageFile(file, POOL);
+        assertEntries(new BTree(g, 0), 0, 1000);
+        assertFalse(new File(dir, "p.db.dwb").exists());
+        g.close();
+    }
+
+    @Test
+    void tornDoublewriteLeavesFileAsFlushed() throws IOException {
+        File file = new File(dir, "p.db");
+        PageFile f = new PageFile(file, POOL);
+        BTree t = new BTree(f, 0);
+        for (int i = 0; i < 500; i++) put(f, t, i);
+        f.close();
+        byte[] flushed = Files.readAllBytes(file.toPath());
+
+        // a crash while the doublewrite file itself was written: nothing was overwritten in place yet
+        byte[] dwb = doublewrite(flushed);
+        Files.write(new File(dir, "p.db.dwb").toPath(), Arrays.copyOf(dwb, dwb.length - PageFile.PAGE / 2));
+
+        PageFile g = new PageFile(file, POOL);
+        assertEntries(new BTree(g, 0), 0, 500);
+        assertFalse(new File(dir, "p.db.dwb").exists());
+        g.close();
+        assertArrayEquals(flushed, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    void smallPoolEvictsAndFlushesBetweenOperations() throws IOException {
+        File file = new File(dir, "p.db");
+        int[] flushes = { 0 };
+        PageFile f = new PageFile(file, POOL);
+        f.setWriteAhead(() -> flushes[0]++);
+        BTree t = new BTree(f, 0);
+        int n = 30000;
+        for (int i = 0; i < n; i++) put(f, t, (int) ((i * 7919L) % n));
+        assertTrue(f.getPageCount() > 4 * POOL, "pages " + f.getPageCount());
+        assertTrue(flushes[0] > 0, "a full pool flushes");
+        // every page read back through the pool, most of them evicted on the way
+        assertEntries(t, 0, n);
+        List<byte[]> keys = new ArrayList<>();
+        t.scan(null, false, null, (k, v) -> keys.add(k));
+        assertEquals(n, keys.size());
+        for (int i = 0; i < n; i++) assertArrayEquals(key(i), keys.get(i));
+        f.close();
+
+        PageFile g = new PageFile(file, POOL);
+        assertEntries(new BTree(g, 0), 0, n);
+        g.close();
+    }
+
+    @Test
+    void writeAheadRunsBeforeAnyPageIsWritten() throws IOException {
+        File file = new File(dir, "p.db");
+        File dwb = new File(dir, "p.db.dwb");
+        PageFile f = new PageFile(file, POOL);
+        BTree t = new BTree(f, 0);
+        for (int i = 0; i < 200; i++) put(f, t, i);
+        f.flush();
+        byte[] flushed = Files.readAllBytes(file.toPath());
+
+        List<byte[]> seen = new ArrayList<>();
+        f.setWriteAhead(() -> {
+            assertFalse(dwb.exists());
+            seen.add(Files.readAllBytes(file.toPath()));
+        });
+        for (int i = 200; i < 400; i++) put(f, t, i);
+        f.flush();
+        assertEquals(1, seen.size());
+        assertArrayEquals(flushed, seen.get(0), "the hook saw the file as last flushed");
+        assertFalse(Arrays.equals(flushed, Files.readAllBytes(file.toPath())));
+
+        // a hook that fails (the journal could not be forced) keeps every page off the disk
+        flushed = Files.readAllBytes(file.toPath());
+        f.setWriteAhead(() -> { throw new IOException("journal unavailable"); });
+        for (int i = 400; i < 450; i++) t.put(key(i), value(i));
+        assertThrows(IOException.class, f::flush);
+        assertArrayEquals(flushed, Files.readAllBytes(file.toPath()));
+        assertFalse(dwb.exists());
+
+        f.setWriteAhead(() -> {});
+        f.close();
+        PageFile g = new PageFile(file, POOL);
+        assertEntries(new BTree(g, 0), 0, 450);
+        g.close();
+    }
+
+    // what flush() writes to <file>.dwb for these pages: page number and image, then a CRC32 of it all
+    private static byte[] doublewrite(byte[] file) {
+        int pages = file.length / PageFile.PAGE;
+        ByteBuffer b = ByteBuffer.allocate(pages * (4 + PageFile.PAGE) + 4);
+        for (int p = 0; p < pages; p++) b.putInt(p).put(file, p * PageFile.PAGE, PageFile.PAGE);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.position());
+        b.putInt((int) crc.getValue());
+        return b.array();
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/* PersistentMap: keys whose hashes collide, removal down to empty, and old versions staying put */
+class PersistentMapTest {
+    // "Aa" and "BB" have the same String.hashCode, so every mix of them collides too
+    private static final String[] COLLIDING = { "AaAa", "AaBB", "BBAa", "BBBB" };
+
+    @Test
+    void collidingKeysAreKeptApart() {
+        PersistentMap<Integer> m = PersistentMap.empty();
+        for (int i = 0; i < COLLIDING.length; i++) m = m.plus(COLLIDING[i], i);
+        assertEquals(COLLIDING.length, m.size());
+        for (int i = 0; i < COLLIDING.length; i++) assertEquals(i, m.get(COLLIDING[i]));
+        assertNull(m.get("AaAb"));
+
+        PersistentMap<Integer> replaced = m.plus("AaBB", 10);
+        assertEquals(COLLIDING.length, replaced.size());
+        assertEquals(10, replaced.get("AaBB"));
+        assertEquals(1, m.get("AaBB"));
+    }
+
+    @Test
+    void removingCollidingKeys() {
+        PersistentMap<Integer> m = PersistentMap.empty();
+        m = m.plus("Aa", 1).plus("BB", 2).plus("C", 3);
+        assertSame(m, m.minus("AaAa"), "an absent key leaves the version as it is");
+
+        PersistentMap<Integer> noAa = m.minus("Aa");
+        assertEquals(2, noAa.size());
+        assertNull(noAa.get("Aa"));
+        assertEquals(2, noAa.get("BB"));
+        assertEquals(3, noAa.get("C"));
+        assertSame(noAa, noAa.minus("Aa"));
+
+        PersistentMap<Integer> empty = noAa.minus("BB").minus("C");
+        assertEquals(0, empty.size());
+        assertFalse(empty.values().iterator().hasNext());
+        assertNull(empty.get("BB"));
+        // the older versions are untouched
+        assertEquals(3, m.size());
+        assertEquals(1, m.get("Aa"));
+    }
+
+    @Test
+    void builderMatchesPlus() {
+        PersistentMap.Builder<String> b = PersistentMap.builder();
+        PersistentMap<String> m = PersistentMap.empty();
+        for (int i = 0; i < 5000; i++) {
+            b.put("id" + i, "v" + i);
+            m = m.plus("id" + i, "v" + i);
+        }
+        for (String k : COLLIDING) { b.put(k, k); m = m.plus(k, k); }
+        PersistentMap<String> built = b.build();
+        assertEquals(m.size(), built.size());
+        assertEquals(new HashSet<>(m.values()), new HashSet<>(built.values()));
+        assertThrows(IllegalStateException.class, () -> b.put("late", "x"));
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random r = new Random(5);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<Integer> m = PersistentMap.empty();
+        List<PersistentMap<Integer>> versions = new ArrayList<>();
+        List<Map<String, Integer>> states = new ArrayList<>();
+        for (int op = 0; op < 20000; op++) {
+            // a small key space with colliding pairs mixed in, so removals hit collision nodes
+            String k = r.nextBoolean() ? COLLIDING[r.nextInt(COLLIDING.length)] + r.nextInt(50) : "k" + r.nextInt(2000);
+            if (r.nextInt(3) == 0) { m = m.minus(k); expected.remove(k); }
+            else { m = m.plus(k, op); expected.put(k, op); }
+            if (op % 2000 == 0) { versions.add(m); states.add(new HashMap<>(expected)); }
+        }
+        assertState(expected, m);
+        for (int v = 0; v < versions.size(); v++) assertState(states.get(v), versions.get(v));
+    }
+
+    private static void assertState(Map<String, Integer> expected, PersistentMap<Integer> m) {
+        assertEquals(expected.size(), m.size());
+        for (Map.Entry<String, Integer> e : expected.entrySet()) assertEquals(e.getValue(), m.get(e.getKey()), e.getKey());
+        List<Integer> values = new ArrayList<>(m.values());
+        assertEquals(expected.size(), values.size());
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(values));
+    }
+}
@@ -0,0 +1,86 @@
+package placement.jmh;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* PlacementManager hot paths on the synthetic dataset of PlacementBenchmark (--bench), one trial per
+   parameter combination. Run with
+     java -jar benchmarks/target/benchmarks.jar -rf json -rff jmh-result.json
+   and pick sizes with -p students=100000 -p companies=500 -p skills=8.
+   The application lives in the default package, which JMH cannot generate code for, so the workloads
+   come from PlacementBenchmark.workloads once per trial; what gets timed is the Callable alone. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlacementManagerBenchmark {
+    @Param({ "10000" }) public int students;
+    @Param({ "100" }) public int companies;
+    @Param({ "5" }) public int skills;
+    @Param({ "42" }) public long seed;
+
+    private AutoCloseable workloads;
+    private File dir;
+    private Callable<Object> eligible, requiredSkills, sortedByCgpa, addRecords, saveAll, loadAll, drive;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("pms-jmh").toFile();
+        Method m = Class.forName("PlacementBenchmark").getDeclaredMethod("workloads", int.class, int.class, int.class, long.class, File.class);
+        m.setAccessible(true);
+        Object w = m.invoke(null, students, companies, skills, seed, dir);
+        workloads = (AutoCloseable) w;
+        Map<String, Callable<Object>> byName = (Map<String, Callable<Object>>) w;
+        eligible = byName.get("getEligibleStudents");
+        requiredSkills = byName.get("hasRequiredSkills");
+        sortedByCgpa = byName.get("getSortedByCGPA");
+        addRecords = byName.get("addPlacementRecord");
+        saveAll = byName.get("saveAll");
+        loadAll = byName.get("loadAll");
+        drive = byName.get("placementDrive");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workloads.close();
+        try (Stream<java.nio.file.Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    // every company once
+    @Benchmark public Object getEligibleStudents() throws Exception { return eligible.call(); }
+    // 1000 students against every company
+    @Benchmark public Object hasRequiredSkills() throws Exception { return requiredSkills.call(); }
+    @Benchmark public Object getSortedByCGPA() throws Exception { return sortedByCgpa.call(); }
+    // 1000 records, journaled
+    @Benchmark public Object addPlacementRecord() throws Exception { return addRecords.call(); }
+    @Benchmark public Object saveAll() throws Exception { return saveAll.call(); }
+    // a copy of the saved directory, never the one the trial's manager holds open
+    @Benchmark public Object loadAll() throws Exception { return loadAll.call(); }
+    // the company with the most eligible students, as startDriveAndShowSummary without the UI
+    @Benchmark public Object placementDrive() throws Exception { return drive.call(); }
+}